@@ -0,0 +1,109 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.benchmark;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.greencodeinitiative.creedengo.java.checks.ArrayCopyCheck;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.offline.ReportedIssue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link ArrayCopyCheck} on a generated method made of loops nested "depth" times, each loop body holding
+ * array copies directly and inside IF / TRY / CATCH / FINALLY blocks (also nested).
+ * <p>
+ * The number of statements grows linearly with the depth : so should the score.
+ * <pre>
+ * ./tool_benchmark.sh ArrayCopyCheckBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ArrayCopyCheckBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int depth;
+
+    private ParsedJavaFile file;
+    private ChecksRunner runner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        file = ParsedJavaFile.parse(Path.of("NestedLoops.java"), nestedLoops(depth), Collections.emptyList());
+        runner = new ChecksRunner(ChecksRunner.instantiate(List.of(ArrayCopyCheck.class)));
+    }
+
+    static String nestedLoops(int depth) {
+        StringBuilder code = new StringBuilder()
+                .append("class NestedLoops {\n")
+                .append("  void copy(int[] src, int[] dst, int[] other, boolean condition) {\n");
+        for (int level = 0; level < depth; level++) {
+            code.append(loopHeader(level))
+                    .append("dst[i").append(level).append("] = src[i").append(level).append("];\n")
+                    .append("if (condition) {\n")
+                    .append("  other[0] = dst[0];\n")
+                    .append("  try { dst[1] = src[1]; } catch (RuntimeException e) { dst[2] = other[2]; }")
+                    .append(" finally { other[3] = src[3]; }\n")
+                    .append("} else {\n")
+                    .append("  if (!condition) { dst[4] = other[4]; }\n")
+                    .append("}\n");
+        }
+        for (int level = depth - 1; level >= 0; level--) {
+            code.append(level % 4 == 3 ? "} while (condition);\n" : "}\n");
+        }
+        return code.append("  }\n}\n").toString();
+    }
+
+    private static String loopHeader(int level) {
+        switch (level % 4) {
+            case 0:
+                return "for (int i" + level + " = 0; i" + level + " < src.length; i" + level + "++) {\n";
+            case 1:
+                return "for (int i" + level + " : src) {\n";
+            case 2:
+                return "int i" + level + " = 0;\nwhile (condition) {\n";
+            default:
+                return "int i" + level + " = 0;\ndo {\n";
+        }
+    }
+
+    @Benchmark
+    public List<ReportedIssue> analyzeFile() {
+        return runner.scan(file);
+    }
+}
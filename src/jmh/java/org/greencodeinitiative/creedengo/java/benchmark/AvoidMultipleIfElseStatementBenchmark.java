@@ -0,0 +1,111 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.benchmark;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.greencodeinitiative.creedengo.java.checks.AvoidMultipleIfElseStatement;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.offline.ReportedIssue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link AvoidMultipleIfElseStatement} on a generated method made of an IF / ELSE IF chain of "branches"
+ * branches (ending with an ELSE clause), each branch holding IF statements nested on a few levels, as generated code
+ * often does.
+ * <p>
+ * The number of statements grows linearly with the number of branches : so should the score.
+ * <pre>
+ * ./tool_benchmark.sh AvoidMultipleIfElseStatementBenchmark -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AvoidMultipleIfElseStatementBenchmark {
+
+    private static final int NESTED_LEVELS = 4;
+
+    private static final int VARIABLES = 8;
+
+    @Param({"10", "100", "1000"})
+    public int branches;
+
+    private ParsedJavaFile file;
+    private ChecksRunner runner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        file = ParsedJavaFile.parse(Path.of("IfElseChain.java"), ifElseChain(branches), Collections.emptyList());
+        runner = new ChecksRunner(ChecksRunner.instantiate(List.of(AvoidMultipleIfElseStatement.class)));
+    }
+
+    static String ifElseChain(int branches) {
+        StringBuilder code = new StringBuilder()
+                .append("class IfElseChain {\n")
+                .append("  int dispatch(int kind");
+        for (int variable = 0; variable < VARIABLES; variable++) {
+            code.append(", int v").append(variable);
+        }
+        code.append(") {\n")
+                .append("    int result = 0;\n");
+        for (int branch = 0; branch < branches; branch++) {
+            code.append(branch == 0 ? "    if " : " else if ")
+                    .append("(kind == ").append(branch).append(" && v").append(branch % VARIABLES).append(" > 0) {\n");
+            nestedIfs(code, branch);
+            code.append("    }");
+        }
+        code.append(" else {\n");
+        nestedIfs(code, branches);
+        return code.append("    }\n    return result;\n  }\n}\n").toString();
+    }
+
+    private static void nestedIfs(StringBuilder code, int branch) {
+        for (int level = 0; level < NESTED_LEVELS; level++) {
+            code.append("if (v").append((branch + level) % VARIABLES).append(" == ").append(level)
+                    .append(" || result < ").append(branch).append(") {\n");
+        }
+        code.append("result++;\n");
+        for (int level = 0; level < NESTED_LEVELS; level++) {
+            code.append("}\n");
+        }
+    }
+
+    @Benchmark
+    public List<ReportedIssue> analyzeFile() {
+        return runner.scan(file);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.benchmark;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.offline.ReportedIssue;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Cost of the checks on the test corpus (`src/test/files`), parsed once before the measurements.
+ * <p>
+ * Each benchmark operation analyzes exactly one file of the corpus (files are analyzed in turn) : the score is thus
+ * the time spent per file, and "gc.alloc.rate.norm" of the GC profiler is the number of bytes allocated per file.
+ * <p>
+ * The "rule" parameter is the simple class name of one check of {@link JavaCheckRegistrar#checkClasses()}, or
+ * {@value #ALL_RULES} to run all the checks together (in a single walk of the tree, as in a real analysis).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ChecksBenchmark {
+
+    public static final String ALL_RULES = "all";
+
+    static final Path CORPUS_DIRECTORY = Path.of("src/test/files");
+
+    @Param(ALL_RULES)
+    public String rule;
+
+    private List<ParsedJavaFile> corpus;
+    private ChecksRunner runner;
+    private int nextFile;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        corpus = ParsedJavaFile.parseDirectory(CORPUS_DIRECTORY, FilesUtils.getClassPath("target/test-jars"));
+        runner = new ChecksRunner(ChecksRunner.instantiate(selectedChecks(rule)));
+        nextFile = 0;
+    }
+
+    static List<Class<? extends JavaCheck>> selectedChecks(String rule) {
+        if (ALL_RULES.equals(rule)) {
+            return JavaCheckRegistrar.checkClasses();
+        }
+        List<Class<? extends JavaCheck>> selected = JavaCheckRegistrar.checkClasses().stream()
+                .filter(checkClass -> checkClass.getSimpleName().equals(rule))
+                .collect(Collectors.toList());
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Unknown rule class: " + rule);
+        }
+        return selected;
+    }
+
+    @Benchmark
+    public List<ReportedIssue> analyzeFile() {
+        ParsedJavaFile file = corpus.get(nextFile);
+        nextFile = (nextFile + 1) % corpus.size();
+        return runner.scan(file);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Entry point of the "benchmark" Maven profile.
+ * <p>
+ * Without any argument, run {@link ChecksBenchmark} for each registered check and for all checks together, with
+ * the GC profiler enabled. Otherwise, arguments are the standard JMH command line options.
+ */
+public class ChecksBenchmarkRunner {
+
+    private ChecksBenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        if (args.length > 0) {
+            new Runner(new CommandLineOptions(args)).run();
+            return;
+        }
+
+        List<String> rules = new ArrayList<>();
+        for (Class<? extends JavaCheck> checkClass : JavaCheckRegistrar.checkClasses()) {
+            rules.add(checkClass.getSimpleName());
+        }
+        rules.add(ChecksBenchmark.ALL_RULES);
+
+        new Runner(new OptionsBuilder()
+                .include(ChecksBenchmark.class.getName())
+                .param("rule", rules.toArray(new String[0]))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.greencodeinitiative.creedengo.java.utils.SyntheticProject;
+
+/**
+ * Scalability test : all the checks of {@link JavaCheckRegistrar#checkClasses()} on a large generated project
+ * (see {@link SyntheticProject}), to compare releases on throughput and memory.
+ * <p>
+ * Unlike the JMH benchmarks, the project is analyzed once, file by file as in a real analysis (each tree can be
+ * garbage collected once its file is analyzed), and the report gives the number of analyzed files per second and
+ * the peak heap usage. Parsing (sonar-java) and checks are timed separately, as parsing usually dominates.
+ * Example : {@code ./tool_benchmark.sh -Dbenchmark.main=ScalabilityBenchmark
+ * -Djmh.args="5000 target/scalability.json"}
+ * <p>
+ * Arguments (all optional) : number of generated classes (default {@value #DEFAULT_CLASSES}), path of a JSON report.
+ */
+public class ScalabilityBenchmark {
+
+    static final int DEFAULT_CLASSES = 5000;
+    static final Path PROJECT_DIRECTORY = Path.of("target/synthetic-project");
+
+    private ScalabilityBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLASSES;
+        List<File> classpath = FilesUtils.getClassPath("target/test-jars");
+
+        List<Path> files = new SyntheticProject(SyntheticProject.DEFAULT_SEED)
+                .generate(PROJECT_DIRECTORY.resolve(Integer.toString(classes)), classes);
+        ChecksRunner runner = new ChecksRunner(ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()));
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = heapPools();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long parseNanos = 0;
+        long checksNanos = 0;
+        long issues = 0;
+        for (Path file : files) {
+            long start = System.nanoTime();
+            ParsedJavaFile parsedFile = ParsedJavaFile.parse(file, classpath);
+            long parsed = System.nanoTime();
+            issues += runner.scan(parsedFile).size();
+            checksNanos += System.nanoTime() - parsed;
+            parseNanos += parsed - start;
+        }
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        String report = String.format(Locale.ROOT,
+                "{\"files\": %d, \"issues\": %d, \"parseSeconds\": %.3f, \"checksSeconds\": %.3f, "
+                        + "\"filesPerSecond\": %.1f, \"checksFilesPerSecond\": %.1f, \"peakHeapMegabytes\": %.1f}",
+                files.size(), issues, parseNanos / 1e9, checksNanos / 1e9,
+                files.size() / ((parseNanos + checksNanos) / 1e9), files.size() / (checksNanos / 1e9),
+                peakHeap / (1024. * 1024.));
+        System.out.println(report);
+        if (args.length > 1) {
+            Files.writeString(Path.of(args[1]), report + System.lineSeparator(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+        pools.removeIf(pool -> pool.getType() != MemoryType.HEAP);
+        return pools;
+    }
+}
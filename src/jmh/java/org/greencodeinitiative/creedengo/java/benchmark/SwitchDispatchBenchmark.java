@@ -0,0 +1,179 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.greencodeinitiative.creedengo.java.checks.AvoidMultipleIfElseStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Run time of the IF / ELSE IF chains reported by {@link AvoidMultipleIfElseStatement} (patterns of
+ * {@code src/test/files/AvoidMultipleIfElseStatement*.java}) against the switch replacing them, for a chain comparing
+ * a variable with "constants" dense ints (tableswitch), sparse ints (lookupswitch), strings (string switch) or enum
+ * constants (tableswitch on the ordinal), on random values (including a value matching no constant).
+ * <p>
+ * The chain and the switch are generated and compiled by javac at setup, as javac chooses the switch instruction.
+ * A switch should be faster from 2 dense ints or enum constants, and from 3 sparse ints or strings : the thresholds
+ * of the rule.
+ * <pre>
+ * ./tool_benchmark.sh SwitchDispatchBenchmark -p dispatch=string
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SwitchDispatchBenchmark {
+
+    private static final int VALUES = 1024;
+
+    @Param({"dense", "sparse", "string", "enum"})
+    public String dispatch;
+
+    @Param({"2", "3", "5", "8"})
+    public int constants;
+
+    @Param({"ifElse", "switch"})
+    public String form;
+
+    private IntUnaryOperator dispatcher;
+
+    // indexes of the values dispatched (the index "constants" is a value matching no constant)
+    private int[] indexes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, ReflectiveOperationException {
+        Path directory = Files.createTempDirectory("dispatch");
+        Path source = directory.resolve("Dispatch.java");
+        Files.write(source, dispatchClass(dispatch, constants, "switch".equals(form)).getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, "-d", directory.toString(), source.toString()) != 0) {
+            throw new UncheckedIOException(new IOException("Dispatch class not compiled in " + directory));
+        }
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()},
+                getClass().getClassLoader());
+        dispatcher = (IntUnaryOperator) classLoader.loadClass("Dispatch").getConstructor().newInstance();
+
+        Random random = new Random(42);
+        indexes = new int[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            indexes[i] = random.nextInt(constants + 1);
+        }
+    }
+
+    /**
+     * Class dispatching the value of an index with an IF / ELSE IF chain or a switch
+     */
+    static String dispatchClass(String dispatch, int constants, boolean switchForm) {
+        String type;
+        switch (dispatch) {
+            case "string":
+                type = "String";
+                break;
+            case "enum":
+                type = "Constant";
+                break;
+            default:
+                type = "int";
+        }
+        StringBuilder code = new StringBuilder()
+                .append("public class Dispatch implements java.util.function.IntUnaryOperator {\n")
+                .append("  enum Constant { ");
+        for (int i = 0; i <= constants; i++) {
+            code.append('C').append(i).append(", ");
+        }
+        code.append("}\n")
+                .append("  private static final ").append(type).append("[] VALUES = {");
+        for (int i = 0; i <= constants; i++) {
+            code.append(value(dispatch, i, true)).append(", ");
+        }
+        code.append("};\n")
+                .append("  public int applyAsInt(int index) {\n")
+                .append("    ").append(type).append(" value = VALUES[index];\n");
+        if (switchForm) {
+            code.append("    switch (value) {\n");
+            for (int i = 0; i < constants; i++) {
+                code.append("      case ").append(value(dispatch, i, false)).append(": return ").append(i + 1)
+                        .append(";\n");
+            }
+            code.append("      default: return 0;\n    }\n");
+        } else {
+            for (int i = 0; i < constants; i++) {
+                code.append(i == 0 ? "    if (" : "    } else if (").append(comparison(dispatch, i)).append(") {\n")
+                        .append("      return ").append(i + 1).append(";\n");
+            }
+            code.append("    } else {\n      return 0;\n    }\n");
+        }
+        return code.append("  }\n}\n").toString();
+    }
+
+    private static String value(String dispatch, int i, boolean runtime) {
+        switch (dispatch) {
+            case "dense":
+                return String.valueOf(i + 1);
+            case "sparse":
+                return String.valueOf((i + 1) * 1000 + i * i * 37);
+            case "string":
+                // values built at run time, not interned as the constants of the switch
+                return runtime ? "new String(\"command" + i + "\")" : "\"command" + i + "\"";
+            default:
+                return runtime ? "Constant.C" + i : "C" + i;
+        }
+    }
+
+    private static String comparison(String dispatch, int i) {
+        return "string".equals(dispatch)
+                ? "value.equals(" + value(dispatch, i, false) + ")"
+                : "value == " + value(dispatch, i, true);
+    }
+
+    @Benchmark
+    public int dispatchValues() {
+        int sum = 0;
+        for (int index : indexes) {
+            sum += dispatcher.applyAsInt(index);
+        }
+        return sum;
+    }
+}
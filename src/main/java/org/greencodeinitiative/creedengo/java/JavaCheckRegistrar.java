@@ -20,10 +20,14 @@ package org.greencodeinitiative.creedengo.java;
 import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 import org.greencodeinitiative.creedengo.java.checks.ArrayCopyCheck;
+import org.greencodeinitiative.creedengo.java.checks.AvoidConcatenateStringsInLoop;
 import org.greencodeinitiative.creedengo.java.checks.AvoidFullSQLRequest;
 import org.greencodeinitiative.creedengo.java.checks.AvoidGettingSizeCollectionInLoop;
 import org.greencodeinitiative.creedengo.java.checks.AvoidMultipleIfElseStatement;
+import org.greencodeinitiative.creedengo.java.checks.AvoidNonSargableSQLQuery;
 import org.greencodeinitiative.creedengo.java.checks.AvoidRegexPatternNotStatic;
 import org.greencodeinitiative.creedengo.java.checks.AvoidSQLRequestInLoop;
 import org.greencodeinitiative.creedengo.java.checks.AvoidSetConstantInBatchUpdate;
@@ -35,6 +39,8 @@ import org.greencodeinitiative.creedengo.java.checks.IncrementCheck;
 import org.greencodeinitiative.creedengo.java.checks.InitializeBufferWithAppropriateSize;
 import org.greencodeinitiative.creedengo.java.checks.NoFunctionCallWhenDeclaringForLoop;
 import org.greencodeinitiative.creedengo.java.checks.OptimizeReadFileExceptions;
+import org.greencodeinitiative.creedengo.java.instrumentation.RuleMetrics;
+import org.sonar.api.config.Configuration;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonarsource.api.sonarlint.SonarLintSide;
@@ -62,14 +68,33 @@ public class JavaCheckRegistrar implements CheckRegistrar {
             InitializeBufferWithAppropriateSize.class,
             AvoidSetConstantInBatchUpdate.class,
             FreeResourcesOfAutoCloseableInterface.class,
-            AvoidMultipleIfElseStatement.class
+            AvoidMultipleIfElseStatement.class,
+            AvoidConcatenateStringsInLoop.class,
+            AvoidNonSargableSQLQuery.class
     );
 
+    @Nullable
+    private final Configuration configuration;
+
+    public JavaCheckRegistrar() {
+        this(null);
+    }
+
+    public JavaCheckRegistrar(@Nullable Configuration configuration) {
+        this.configuration = configuration;
+    }
+
     /**
      * Register the classes that will be used to instantiate checks during analysis.
      */
     @Override
     public void register(RegistrarContext registrarContext) {
+        // execution metrics of the rules are only collected on demand
+        if (configuration != null && configuration.getBoolean(RuleMetrics.PROPERTY).orElse(false)) {
+            RuleMetrics.start();
+        } else {
+            RuleMetrics.stop();
+        }
         // Call to registerClassesForRepository to associate the classes with the correct repository key
         registrarContext.registerClassesForRepository(JavaRulesDefinition.REPOSITORY_KEY, checkClasses(), testCheckClasses());
     }
@@ -17,6 +17,7 @@
  */
 package org.greencodeinitiative.creedengo.java;
 
+import org.greencodeinitiative.creedengo.java.instrumentation.RuleMetricsPostJob;
 import org.sonar.api.Plugin;
 
 public class JavaPlugin implements Plugin {
@@ -28,6 +29,8 @@ public class JavaPlugin implements Plugin {
 
         // batch extensions -> objects are instantiated during code analysis
         context.addExtension(JavaCheckRegistrar.class);
+        context.addExtension(ProjectIssuesSensor.class);
+        context.addExtension(RuleMetricsPostJob.class);
 
     }
 
@@ -34,6 +34,9 @@ public class JavaRulesDefinition implements RulesDefinition {
     static final String LANGUAGE = "java";
     static final String REPOSITORY_KEY = "creedengo-java";
 
+    private static final String SIZE_IN_LOOP_RULE_KEY = "GCI3";
+    static final String SIZE_IN_LOOP_EFFORT = "5min";
+
     private final SonarRuntime sonarRuntime;
 
     public JavaRulesDefinition(SonarRuntime sonarRuntime) {
@@ -47,6 +50,11 @@ public class JavaRulesDefinition implements RulesDefinition {
         RuleMetadataLoader ruleMetadataLoader = new RuleMetadataLoader(RESOURCE_BASE_PATH, sonarRuntime);
 
         ruleMetadataLoader.addRulesByAnnotatedClass(repository, new ArrayList<>(JavaCheckRegistrar.checkClasses()));
+        // the effort of GCI3 issues depends on the cost of the size read on each iteration (gap of each issue), which
+        // is ignored by the constant remediation of the specifications
+        NewRule sizeInLoop = repository.rule(SIZE_IN_LOOP_RULE_KEY);
+        sizeInLoop.setDebtRemediationFunction(sizeInLoop.debtRemediationFunctions().linear(SIZE_IN_LOOP_EFFORT))
+                .setGapDescription("Cost of the size read on each iteration, from 1 for a size kept in a field");
         repository.done();
     }
 
@@ -0,0 +1,61 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java;
+
+import org.greencodeinitiative.creedengo.java.checks.ProjectIssue;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scanner.sensor.ProjectSensor;
+
+/**
+ * Report the {@link ProjectIssue}s of the checks keeping a project-wide state. As a project sensor, it is executed once
+ * the sensors of all the modules of the project, including the Java analysis running the checks, are done.
+ */
+public class ProjectIssuesSensor implements ProjectSensor {
+
+    @Override
+    public void describe(SensorDescriptor descriptor) {
+        descriptor.name("creedengo project-wide issues")
+                .onlyOnLanguage(JavaRulesDefinition.LANGUAGE)
+                .createIssuesForRuleRepository(JavaRulesDefinition.REPOSITORY_KEY);
+    }
+
+    @Override
+    public void execute(SensorContext context) {
+        for (ProjectIssue issue : ProjectIssue.collect(context.project())) {
+            NewIssue newIssue = context.newIssue().forRule(RuleKey.of(JavaRulesDefinition.REPOSITORY_KEY, issue.ruleKey()));
+            newIssue.at(location(newIssue, issue.location()));
+            for (ProjectIssue.Location secondaryLocation : issue.secondaryLocations()) {
+                newIssue.addLocation(location(newIssue, secondaryLocation));
+            }
+            newIssue.save();
+        }
+    }
+
+    private static NewIssueLocation location(NewIssue issue, ProjectIssue.Location location) {
+        InputFile file = location.file();
+        NewIssueLocation newLocation = issue.newLocation()
+                .on(file)
+                .at(file.newRange(location.line(), location.column(), location.endLine(), location.endColumn()));
+        return location.message() == null ? newLocation : newLocation.message(location.message());
+    }
+}
@@ -17,14 +17,12 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.ArrayAccessExpressionTree;
 import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
 import org.sonar.plugins.java.api.tree.BlockTree;
@@ -40,7 +38,6 @@ import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonar.plugins.java.api.tree.TryStatementTree;
-import org.sonar.plugins.java.api.tree.VariableTree;
 import org.sonar.plugins.java.api.tree.WhileStatementTree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
@@ -49,6 +46,10 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
 /**
  * Array Copy Check
+ * <p>
+ * The assignments checked for a loop are the ones of its block, and of the blocks of the IF and TRY statements of
+ * its block (recursively) : nested loops are checked by themselves. Each statement of a file is thus read once, by
+ * its innermost loop, without allocating anything.
  *
  * @author Aubay
  * @formatter:off
@@ -56,7 +57,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI27")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC27")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "GRPS0027")
-public class ArrayCopyCheck extends IssuableSubscriptionVisitor {
+public class ArrayCopyCheck extends CreedengoCheck {
 
     //@formatter:on
     protected static final String MESSAGERULE = "Use System.arraycopy to copy arrays";
@@ -70,56 +71,77 @@ public class ArrayCopyCheck extends IssuableSubscriptionVisitor {
      * Check a node. Report issue when found.
      */
     @Override
-    public void visitNode(final Tree tree) {
-        // Determine blocks to be analyzed
-        final List<Bloc> blocs = getBlocsOfCode(tree);
-
-        // Analyze blocks
-        for (final Bloc bloc : blocs) {
-            if (bloc.isForeach()) {
-                handleForEachAssignments(tree, bloc);
+    protected void visitTree(final Tree tree) {
+        if (tree instanceof ForStatementTree) {
+            checkBlock(tree, ((ForStatementTree) tree).statement(), null, null);
+        } else if (tree instanceof ForEachStatement) {
+            final ForEachStatement forEachTree = (ForEachStatement) tree;
+            if (forEachTree.expression() instanceof IdentifierTree) {
+                checkBlock(tree, forEachTree.statement(), ((IdentifierTree) forEachTree.expression()).name(),
+                        forEachTree.variable().simpleName().name());
             }
-            handleAssignments(tree, bloc);
+        } else if (tree instanceof WhileStatementTree) {
+            checkBlock(tree, ((WhileStatementTree) tree).statement(), null, null);
+        } else if (tree instanceof DoWhileStatementTree) {
+            checkBlock(tree, ((DoWhileStatementTree) tree).statement(), null, null);
         }
     }
 
     /**
-     * Handle for-each assignments controls.
+     * Check the assignments of a block of code, and of its nested IF and TRY blocks.
      *
-     * @param tree
-     * @param bloc
+     * @param loop      loop on which issues are reported
+     * @param statement statement to check (ignored if not a block)
+     * @param iterable  name of the array iterated by a for-each loop
+     * @param value     name of the variable of a for-each loop
      */
-    private void handleForEachAssignments(final Tree tree, final Bloc bloc) {
-        for (final AssignmentExpressionTree assignment : extractAssignments(tree, bloc)) {
-            final ExpressionTree destination = assignment.variable();
-            final ExpressionTree source = assignment.expression();
-            if (isArray(destination) && isVariable(source)) {
-                final String destinationIdentifier = getArrayIdentifier(destination);
-                final String sourceIdentifier = ((IdentifierTree) source).name();
-                if (bloc.getValue().equals(sourceIdentifier) && !bloc.getIterable().equals(destinationIdentifier)) {
-                    reportIssue(tree, MESSAGERULE);
+    private void checkBlock(final Tree loop, @Nullable final StatementTree statement, @Nullable final String iterable,
+                            @Nullable final String value) {
+        if (!(statement instanceof BlockTree)) {
+            return;
+        }
+        final List<StatementTree> body = ((BlockTree) statement).body();
+        for (int i = 0; i < body.size(); i++) {
+            final StatementTree child = body.get(i);
+            if (child.is(Kind.EXPRESSION_STATEMENT)) {
+                final ExpressionTree expression = ((ExpressionStatementTree) child).expression();
+                if (expression.is(Kind.ASSIGNMENT)) {
+                    checkAssignment(loop, (AssignmentExpressionTree) expression, iterable, value);
                 }
+            } else if (child.is(Kind.IF_STATEMENT)) {
+                final IfStatementTree ifTree = (IfStatementTree) child;
+                checkBlock(loop, ifTree.thenStatement(), iterable, value);
+                checkBlock(loop, ifTree.elseStatement(), iterable, value);
+            } else if (child.is(Kind.TRY_STATEMENT)) {
+                final TryStatementTree tryTree = (TryStatementTree) child;
+                checkBlock(loop, tryTree.block(), iterable, value);
+                final List<CatchTree> catches = tryTree.catches();
+                for (int j = 0; j < catches.size(); j++) {
+                    checkBlock(loop, catches.get(j).block(), iterable, value);
+                }
+                checkBlock(loop, tryTree.finallyBlock(), iterable, value);
             }
         }
     }
 
     /**
-     * Handle assignments controls.
-     *
-     * @param tree
-     * @param bloc
+     * Report an issue when an array element is assigned with the current value of a for-each loop (on another
+     * array), or with an element of another array.
      */
-    private void handleAssignments(final Tree tree, final Bloc bloc) {
-        for (final AssignmentExpressionTree assignment : extractAssignments(tree, bloc)) {
-            final ExpressionTree destVariable = assignment.variable();
-            final ExpressionTree srcEspression = assignment.expression();
-            if (isArray(destVariable) && isArray(srcEspression)) {
-                final String destArray = getArrayIdentifier(destVariable);
-                final String srcArray = getArrayIdentifier(srcEspression);
-                if (destArray != null && !destArray.equals(srcArray)) {
-                    reportIssue(tree, MESSAGERULE);
-                }
-            }
+    private void checkAssignment(final Tree loop, final AssignmentExpressionTree assignment,
+                                 @Nullable final String iterable, @Nullable final String value) {
+        final ExpressionTree destination = assignment.variable();
+        final ExpressionTree source = assignment.expression();
+        if (!isArray(destination)) {
+            return;
+        }
+        final String destinationArray = getArrayIdentifier(destination);
+        if (value != null && isVariable(source) && value.equals(((IdentifierTree) source).name())
+                && !iterable.equals(destinationArray)) {
+            reportIssue(loop, MESSAGERULE);
+        }
+        if (isArray(source) && destinationArray != null && !destinationArray.equals(getArrayIdentifier(source))) {
+            reportIssue(loop, MESSAGERULE);
         }
     }
 
@@ -129,6 +151,7 @@ public class ArrayCopyCheck extends IssuableSubscriptionVisitor {
      * @param expression of Array
      * @return Array's name
      */
+    @Nullable
     private String getArrayIdentifier(final ExpressionTree expression) {
         if (expression instanceof ArrayAccessExpressionTree) {
             final ExpressionTree identifier = ((ArrayAccessExpressionTree) expression).expression();
@@ -158,145 +181,4 @@ public class ArrayCopyCheck extends IssuableSubscriptionVisitor {
     private boolean isVariable(final ExpressionTree source) {
         return source instanceof IdentifierTree;
     }
-
-    /**
-     * Extract nested blocks of code
-     *
-     * @param tree
-     * @return
-     */
-    private List<Bloc> getBlocsOfCode(final Tree tree) {
-        final List<Bloc> blocs = new ArrayList<>();
-        if (tree instanceof ForStatementTree) {
-            ForStatementTree castedForTree = (ForStatementTree) tree;
-            addBloc(blocs, castedForTree.statement());
-        } else if (tree instanceof ForEachStatement) {
-            ForEachStatement castedForEachTree = (ForEachStatement) tree;
-            addForEachBloc(blocs, castedForEachTree.statement(), castedForEachTree.variable(),
-                    castedForEachTree.expression());
-        } else if (tree instanceof WhileStatementTree) {
-            WhileStatementTree castedWhileTree = (WhileStatementTree) tree;
-            addBloc(blocs, castedWhileTree.statement());
-        } else if (tree instanceof DoWhileStatementTree) {
-            DoWhileStatementTree castedDoWhileTree = (DoWhileStatementTree) tree;
-            addBloc(blocs, castedDoWhileTree.statement());
-        } else if (tree instanceof IfStatementTree) {
-            IfStatementTree castedIfTree = (IfStatementTree) tree;
-            addBloc(blocs, castedIfTree.thenStatement());
-            addBloc(blocs, castedIfTree.elseStatement());
-        } else if (tree instanceof TryStatementTree) {
-            final TryStatementTree tryTree = (TryStatementTree) tree;
-            addBloc(blocs, tryTree.block());
-            addBloc(blocs, extractCatchBlocks(tryTree));
-            addBloc(blocs, tryTree.finallyBlock());
-        }
-        return blocs;
-    }
-
-    /**
-     * Assignments extraction from block of code.
-     *
-     * @param tree
-     * @param block
-     * @return
-     */
-    private List<AssignmentExpressionTree> extractAssignments(final Tree tree, final Bloc bloc) {
-        final BlockTree block = bloc.getBlockTree();
-
-        // Prepare useful predicates
-        final Predicate<StatementTree> blocksPredicate = statement -> statement.is(Kind.IF_STATEMENT)
-                || statement.is(Kind.TRY_STATEMENT);
-        final Predicate<StatementTree> assignmentPredicate = statement -> statement.is(Kind.EXPRESSION_STATEMENT)
-                && ((ExpressionStatementTree) statement).expression().is(Kind.ASSIGNMENT);
-
-        // Filter expressions to find assignments
-        final List<AssignmentExpressionTree> result = block.body().stream().filter(assignmentPredicate)
-                .map(assign -> (AssignmentExpressionTree) ((ExpressionStatementTree) assign).expression())
-                .collect(Collectors.toList());
-
-        // Recursive loop for nested blocks, add nested assignments to results
-        final List<StatementTree> ifStatements = block.body().stream().filter(blocksPredicate)
-                .collect(Collectors.toList());
-        for (final StatementTree ifstatement : ifStatements) {
-            final List<Bloc> blocs = getBlocsOfCode(ifstatement);
-            for (final Bloc b : blocs) {
-                result.addAll(extractAssignments(tree, b));
-            }
-        }
-        return result;
-    }
-
-    /**
-     * Extract all blocks of code from try/catch statement
-     *
-     * @param tryTree
-     * @return Array of StatementTree
-     */
-    private BlockTree[] extractCatchBlocks(final TryStatementTree tryTree) {
-        final List<CatchTree> catches = tryTree.catches();
-        return catches.stream().map(CatchTree::block).collect(Collectors.toList()).toArray(new BlockTree[0]);
-    }
-
-    /**
-     * Add a Bloc in list after type checking
-     *
-     * @param blocs
-     * @param statements
-     */
-    private void addBloc(final List<Bloc> blocs, final StatementTree... statements) {
-        for (final StatementTree statement : statements) {
-            if (statement instanceof BlockTree) {
-                blocs.add(new Bloc((BlockTree) statement));
-            }
-        }
-    }
-
-    /**
-     * Add a Bloc in list after type checking
-     *
-     * @param blocs
-     * @param statement
-     * @param variable
-     * @param expression
-     */
-    private void addForEachBloc(final List<Bloc> blocs, final StatementTree statement, final VariableTree variable,
-                                final ExpressionTree expression) {
-        if (statement instanceof BlockTree && expression instanceof IdentifierTree) {
-            blocs.add(new Bloc((BlockTree) statement, ((IdentifierTree) expression).identifierToken().text(),
-                    variable.simpleName().identifierToken().text()));
-        }
-    }
-
-    private static class Bloc {
-        private final BlockTree blockTree;
-        private String iterable;
-        private String value;
-
-        public Bloc(final BlockTree blockTree, final String iterable, final String value) {
-            this.blockTree = blockTree;
-            this.iterable = iterable;
-            this.value = value;
-        }
-
-        public boolean isForeach() {
-            return iterable != null && value != null;
-        }
-
-        public Bloc(final BlockTree blockTree) {
-            this.blockTree = blockTree;
-        }
-
-        public BlockTree getBlockTree() {
-            return blockTree;
-        }
-
-        public String getIterable() {
-            return iterable;
-        }
-
-        public String getValue() {
-            return value;
-        }
-
-    }
 }
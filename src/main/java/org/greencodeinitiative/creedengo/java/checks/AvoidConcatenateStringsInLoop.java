@@ -0,0 +1,125 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.LoopBounds;
+import org.greencodeinitiative.creedengo.java.utils.LoopNestingIndex;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
+
+/**
+ * {@code s += ...} and {@code s = s + ...} on a local String declared outside the loop : each iteration copies the
+ * whole string built so far.
+ */
+@Rule(key = "GCI75")
+@DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC75")
+public class AvoidConcatenateStringsInLoop extends CreedengoCheck {
+
+    protected static final String MESSAGERULE = "Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop";
+
+    @Override
+    public List<Kind> nodesToVisit() {
+        return Arrays.asList(Kind.PLUS_ASSIGNMENT, Kind.ASSIGNMENT);
+    }
+
+    @Override
+    protected void visitTree(Tree tree) {
+        AssignmentExpressionTree assignment = (AssignmentExpressionTree) tree;
+        Symbol variable = localString(assignment.variable());
+        if (variable == null || (tree.is(Kind.ASSIGNMENT) && !isConcatenationOf(assignment.expression(), variable))) {
+            return;
+        }
+        // loops are not walked here : the shared index knows the loop enclosing the assignment
+        Tree loop = LoopNestingIndex.of(context.getTree()).innermostLoop(tree);
+        Tree declaration = variable.declaration();
+        if (loop != null && declaration != null && !isDescendant(declaration, loop)) {
+            String bound = LoopBounds.of(loop);
+            reportIssue(tree, bound == null ? MESSAGERULE : (MESSAGERULE + ", with a capacity computed from " + bound));
+        }
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        LoopNestingIndex.release(context.getTree());
+    }
+
+    @CheckForNull
+    private static Symbol localString(ExpressionTree variable) {
+        if (!variable.is(Kind.IDENTIFIER)) {
+            return null;
+        }
+        Symbol symbol = ((IdentifierTree) variable).symbol();
+        Symbol owner = symbol.owner();
+        return symbol.isVariableSymbol() && owner != null && owner.isMethodSymbol() && symbol.type().is("java.lang.String")
+                ? symbol
+                : null;
+    }
+
+    /**
+     * The variable is one of the operands of the concatenation (appended or prepended)
+     */
+    private static boolean isConcatenationOf(ExpressionTree expression, Symbol variable) {
+        ExpressionTree operand = skipParentheses(expression);
+        if (!operand.is(Kind.PLUS)) {
+            return false;
+        }
+        BinaryExpressionTree plus = (BinaryExpressionTree) operand;
+        return isOperand(plus.leftOperand(), variable) || isOperand(plus.rightOperand(), variable);
+    }
+
+    private static boolean isOperand(ExpressionTree expression, Symbol variable) {
+        ExpressionTree operand = skipParentheses(expression);
+        if (operand.is(Kind.IDENTIFIER)) {
+            return variable.equals(((IdentifierTree) operand).symbol());
+        }
+        return isConcatenationOf(operand, variable);
+    }
+
+    private static ExpressionTree skipParentheses(ExpressionTree expression) {
+        ExpressionTree result = expression;
+        while (result.is(Kind.PARENTHESIZED_EXPRESSION)) {
+            result = ((ParenthesizedTree) result).expression();
+        }
+        return result;
+    }
+
+    private static boolean isDescendant(Tree tree, Tree ancestor) {
+        for (Tree parent = tree.parent(); parent != null; parent = parent.parent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
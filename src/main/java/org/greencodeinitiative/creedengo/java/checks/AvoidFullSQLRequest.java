@@ -18,38 +18,46 @@
 package org.greencodeinitiative.creedengo.java.checks;
 
 import java.util.List;
-import java.util.function.Predicate;
 
 import static java.util.Collections.singletonList;
-import static java.util.regex.Pattern.CASE_INSENSITIVE;
-import static java.util.regex.Pattern.compile;
 
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.SqlLiterals;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
-import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
+/**
+ * SQL queries of the file (string literals, and constant expressions built from them) holding a SELECT * FROM
+ */
 @Rule(key = "GCI74")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC74")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S74")
-public class AvoidFullSQLRequest extends IssuableSubscriptionVisitor {
+public class AvoidFullSQLRequest extends CreedengoCheck {
 
     protected static final String MESSAGERULE = "Don't use the query SELECT * FROM";
-    private static final Predicate<String> SELECT_FROM_REGEXP =
-            compile("select\\s*\\*\\s*from", CASE_INSENSITIVE).asPredicate(); //simple regexp, more precision
 
     @Override
     public List<Kind> nodesToVisit() {
-        return singletonList(Tree.Kind.STRING_LITERAL);
+        return singletonList(Tree.Kind.COMPILATION_UNIT);
     }
 
     @Override
-    public void visitNode(Tree tree) {
-        String value = ((LiteralTree) tree).value();
-        if (SELECT_FROM_REGEXP.test(value)) {
-            reportIssue(tree, MESSAGERULE);
+    protected void visitTree(Tree tree) {
+        for (SqlLiterals.SqlQuery query : SqlLiterals.of((CompilationUnitTree) tree).queries()) {
+            if (query.selectsAllColumns()) {
+                reportIssue(query.tree(), MESSAGERULE);
+            }
         }
     }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        SqlLiterals.release(context.getTree());
+    }
 }
@@ -18,37 +18,63 @@
 package org.greencodeinitiative.creedengo.java.checks;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
-import org.sonar.api.utils.log.Logger;
-import org.sonar.api.utils.log.Loggers;
+import javax.annotation.CheckForNull;
+
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.LoopInvariance;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonar.plugins.java.api.tree.WhileStatementTree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
+/**
+ * Size of a collection (or length of a string...) read by the condition of a loop, on each iteration : reported when
+ * it is expensive to compute, or when it can be read once before the loop as the receiver is not modified inside the
+ * loop.
+ */
 @Rule(key = "GCI3")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC3")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "GSCIL")
-public class AvoidGettingSizeCollectionInLoop extends IssuableSubscriptionVisitor {
+public class AvoidGettingSizeCollectionInLoop extends CreedengoCheck {
     protected static final String MESSAGERULE = "Avoid getting the size of the collection in the loop";
-    private static final MethodMatchers SIZE_METHOD = MethodMatchers.or(
+    private static final String MESSAGE_LINEAR_SIZE = MESSAGERULE + " : %s.size() counts all its elements";
+
+    // cost (gap) of an issue on a size kept in a field, and on a size computed by walking all the elements : the
+    // remediation of the rule is linear (see JavaRulesDefinition)
+    static final int SIZE_COST = 1;
+    static final int LINEAR_SIZE_COST = 2;
+
+    private static final MethodMatchers SIZE_METHOD = CachedMethodMatchers.of(MethodMatchers.or(
             MethodMatchers.create()
                     .ofAnyType()
                     .names("size", "length")
                     .withAnyParameters()
                     .build()
-    );
-    private final AvoidGettingSizeCollectionInLoop.AvoidGettingSizeCollectionInLoopVisitor visitorInFile = new AvoidGettingSizeCollectionInLoop.AvoidGettingSizeCollectionInLoopVisitor();
+    ));
+
+    // collections whose size is not kept in a field, but computed by walking all the elements (not constant-time)
+    private static final List<String> LINEAR_SIZE_TYPES = List.of(
+            "java.util.concurrent.ConcurrentLinkedQueue",
+            "java.util.concurrent.ConcurrentLinkedDeque",
+            "java.util.concurrent.LinkedTransferQueue");
 
-    private static final Logger LOGGER = Loggers.get(AvoidGettingSizeCollectionInLoop.class);
+    private final AvoidGettingSizeCollectionInLoopVisitor visitorInFile = new AvoidGettingSizeCollectionInLoopVisitor();
+
+    // loop whose condition is visited
+    private Tree loop;
 
     @Override
     public List<Kind> nodesToVisit() {
@@ -56,52 +82,51 @@ public class AvoidGettingSizeCollectionInLoop extends IssuableSubscriptionVisito
     }
 
     @Override
-    public void visitNode(Tree tree) {
-        LOGGER.debug("--------------------_____-----_____----- AvoidGettingSizeCollectionInLoop.visitNode METHOD - BEGIN");
-        if (tree.is(Kind.FOR_STATEMENT)) {
-            LOGGER.debug("ForStatement found");
-            ForStatementTree forStatementTree = (ForStatementTree) tree;
-
-            LOGGER.debug("Check if condition is a BinaryExpressionTree");
-            if (forStatementTree.condition() instanceof BinaryExpressionTree) {
-
-                LOGGER.debug("Casting condition to BinaryExpressionTree");
-                BinaryExpressionTree expressionTree = (BinaryExpressionTree) forStatementTree.condition();
-                LOGGER.debug("Checking BinaryExpressionTree content");
-                expressionTree.accept(visitorInFile);
+    protected void visitTree(Tree tree) {
+        loop = tree;
+        ExpressionTree condition = tree.is(Kind.FOR_STATEMENT)
+                ? ((ForStatementTree) tree).condition()
+                : ((WhileStatementTree) tree).condition();
+        if (condition instanceof BinaryExpressionTree) {
+            walk(condition, visitorInFile);
+        }
+    }
 
-            } else {
-                LOGGER.debug("Condition isn't a BinaryExpressionTree (real type : {}) => no issue launched", forStatementTree.condition());
+    private void checkSize(MethodInvocationTree sizeCall) {
+        ExpressionTree methodSelect = sizeCall.methodSelect();
+        ExpressionTree receiver = methodSelect.is(Kind.MEMBER_SELECT)
+                ? ((MemberSelectExpressionTree) methodSelect).expression()
+                : null;
+        Type receiverType = receiver == null ? sizeCall.methodSymbol().owner().type() : receiver.symbolType();
+        String linearSizeType = linearSizeType(receiverType);
+        if (linearSizeType != null) {
+            // expensive even if the collection is modified in the loop
+            reportIssue(sizeCall, String.format(MESSAGE_LINEAR_SIZE, linearSizeType), Collections.emptyList(),
+                    LINEAR_SIZE_COST);
+        } else {
+            Symbol variable = receiver == null ? null : LoopInvariance.variable(receiver);
+            if (variable != null && !LoopInvariance.of(loop).isVariant(variable)) {
+                reportIssue(sizeCall, MESSAGERULE, Collections.emptyList(), SIZE_COST);
             }
-        } else if (tree.is(Kind.WHILE_STATEMENT)) {
-            LOGGER.debug("WhileStatement found");
-            WhileStatementTree whileStatementTree = (WhileStatementTree) tree;
-
-            LOGGER.debug("Check if condition is a BinaryExpressionTree");
-            if (whileStatementTree.condition() instanceof BinaryExpressionTree) {
-
-                LOGGER.debug("Casting condition to BinaryExpressionTree");
-                BinaryExpressionTree expressionTree = (BinaryExpressionTree) whileStatementTree.condition();
-                LOGGER.debug("Checking BinaryExpressionTree content");
-                expressionTree.accept(visitorInFile);
+        }
+    }
 
-            } else {
-                LOGGER.debug("Condition isn't a BinaryExpressionTree (real type : {}) => no issue launched");
+    @CheckForNull
+    private static String linearSizeType(Type type) {
+        for (String linearSizeType : LINEAR_SIZE_TYPES) {
+            if (type.isSubtypeOf(linearSizeType)) {
+                return type.symbol().name();
             }
-        } else {
-            throw new UnsupportedOperationException("Kind of statement NOT supported - real kind : " + tree.kind().getAssociatedInterface());
         }
-        LOGGER.debug("--------------------_____-----_____----- AvoidGettingSizeCollectionInLoop.visitNode METHOD - END");
+        return null;
     }
 
     private class AvoidGettingSizeCollectionInLoopVisitor extends BaseTreeVisitor {
         @Override
         public void visitMethodInvocation(MethodInvocationTree tree) {
             if (SIZE_METHOD.matches(tree.symbol())) {
-                LOGGER.debug("sizeMethod found => launching ISSUE !!!");
-                reportIssue(tree, MESSAGERULE);
+                checkSize(tree);
             } else {
-                LOGGER.debug("sizeMethod NOT found : bypass and go next");
                 super.visitMethodInvocation(tree);
             }
         }
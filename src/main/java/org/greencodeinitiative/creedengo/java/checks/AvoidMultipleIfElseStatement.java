@@ -17,12 +17,15 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.annotation.ParametersAreNonnullByDefault;
+
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
 import org.sonar.plugins.java.api.tree.BlockTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
@@ -46,14 +49,14 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI2")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC2")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "AMIES")
-public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
+public class AvoidMultipleIfElseStatement extends CreedengoCheck {
 
     public static final String ERROR_MESSAGE = "Use a switch statement instead of multiple if-else if possible";
 
     public static final int NB_MAX_VARIABLE_USAGE = 2;
 
-    // data structure for following usage of variable inside all the AST tree
-    private VariablesPerLevelDataStructure variablesStruct = new VariablesPerLevelDataStructure();
+    // data structure for following usage of variable inside all the AST tree (of the method being analyzed)
+    private VariablesPerLevelDataStructure variablesStruct;
 
     // only visit each method to keep data of all conditional tree
     // with IF, ELSE or ELSEIF statements, we can't keep all data of conditional tree
@@ -63,7 +66,7 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
     }
 
     @Override
-    public void visitNode(@SuppressWarnings("NullableProblems") Tree pTree) {
+    protected void visitTree(@SuppressWarnings("NullableProblems") Tree pTree) {
 
         MethodTree method = (MethodTree)pTree;
         if (method.block() == null) // in an interface, there are some methods without block : thus, is to avoid NPE
@@ -77,6 +80,13 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
 
     }
 
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        // nothing kept from one file to another
+        variablesStruct = null;
+    }
+
     /**
      * Visit all content of a node for one level (with its statements list)
      *
@@ -142,10 +152,7 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
         if (pIfTree.condition() == null) return;
 
         // analysing content of conditions of IF node
-        ExpressionTree expr = pIfTree.condition();
-        if (expr instanceof BinaryExpressionTree) {
-            computeConditionVariables((BinaryExpressionTree) expr, pLevel);
-        }
+        computeOperandVariables(pIfTree.condition(), pLevel);
 
     }
 
@@ -158,12 +165,8 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
 
         // if multiple conditions, continue with each part of complex expression
         if (pBinExprTree.is(Kind.CONDITIONAL_AND) || pBinExprTree.is(Kind.CONDITIONAL_OR)) {
-            if (pBinExprTree.leftOperand() instanceof BinaryExpressionTree) {
-                computeConditionVariables((BinaryExpressionTree) pBinExprTree.leftOperand(), pLevel);
-            }
-            if (pBinExprTree.rightOperand() instanceof BinaryExpressionTree) {
-                computeConditionVariables((BinaryExpressionTree) pBinExprTree.rightOperand(), pLevel);
-            }
+            computeOperandVariables(pBinExprTree.leftOperand(), pLevel);
+            computeOperandVariables(pBinExprTree.rightOperand(), pLevel);
         } else if (pBinExprTree.is(Kind.EQUAL_TO)
                 || pBinExprTree.is(Kind.NOT_EQUAL_TO)
                 || pBinExprTree.is(Kind.GREATER_THAN)
@@ -181,6 +184,22 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
         }
     }
 
+    /**
+     * Analyze and compute variables usage for an operand of a complex expression
+     * @param pOperand operand to analyze
+     * @param pLevel The level of operand
+     */
+    private void computeOperandVariables(ExpressionTree pOperand, int pLevel) {
+        if (pOperand instanceof BinaryExpressionTree) {
+            computeConditionVariables((BinaryExpressionTree) pOperand, pLevel);
+        } else {
+            IdentifierTree comparedString = SwitchDispatch.stringComparedToConstant(pOperand);
+            if (comparedString != null) {
+                computeVariables(comparedString, pLevel);
+            }
+        }
+    }
+
     /**
      * Analyze and compute variables usage for Variable AST structure
      * @param pVarIdTree The Variable AST structure
@@ -196,9 +215,9 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
             // increment variable counter to list of variables already declared for current if or elseif struture
             variablesStruct.incrementVariableUsageForLevelForCurrentIfStruct(pVarIdTree.name(), pLevel);
 
-            // raise an error if maximum
+            // raise an error if maximum (and if a switch would reduce comparisons)
             if (nbUsed > NB_MAX_VARIABLE_USAGE) {
-                reportIssue(pVarIdTree, ERROR_MESSAGE);
+                reportVariableIssue(pVarIdTree, pVarIdTree, pVarIdTree.name());
             }
         }
     }
@@ -226,133 +245,204 @@ public class AvoidMultipleIfElseStatement extends IssuableSubscriptionVisitor {
      */
     private void computeElseVariables(StatementTree pElseTree, int pLevel) {
 
-        Map<String, Integer> mapVar = variablesStruct.getVariablesForCurrentIfStruct(pLevel);
-        if (mapVar != null) {
-            for (Map.Entry<String, Integer> entry : mapVar.entrySet()) {
-                String variableName = entry.getKey();
+        List<Counter> variables = variablesStruct.getVariablesForCurrentIfStruct(pLevel);
+        // counters of the level are only incremented below : none is added to the list while iterating
+        for (int i = 0; i < variables.size(); i++) {
+            String variableName = variables.get(i).variableName;
 
-                // increment usage of all variables in the same level of ELSE staetement
-                int nbUsed = variablesStruct.incrementVariableUsageForLevel(variableName, pLevel);
+            // increment usage of all variables in the same level of ELSE staetement
+            int nbUsed = variablesStruct.incrementVariableUsageForLevel(variableName, pLevel);
 
-                // increment variable counter to list of variables already declared for current if or elseif struture
-                variablesStruct.incrementVariableUsageForLevelForCurrentIfStruct(variableName, pLevel);
+            // increment variable counter to list of variables already declared for current if or elseif struture
+            variablesStruct.incrementVariableUsageForLevelForCurrentIfStruct(variableName, pLevel);
 
-                // raise an error if maximum
-                if (nbUsed > NB_MAX_VARIABLE_USAGE) {
-                    reportIssue(pElseTree, ERROR_MESSAGE);
-                }
+            // raise an error if maximum (and if a switch would reduce comparisons)
+            if (nbUsed > NB_MAX_VARIABLE_USAGE) {
+                reportVariableIssue(pElseTree, pElseTree, variableName);
             }
         }
     }
 
     /**
-     * Complex data structure representing variables counters per AST level (cumulative counts with parent levels)
-     *  Map<Integer, Map<String, Integer>> ==>
-     *  - Key : index of Level (0 = first level)
-     *  - Value : Map<String, Integer>
-     *      - Key : name of variable in the current or parent level
-     *      - Value : number of usage of this variable in an IF statement in current level or one of parent levels
-     *
+     * Raise an error on a variable compared in an IF / ELSE IF chain, unless the chain only compares the variable with
+     * constants using less comparisons than the switch which would replace it
+     * @param pTree tree of the error
+     * @param pChainTree IF condition or ELSE node of the chain
+     * @param variableName name of the variable
+     */
+    private void reportVariableIssue(Tree pTree, Tree pChainTree, String variableName) {
+        SwitchDispatch dispatch = SwitchDispatch.of(chainRoot(pChainTree), variableName);
+        if (dispatch == null) {
+            // not a chain of comparisons with constants
+            reportIssue(pTree, ERROR_MESSAGE);
+        } else if (dispatch.reducesComparisons()) {
+            reportIssue(pTree, ERROR_MESSAGE + " : " + dispatch.description());
+        }
+    }
+
+    /**
+     * First IF statement of the IF / ELSE IF chain holding a node of an IF statement
+     */
+    private static IfStatementTree chainRoot(Tree pTree) {
+        Tree tree = pTree;
+        while (!tree.is(Kind.IF_STATEMENT)) {
+            tree = tree.parent();
+        }
+        IfStatementTree root = (IfStatementTree) tree;
+        while (root.parent() != null && root.parent().is(Kind.IF_STATEMENT)
+                && ((IfStatementTree) root.parent()).elseStatement() == root) {
+            root = (IfStatementTree) root.parent();
+        }
+        return root;
+    }
+
+    /**
+     * Data structure representing variables counters per AST level (cumulative counts with parent levels) :
+     * a stack of levels (0 = first level) whose counters are also chained, for each variable, from the deepest
+     * level to the nearest parent level using it.
+     * - getting the usage of a variable in the nearest parent level is a lookup of the head of its chain
+     * - cleaning all levels from a given one is a truncation of the stack, unlinking the counters of these levels
+     * Counters are mutable ints, thus nothing is boxed when counting.
      */
     private static class VariablesPerLevelDataStructure {
 
-        // global map variable counters per level
-        private final Map<Integer, Map<String, Integer>> mapVariablesPerLevel;
+        // global variable counters per level
+        private final CountersStack variablesPerLevel = new CountersStack();
 
-        // map variable counters per level for current If / ElseIf structure
+        // variable counters per level for current If / ElseIf structure
         // purpose : used by compute variables Else process (because Else structure is particular :
         // we don't know previous variables and we need previous If / ElseIf structure to know variables)
-        private final Map<Integer, Map<String, Integer>> mapVariablesPerLevelForCurrentIfStruct;
-
-        public VariablesPerLevelDataStructure() {
-            mapVariablesPerLevel = new HashMap<>(10);
-            mapVariablesPerLevelForCurrentIfStruct = new HashMap<>(10);
-        }
+        private final CountersStack variablesPerLevelForCurrentIfStruct = new CountersStack();
 
         /**
-         * increment variable counters on global map
+         * increment variable counters on global structure
          */
         public int incrementVariableUsageForLevel(String variableName, int pLevel) {
-            return internalIncrementVariableUsage(mapVariablesPerLevel, variableName, pLevel);
+            return variablesPerLevel.increment(variableName, pLevel);
         }
 
         /**
-         * increment variable counters on input map
+         * reinitialization of variable usages for input level (and its child levels) on global structure
          */
-        private int internalIncrementVariableUsage(Map<Integer, Map<String, Integer>> pDataMap, String variableName, int pLevel) {
-
-            // get variable usage map for current level and init if null
-            Map<String, Integer> variablesMap = pDataMap.computeIfAbsent(pLevel, k -> new HashMap<>(5));
-
-            // get usage from parent if needed
-            Integer nbUsed = variablesMap.get(variableName);
-            if (nbUsed == null) {
-                Integer nbParentUsed = internalGetVariableUsageOfNearestParent(pDataMap, variableName, pLevel - 1);
-                nbUsed = nbParentUsed == null ? 0 : nbParentUsed;
-            }
-
-            // increment usage for current level
-            nbUsed++;
-            variablesMap.put(variableName, nbUsed);
-
-            return nbUsed;
+        public void reinitVariableUsageForLevel(int pLevel) {
+            variablesPerLevel.truncate(pLevel);
         }
 
         /**
-         * get usage of a variable in top tree (nearest top parent)
+         * reinitialization of variable usages for input level (and its child levels) on if/elseif structure
          */
-        private Integer internalGetVariableUsageOfNearestParent(Map<Integer, Map<String, Integer>> pDataMap, String variableName, int pLevel) {
-
-            Integer nbParentUsed = null;
-            for (int i = pLevel; i >= 0 && nbParentUsed == null; i--) {
-                Map<String, Integer> variablesParentLevelMap = pDataMap.get(i);
-                if (variablesParentLevelMap != null) {
-                    nbParentUsed = variablesParentLevelMap.get(variableName);
-                }
-            }
-
-            return nbParentUsed;
+        public void reinitVariableUsageForLevelForCurrentIfStruct(int pLevel) {
+            variablesPerLevelForCurrentIfStruct.truncate(pLevel);
         }
 
         /**
-         * reinitialization of variable usages for input level and global map
+         * increment variable counters on if/elseif structure
          */
-        public void reinitVariableUsageForLevel(int pLevel) {
-            internalReinitVariableUsageForLevelForCurrentIfStruct(mapVariablesPerLevel, pLevel);
+        public void incrementVariableUsageForLevelForCurrentIfStruct(String variableName, int pLevel) {
+            variablesPerLevelForCurrentIfStruct.increment(variableName, pLevel);
         }
 
         /**
-         * reinitialization of variable usages in input level in input map
+         * get variables used in a level on if/elseif structure
          */
-        private void internalReinitVariableUsageForLevelForCurrentIfStruct(Map<Integer, Map<String, Integer>> pDataMap, int pLevel) {
-            if (pDataMap.get(pLevel) == null) { return; }
+        public List<Counter> getVariablesForCurrentIfStruct(int pLevel) {
+            return variablesPerLevelForCurrentIfStruct.countersOfLevel(pLevel);
+        }
 
-            // cleaning of current If Structure beginning at level specified
-            for (int i = pLevel; i < pDataMap.size(); i++) {
-                pDataMap.remove(i);
-            }
+    }
 
-        }
+    /**
+     * Stack of variable counters indexed by level
+     */
+    private static class CountersStack {
+
+        // counters of each level, in creation order ; only levels below "depth" are in use (others are kept for reuse)
+        private final List<List<Counter>> levels = new ArrayList<>();
+
+        private int depth;
+
+        // deepest counter of each variable, chained to the counters of the same variable in parent levels
+        private final Map<String, Counter> deepestCounters = new HashMap<>();
 
         /**
-         * reinitialization of variable usages for input level on if/elseif map
+         * increment the counter of a variable in a level, starting from the usage in the nearest parent level
+         * @return the new usage count
          */
-        public void reinitVariableUsageForLevelForCurrentIfStruct(int pLevel) {
-            internalReinitVariableUsageForLevelForCurrentIfStruct(mapVariablesPerLevelForCurrentIfStruct, pLevel);
+        int increment(String variableName, int pLevel) {
+            Counter child = null;
+            Counter counter = deepestCounters.get(variableName);
+            // skip counters of child levels still in use (ELSE clause counted after the content of its IF clause)
+            while (counter != null && counter.level > pLevel) {
+                child = counter;
+                counter = counter.parent;
+            }
+            if (counter != null && counter.level == pLevel) {
+                return ++counter.count;
+            }
+
+            Counter created = new Counter(variableName, pLevel, counter);
+            if (child == null) {
+                deepestCounters.put(variableName, created);
+            } else {
+                child.parent = created;
+            }
+            level(pLevel).add(created);
+            return created.count;
         }
 
         /**
-         * increment variable counters on if/elseif map
+         * remove all counters of input level and its child levels
          */
-        public void incrementVariableUsageForLevelForCurrentIfStruct(String variableName, int pLevel) {
-            internalIncrementVariableUsage(mapVariablesPerLevelForCurrentIfStruct, variableName, pLevel);
+        void truncate(int pLevel) {
+            for (int i = depth - 1; i >= pLevel; i--) {
+                List<Counter> counters = levels.get(i);
+                for (Counter removed : counters) {
+                    Counter deepest = deepestCounters.get(removed.variableName);
+                    while (deepest != null && deepest.level >= pLevel) {
+                        deepest = deepest.parent;
+                    }
+                    if (deepest == null) {
+                        deepestCounters.remove(removed.variableName);
+                    } else {
+                        deepestCounters.put(removed.variableName, deepest);
+                    }
+                }
+                counters.clear();
+            }
+            depth = Math.min(depth, pLevel);
         }
 
-        /**
-         * get usage of a variable in a level on if/elseif map
-         */
-        public Map<String, Integer> getVariablesForCurrentIfStruct(int pLevel) {
-            return mapVariablesPerLevelForCurrentIfStruct.get(pLevel);
+        List<Counter> countersOfLevel(int pLevel) {
+            return pLevel < depth ? levels.get(pLevel) : List.of();
+        }
+
+        private List<Counter> level(int pLevel) {
+            while (levels.size() <= pLevel) {
+                levels.add(new ArrayList<>(5));
+            }
+            depth = Math.max(depth, pLevel + 1);
+            return levels.get(pLevel);
+        }
+
+    }
+
+    /**
+     * Usage counter of a variable in a level (cumulative with parent levels)
+     */
+    private static class Counter {
+
+        private final String variableName;
+        private final int level;
+        private int count;
+
+        // counter of the same variable in the nearest parent level using it
+        private Counter parent;
+
+        Counter(String variableName, int level, Counter parent) {
+            this.variableName = variableName;
+            this.level = level;
+            this.parent = parent;
+            this.count = (parent == null ? 0 : parent.count) + 1;
         }
 
     }
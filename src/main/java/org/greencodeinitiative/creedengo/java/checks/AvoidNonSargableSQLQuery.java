@@ -0,0 +1,327 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.SqlLiterals;
+import org.greencodeinitiative.creedengo.java.utils.SqlTokens;
+import org.greencodeinitiative.creedengo.java.utils.SqlTokens.Token;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Constant SQL queries (and JPQL / HQL queries) given to JDBC, JPA, Hibernate and Spring JDBC, holding conditions
+ * which prevent the database from using an index (non-sargable) or making it read all the rows :
+ * - LIKE with a leading wildcard
+ * - function applied to a column compared in a WHERE clause
+ * - OR between conditions on different columns
+ * - SELECT COUNT(*) whose result is only compared with 0 or 1, to test whether a row exists
+ * - ORDER BY a random function
+ * Queries are read from {@link SqlLiterals}, shared with the other rules on SQL requests.
+ */
+@Rule(key = "GCI80")
+public class AvoidNonSargableSQLQuery extends CreedengoCheck {
+
+    protected static final String MESSAGE_LEADING_WILDCARD = "Avoid LIKE with a leading wildcard : no index on the"
+            + " column can be used, all the rows are read";
+    protected static final String MESSAGE_FUNCTION_ON_COLUMN = "Avoid applying %s() to a column in a WHERE clause :"
+            + " no index on the column can be used";
+    protected static final String MESSAGE_OR_ACROSS_COLUMNS = "Avoid OR between conditions on different columns (%s) :"
+            + " no single index can be used, split the query with UNION";
+    protected static final String MESSAGE_COUNT_FOR_EXISTENCE = "Avoid counting all the matching rows to test whether"
+            + " one exists : use EXISTS, or read a single row";
+    protected static final String MESSAGE_ORDER_BY_RANDOM = "Avoid ORDER BY %s() : all the rows are read and sorted to"
+            + " pick some at random";
+
+    private static final MethodMatchers SQL_METHOD = CachedMethodMatchers.of(MethodMatchers.or(
+            MethodMatchers.create()
+                    .ofSubTypes("java.sql.Connection")
+                    .names("prepareStatement", "prepareCall", "nativeSQL")
+                    .withAnyParameters()
+                    .build(),
+            MethodMatchers.create()
+                    .ofSubTypes("java.sql.Statement")
+                    .names("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch")
+                    .withAnyParameters()
+                    .build(),
+            MethodMatchers.create()
+                    .ofSubTypes("javax.persistence.EntityManager", "jakarta.persistence.EntityManager")
+                    .names("createQuery", "createNativeQuery")
+                    .withAnyParameters()
+                    .build(),
+            MethodMatchers.create()
+                    .ofSubTypes("org.hibernate.SharedSessionContract", "org.hibernate.query.QueryProducer")
+                    .names("createQuery", "createNativeQuery", "createSQLQuery", "createSelectionQuery",
+                            "createMutationQuery")
+                    .withAnyParameters()
+                    .build(),
+            MethodMatchers.create()
+                    .ofSubTypes("org.springframework.jdbc.core.JdbcOperations",
+                            "org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations")
+                    .anyName()
+                    .withAnyParameters()
+                    .build()
+    ));
+
+    // words which are not columns nor functions
+    private static final Set<String> KEYWORDS = Set.of("ALL", "AND", "ANY", "AS", "BETWEEN", "BY", "CASE", "DISTINCT",
+            "ELSE", "END", "ESCAPE", "EXISTS", "FALSE", "FROM", "GROUP", "HAVING", "ILIKE", "IN", "INNER", "IS", "JOIN",
+            "LEFT", "LIKE", "LIMIT", "NOT", "NULL", "ON", "OR", "ORDER", "OUTER", "RIGHT", "SELECT", "SET", "SOME",
+            "THEN", "TRUE", "UNION", "VALUES", "WHEN", "WHERE");
+
+    // operators comparing a column
+    private static final Set<String> COMPARISONS = Set.of("=", "<", ">", "<=", ">=", "<>", "!=", "BETWEEN", "ILIKE",
+            "IN", "IS", "LIKE", "NOT");
+
+    // keywords ending a WHERE clause or an ORDER BY clause
+    private static final Set<String> CLAUSES = Set.of("EXCEPT", "FETCH", "FOR", "GROUP", "HAVING", "INTERSECT", "LIMIT",
+            "OFFSET", "ORDER", "RETURNING", "UNION", "WINDOW");
+
+    private static final Set<String> RANDOM_FUNCTIONS = Set.of("RAND", "RANDOM", "NEWID", "DBMS_RANDOM.VALUE");
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+        return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    protected void visitTree(Tree tree) {
+        MethodInvocationTree invocation = (MethodInvocationTree) tree;
+        if (invocation.arguments().isEmpty() || !SQL_METHOD.matches(invocation)) {
+            return;
+        }
+        ExpressionTree sql = invocation.arguments().get(0);
+        if (!sql.symbolType().is("java.lang.String")) {
+            return;
+        }
+        SqlLiterals.SqlQuery query = SqlLiterals.of(context.getTree()).query(sql);
+        if (query == null) {
+            return;
+        }
+        List<Token> tokens = query.tokens();
+        for (String message : nonSargablePatterns(tokens)) {
+            reportIssue(sql, message);
+        }
+        if (isCount(tokens) && isExistenceTest(invocation)) {
+            reportIssue(sql, MESSAGE_COUNT_FOR_EXISTENCE);
+        }
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        SqlLiterals.release(context.getTree());
+    }
+
+    /**
+     * Messages of the patterns of a query, read in a single pass over its tokens, level by level of parentheses
+     */
+    private static Set<String> nonSargablePatterns(List<Token> tokens) {
+        Set<String> messages = new LinkedHashSet<>();
+        Deque<Level> parents = new ArrayDeque<>();
+        Level level = new Level(false);
+        int i = 0;
+        while (i < tokens.size()) {
+            Token token = tokens.get(i);
+            if (token.is("(")) {
+                parents.push(level);
+                level = new Level(level.where);
+            } else if (token.is(")")) {
+                level.end(messages);
+                level = parents.isEmpty() ? new Level(false) : parents.pop();
+            } else if (token.is("WHERE")) {
+                level.end(messages);
+                level.where = true;
+            } else if (token.is("SELECT") || (token.type() == SqlTokens.Type.WORD && CLAUSES.contains(token.text()))) {
+                level.end(messages);
+                level.where = false;
+                if (token.is("ORDER") && isRandomOrder(tokens, i + 1)) {
+                    messages.add(String.format(MESSAGE_ORDER_BY_RANDOM, randomFunction(tokens, i + 1)));
+                }
+            } else if (token.is("LIKE") || token.is("ILIKE")) {
+                if (isLeadingWildcard(tokens, i + 1)) {
+                    messages.add(MESSAGE_LEADING_WILDCARD);
+                }
+            } else if (token.is("OR")) {
+                level.or = true;
+            } else if (level.where && isName(token)) {
+                i = compared(tokens, i, level, messages);
+            }
+            i++;
+        }
+        level.end(messages);
+        while (!parents.isEmpty()) {
+            parents.pop().end(messages);
+        }
+        return messages;
+    }
+
+    /**
+     * Read a column compared in a WHERE clause, or a function applied to it
+     * @return the index of the last token read
+     */
+    private static int compared(List<Token> tokens, int i, Level level, Set<String> messages) {
+        if (isSymbol(tokens, i + 1, "(")) {
+            int closing = closingParenthesis(tokens, i + 1);
+            if (i + 2 < tokens.size() && isName(tokens.get(i + 2)) && isComparison(tokens, closing + 1)) {
+                messages.add(String.format(MESSAGE_FUNCTION_ON_COLUMN, tokens.get(i).text()));
+                level.columns.add(tokens.get(i + 2).text());
+                return closing;
+            }
+        } else if (isComparison(tokens, i + 1)) {
+            level.columns.add(tokens.get(i).text());
+        }
+        return i;
+    }
+
+    private static boolean isName(Token token) {
+        return token.type() == SqlTokens.Type.WORD && !KEYWORDS.contains(token.text());
+    }
+
+    private static boolean isSymbol(List<Token> tokens, int i, String symbol) {
+        return i < tokens.size() && tokens.get(i).is(symbol);
+    }
+
+    private static boolean isComparison(List<Token> tokens, int i) {
+        return i < tokens.size() && COMPARISONS.contains(tokens.get(i).text())
+                && tokens.get(i).type() != SqlTokens.Type.STRING;
+    }
+
+    private static int closingParenthesis(List<Token> tokens, int opening) {
+        int depth = 0;
+        for (int i = opening; i < tokens.size(); i++) {
+            if (tokens.get(i).is("(")) {
+                depth++;
+            } else if (tokens.get(i).is(")") && --depth == 0) {
+                return i;
+            }
+        }
+        return tokens.size();
+    }
+
+    /**
+     * Pattern starting with a wildcard : {@code '%name'}, {@code '%' || :name} or {@code CONCAT('%', :name)}
+     */
+    private static boolean isLeadingWildcard(List<Token> tokens, int i) {
+        int pattern = i;
+        if (pattern < tokens.size() && tokens.get(pattern).is("CONCAT") && isSymbol(tokens, pattern + 1, "(")) {
+            pattern += 2;
+        }
+        if (pattern >= tokens.size() || tokens.get(pattern).type() != SqlTokens.Type.STRING) {
+            return false;
+        }
+        String text = tokens.get(pattern).text();
+        return text.startsWith("%") || text.startsWith("_");
+    }
+
+    private static boolean isRandomOrder(List<Token> tokens, int i) {
+        return isSymbol(tokens, i, "BY") && randomFunction(tokens, i) != null;
+    }
+
+    /**
+     * Random function of an ORDER BY clause
+     */
+    private static String randomFunction(List<Token> tokens, int by) {
+        for (int i = by + 1; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.is(")") || (token.type() == SqlTokens.Type.WORD && CLAUSES.contains(token.text()))) {
+                return null;
+            }
+            if (token.type() == SqlTokens.Type.WORD && RANDOM_FUNCTIONS.contains(token.text())) {
+                return token.text();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Query only counting rows : SELECT COUNT(...) FROM ..., without GROUP BY
+     */
+    private static boolean isCount(List<Token> tokens) {
+        if (tokens.size() < 4 || !tokens.get(0).is("SELECT") || !tokens.get(1).is("COUNT")
+                || !tokens.get(2).is("(")) {
+            return false;
+        }
+        int closing = closingParenthesis(tokens, 2);
+        return isSymbol(tokens, closing + 1, "FROM") && tokens.stream().noneMatch(token -> token.is("GROUP"));
+    }
+
+    /**
+     * Result of the query (read by chained calls, casts...) compared with 0 or 1
+     */
+    private static boolean isExistenceTest(MethodInvocationTree invocation) {
+        Tree result = invocation;
+        Tree parent = result.parent();
+        while (parent != null) {
+            if (parent.is(Tree.Kind.MEMBER_SELECT) && parent.parent().is(Tree.Kind.METHOD_INVOCATION)) {
+                result = parent.parent();
+            } else if (parent.is(Tree.Kind.TYPE_CAST, Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+                result = parent;
+            } else {
+                break;
+            }
+            parent = result.parent();
+        }
+        if (parent == null || !parent.is(Tree.Kind.EQUAL_TO, Tree.Kind.NOT_EQUAL_TO, Tree.Kind.GREATER_THAN,
+                Tree.Kind.GREATER_THAN_OR_EQUAL_TO, Tree.Kind.LESS_THAN, Tree.Kind.LESS_THAN_OR_EQUAL_TO)) {
+            return false;
+        }
+        BinaryExpressionTree comparison = (BinaryExpressionTree) parent;
+        ExpressionTree other = comparison.leftOperand() == result ? comparison.rightOperand() : comparison.leftOperand();
+        Optional<Object> value = other.asConstant();
+        return value.isPresent() && value.get() instanceof Number
+                && (((Number) value.get()).longValue() == 0 || ((Number) value.get()).longValue() == 1);
+    }
+
+    /**
+     * Columns compared in a level of parentheses of a WHERE clause, and whether they are joined by an OR
+     */
+    private static final class Level {
+
+        private boolean where;
+        private boolean or;
+        private final Set<String> columns = new LinkedHashSet<>();
+
+        Level(boolean where) {
+            this.where = where;
+        }
+
+        void end(Set<String> messages) {
+            if (where && or && columns.size() > 1) {
+                messages.add(String.format(MESSAGE_OR_ACROSS_COLUMNS, String.join(", ", columns)));
+            }
+            or = false;
+            columns.clear();
+        }
+    }
+}
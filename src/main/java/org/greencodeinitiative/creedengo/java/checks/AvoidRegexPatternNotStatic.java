@@ -19,31 +19,57 @@ package org.greencodeinitiative.creedengo.java.checks;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.regex.Pattern;
 
 import javax.annotation.Nonnull;
 
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.StringUtils;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
+/**
+ * Regular expressions compiled in methods, on each call : explicitly with {@code Pattern.compile()}, or implicitly by
+ * the {@code String} and {@code Pattern} methods taking a constant regex, except the single character fast path of
+ * {@code String.split()}.
+ */
 @Rule(key = "GCI77")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC77")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S77")
-public class AvoidRegexPatternNotStatic extends IssuableSubscriptionVisitor {
+public class AvoidRegexPatternNotStatic extends CreedengoCheck {
 
     public static final String MESSAGE_RULE = "Avoid using Pattern.compile() in a non-static context.";
 
-    private static final MethodMatchers PATTERN_COMPILE = MethodMatchers.create()
+    private static final MethodMatchers PATTERN_COMPILE = CachedMethodMatchers.of(MethodMatchers.create()
             .ofTypes(Pattern.class.getName())
             .names("compile")
             .withAnyParameters()
-            .build();
+            .build());
+
+    private static final String MESSAGE_IMPLICIT_COMPILE = "Avoid using %s() with a constant regex in a non-static context : compile it once in a static Pattern.";
+
+    private static final MethodMatchers IMPLICIT_COMPILE = CachedMethodMatchers.of(MethodMatchers.or(
+            MethodMatchers.create()
+                    .ofTypes(String.class.getName())
+                    .names("matches", "replaceAll", "replaceFirst", "split")
+                    .withAnyParameters()
+                    .build(),
+            MethodMatchers.create()
+                    .ofTypes(Pattern.class.getName())
+                    .names("matches")
+                    .withAnyParameters()
+                    .build()));
+
+    // characters which are not taken literally in a regex (String.split() compiles a regex made of one of them)
+    private static final String REGEX_META_CHARACTERS = ".$|()[{^?*+\\";
 
     private final AvoidRegexPatternNotStaticVisitor visitor = new AvoidRegexPatternNotStaticVisitor();
 
@@ -53,12 +79,12 @@ public class AvoidRegexPatternNotStatic extends IssuableSubscriptionVisitor {
     }
 
     @Override
-    public void visitNode(@Nonnull Tree tree) {
+    protected void visitTree(@Nonnull Tree tree) {
         if (tree instanceof MethodTree) {
             final MethodTree methodTree = (MethodTree) tree;
 
             if (!methodTree.is(Tree.Kind.CONSTRUCTOR)) {
-                methodTree.accept(visitor);
+                walk(methodTree, visitor);
             }
         }
     }
@@ -70,9 +96,49 @@ public class AvoidRegexPatternNotStatic extends IssuableSubscriptionVisitor {
             if (PATTERN_COMPILE.matches(tree)) {
                 reportIssue(tree, MESSAGE_RULE);
             } else {
+                if (IMPLICIT_COMPILE.matches(tree) && compilesConstantRegex(tree)) {
+                    String method = tree.methodSymbol().owner().name() + "." + tree.methodSymbol().name();
+                    reportIssue(tree, String.format(MESSAGE_IMPLICIT_COMPILE, method));
+                }
                 super.visitMethodInvocation(tree);
             }
         }
 
+        @Override
+        public void visitClass(@Nonnull ClassTree tree) {
+            // methods of local and anonymous classes are visited by themselves
+        }
+
+    }
+
+    /**
+     * The regex (first argument) is constant, and String.split() does not split it without compiling it
+     */
+    private static boolean compilesConstantRegex(MethodInvocationTree tree) {
+        ExpressionTree argument = tree.arguments().get(0);
+        Optional<String> regex = argument.asConstant(String.class);
+        if (regex.isEmpty()) {
+            return false;
+        }
+        // value of a literal is given as written in the source code
+        String value = argument.is(Tree.Kind.STRING_LITERAL) ? StringUtils.unescape(regex.get()) : regex.get();
+        return !("split".equals(tree.methodSymbol().name()) && isSplitFastPath(value));
+    }
+
+    /**
+     * Same test as String.split() : one character which is not a regex meta character, or an escaped character
+     * which is not an ASCII letter or digit
+     */
+    private static boolean isSplitFastPath(String regex) {
+        if (regex.length() == 1) {
+            return REGEX_META_CHARACTERS.indexOf(regex.charAt(0)) < 0;
+        }
+        if (regex.length() == 2 && regex.charAt(0) == '\\') {
+            char escaped = regex.charAt(1);
+            boolean asciiLetterOrDigit = (escaped >= '0' && escaped <= '9') || (escaped >= 'a' && escaped <= 'z')
+                    || (escaped >= 'A' && escaped <= 'Z');
+            return !asciiLetterOrDigit && !Character.isSurrogate(escaped);
+        }
+        return false;
     }
 }
@@ -17,30 +17,70 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
 
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.LoopInvariance;
+import org.greencodeinitiative.creedengo.java.utils.LoopNestingIndex;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.semantic.Symbol;
 import static org.sonar.plugins.java.api.semantic.MethodMatchers.CONSTRUCTOR;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
+/**
+ * SQL requests in loops, made directly or through any chain of calls of methods of the project, with the path up to
+ * the SQL request : methods accessing the database are summarized on each file (see {@link DatabaseAccessSummaries}).
+ * Calls in loops reaching a SQL request through the methods of their file are reported when leaving the file, and the
+ * ones reaching it through methods of other files once all the files of the project are analyzed (see
+ * {@link ProjectIssue}) : the latter are not reported when the project is unknown, as in SonarLint.
+ * <p>
+ * Database accesses are the calls of the known data access APIs (JDBC, JPA, Hibernate, Spring JDBC, JDO, jOOQ,
+ * MyBatis, JDBI and R2DBC), and of the types of the project given by the {@code dataAccessTypes} parameter.
+ * <p>
+ * An update executed on each iteration with a statement prepared before the loop, or with {@code JdbcOperations.update}
+ * and a same query, is reported with a recommendation to batch it.
+ */
 @Rule(key = "GCI72")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC72")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S72")
-public class AvoidSQLRequestInLoop extends IssuableSubscriptionVisitor {
+public class AvoidSQLRequestInLoop extends CreedengoCheck {
+
+    private static final Logger LOGGER = Loggers.get(AvoidSQLRequestInLoop.class);
 
     protected static final String MESSAGERULE = "Avoid SQL request in loop";
+    protected static final String MESSAGE_PREPARED_BATCH = "Avoid executing a prepared statement in loop : call"
+            + " addBatch() on each iteration, and executeBatch() every few hundred rows and after the loop";
+    protected static final String MESSAGE_JDBC_OPERATIONS_BATCH = "Avoid calling update() in loop : collect the"
+            + " arguments of each iteration and call batchUpdate() once";
     private static final String JAVA_SQL_STATEMENT = "java.sql.Statement";
     private static final String JAVA_SQL_CONNECTION = "java.sql.Connection";
     private static final String SPRING_JDBC_OPERATIONS = "org.springframework.jdbc.core.JdbcOperations";
 
-    private static final MethodMatchers SQL_METHOD = MethodMatchers.or(
+    private static final MethodMatchers SQL_METHOD = CachedMethodMatchers.of(MethodMatchers.or(
             MethodMatchers.create().ofSubTypes("org.hibernate.Session").names("createQuery", "createSQLQuery")
                     .withAnyParameters().build(),
             MethodMatchers.create().ofSubTypes(JAVA_SQL_STATEMENT)
@@ -62,31 +102,307 @@ public class AvoidSQLRequestInLoop extends IssuableSubscriptionVisitor {
             MethodMatchers.create().ofSubTypes("javax.jdo.PersistenceManager").names("newQuery")
                     .withAnyParameters().build(),
             MethodMatchers.create().ofSubTypes("javax.jdo.Query").names("setFilter", "setGrouping")
-                    .withAnyParameters().build());
+                    .withAnyParameters().build(),
+            // jOOQ : plain SQL and queries built with the DSL are executed by fetch*() and execute()
+            MethodMatchers.create().ofSubTypes("org.jooq.DSLContext", "org.jooq.ResultQuery")
+                    .names("fetch", "fetchAny", "fetchArray", "fetchArrays", "fetchAsync", "fetchCount", "fetchExists",
+                            "fetchGroups", "fetchInto", "fetchLazy", "fetchMany", "fetchMap", "fetchMaps", "fetchOne",
+                            "fetchOneInto", "fetchOptional", "fetchOptionalInto", "fetchOptionalValue", "fetchResultSet",
+                            "fetchSet", "fetchSingle", "fetchSingleInto", "fetchStream", "fetchStreamInto", "fetchValue",
+                            "fetchValues") // not fetchSize, setting the number of rows fetched at once
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("org.jooq.DSLContext", "org.jooq.Query")
+                    .names("execute", "executeInsert", "executeUpdate", "executeDelete")
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("org.apache.ibatis.session.SqlSession")
+                    .names("select", "selectOne", "selectList", "selectMap", "selectCursor", "insert", "update", "delete")
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("org.jdbi.v3.core.Handle")
+                    .names("execute", "select", "createQuery", "createUpdate", "createCall", "createScript")
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("org.jdbi.v3.core.Jdbi")
+                    .names("withHandle", "useHandle", "inTransaction", "useTransaction", "withExtension", "useExtension")
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("org.springframework.r2dbc.core.DatabaseClient").names("sql")
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("io.r2dbc.spi.Statement").names("execute")
+                    .withAnyParameters().build()));
 
-    private final AvoidSQLRequestInLoopVisitor visitorInFile = new AvoidSQLRequestInLoopVisitor();
+    // methods of MyBatis mappers and JDBI SQL objects running the SQL statement of their annotation
+    private static final Set<String> SQL_ANNOTATIONS = Set.of("org.apache.ibatis.annotations.Select",
+            "org.apache.ibatis.annotations.Insert", "org.apache.ibatis.annotations.Update",
+            "org.apache.ibatis.annotations.Delete", "org.apache.ibatis.annotations.SelectProvider",
+            "org.apache.ibatis.annotations.InsertProvider", "org.apache.ibatis.annotations.UpdateProvider",
+            "org.apache.ibatis.annotations.DeleteProvider", "org.jdbi.v3.sqlobject.statement.SqlQuery",
+            "org.jdbi.v3.sqlobject.statement.SqlUpdate", "org.jdbi.v3.sqlobject.statement.SqlCall",
+            "org.jdbi.v3.sqlobject.statement.SqlScript");
+    // interfaces whose abstract methods all run a SQL statement of a mapper file
+    private static final String MYBATIS_MAPPER = "org.apache.ibatis.annotations.Mapper";
+
+    // updates which can be batched when the statement or the query is the same on each iteration
+    private static final MethodMatchers PREPARED_UPDATE = CachedMethodMatchers.of(MethodMatchers.create()
+            .ofSubTypes("java.sql.PreparedStatement")
+            .names("executeUpdate", "executeLargeUpdate")
+            .addWithoutParametersMatcher()
+            .build());
+    private static final MethodMatchers JDBC_OPERATIONS_UPDATE = CachedMethodMatchers.of(MethodMatchers.create()
+            .ofSubTypes(SPRING_JDBC_OPERATIONS)
+            .names("update")
+            .withAnyParameters()
+            .build());
+
+    @RuleProperty(key = "dataAccessTypes",
+            description = "Comma separated fully qualified names of the types (with their subtypes) whose methods all"
+                    + " access the database, such as the data access facades of the project, or of single methods"
+                    + " written as type#method",
+            defaultValue = "")
+    public String dataAccessTypes = "";
+
+    // matchers of the dataAccessTypes parameter, set after the check is created
+    @Nullable
+    private MethodMatchers dataAccessMethods;
+
+    // summary of the file being analyzed (null if its issues were replayed)
+    @Nullable
+    private DatabaseAccessSummaries.FileSummary file;
+    // signatures of the methods enclosing the visited node
+    private final Deque<String> methods = new ArrayDeque<>();
 
     @Override
     public List<Kind> nodesToVisit() {
-        return Arrays.asList(
-                Tree.Kind.FOR_EACH_STATEMENT, Tree.Kind.FOR_STATEMENT,
-                Tree.Kind.WHILE_STATEMENT, Tree.Kind.DO_STATEMENT);
+        return Arrays.asList(Tree.Kind.COMPILATION_UNIT, Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR, Tree.Kind.METHOD_INVOCATION);
+    }
+
+    @Override
+    protected void visitTree(Tree tree) {
+        if (tree.is(Tree.Kind.COMPILATION_UNIT)) {
+            file = DatabaseAccessSummaries.newFile(context.getInputFile());
+        } else if (tree.is(Tree.Kind.METHOD_INVOCATION)) {
+            visitInvocation((MethodInvocationTree) tree);
+        } else {
+            visitMethod((MethodTree) tree);
+        }
+    }
+
+    @Override
+    protected void leaveTree(Tree tree) {
+        if (tree.is(Tree.Kind.METHOD, Tree.Kind.CONSTRUCTOR) && !((MethodTree) tree).symbol().isUnknown()) {
+            methods.pop();
+        }
+    }
+
+    private void visitMethod(MethodTree method) {
+        Symbol.MethodSymbol symbol = method.symbol();
+        if (symbol.isUnknown()) {
+            return;
+        }
+        methods.push(symbol.signature());
+        if (file != null) {
+            // calls of an overridden method may reach the database through its implementations
+            for (Symbol.MethodSymbol overridden : symbol.overriddenSymbols()) {
+                file.addCall(overridden.signature(), symbol.signature(), name(symbol), method.simpleName(), false);
+            }
+        }
+    }
+
+    private void visitInvocation(MethodInvocationTree invocation) {
+        // loops are not walked again here : the shared index knows if the invocation is inside a loop
+        boolean inLoop = LoopNestingIndex.of(context.getTree()).isInLoop(invocation);
+        boolean sqlRequest = isDatabaseAccess(invocation);
+        if (inLoop && sqlRequest) {
+            reportRequestInLoop(invocation);
+        }
+        Symbol.MethodSymbol symbol = invocation.methodSymbol();
+        if (file == null || methods.isEmpty() || symbol.isUnknown()) {
+            return;
+        }
+        if (sqlRequest) {
+            file.addCall(methods.peek(), null, name(symbol), invocation, false);
+        } else if (!isJdkMethod(symbol)) {
+            file.addCall(methods.peek(), symbol.signature(), name(symbol), invocation, inLoop);
+        }
+    }
+
+    private boolean isDatabaseAccess(MethodInvocationTree invocation) {
+        if (SQL_METHOD.matches(invocation) || dataAccessMethods().matches(invocation)) {
+            return true;
+        }
+        Symbol.MethodSymbol symbol = invocation.methodSymbol();
+        if (symbol.isUnknown()) {
+            return false;
+        }
+        if (symbol.isAbstract() && symbol.owner().metadata().isAnnotatedWith(MYBATIS_MAPPER)) {
+            return true;
+        }
+        for (String annotation : SQL_ANNOTATIONS) {
+            if (symbol.metadata().isAnnotatedWith(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MethodMatchers dataAccessMethods() {
+        if (dataAccessMethods == null) {
+            List<MethodMatchers> matchers = new ArrayList<>();
+            for (String entry : dataAccessTypes.split(",")) {
+                String name = entry.trim();
+                int separator = name.indexOf('#');
+                if (separator < 0) {
+                    if (!name.isEmpty()) {
+                        matchers.add(MethodMatchers.create().ofSubTypes(name).anyName().withAnyParameters().build());
+                    }
+                    continue;
+                }
+                String type = name.substring(0, separator).trim();
+                String method = name.substring(separator + 1).trim();
+                if (type.isEmpty() || method.isEmpty()) {
+                    LOGGER.warn("Ignoring the entry \"{}\" of the dataAccessTypes parameter of {} : expected type#method",
+                            name, ruleKey());
+                } else {
+                    matchers.add(MethodMatchers.create().ofSubTypes(type).names(method).withAnyParameters().build());
+                }
+            }
+            dataAccessMethods = matchers.isEmpty() ? MethodMatchers.none() : CachedMethodMatchers.of(MethodMatchers.or(matchers));
+        }
+        return dataAccessMethods;
+    }
+
+    private void reportRequestInLoop(MethodInvocationTree invocation) {
+        Tree loop = LoopNestingIndex.of(context.getTree()).innermostLoop(invocation);
+        ExpressionTree methodSelect = invocation.methodSelect();
+        if (loop != null && PREPARED_UPDATE.matches(invocation) && methodSelect.is(Tree.Kind.MEMBER_SELECT)
+                && isSameOnEachIteration(((MemberSelectExpressionTree) methodSelect).expression(), loop)) {
+            reportIssue(invocation, MESSAGE_PREPARED_BATCH);
+        } else if (loop != null && JDBC_OPERATIONS_UPDATE.matches(invocation) && !invocation.arguments().isEmpty()
+                && invocation.arguments().get(0).symbolType().is("java.lang.String")
+                && isSameOnEachIteration(invocation.arguments().get(0), loop)) {
+            reportIssue(invocation, MESSAGE_JDBC_OPERATIONS_BATCH);
+        } else {
+            reportIssue(invocation, MESSAGERULE);
+        }
+    }
+
+    /**
+     * Constant, or variable declared before the loop and not assigned in it
+     */
+    private static boolean isSameOnEachIteration(ExpressionTree expression, Tree loop) {
+        if (expression.asConstant().isPresent()) {
+            return true;
+        }
+        Symbol variable = LoopInvariance.variable(expression);
+        if (variable == null || (variable.declaration() != null && isInside(variable.declaration(), loop))) {
+            return false;
+        }
+        for (IdentifierTree usage : variable.usages()) {
+            Tree parent = usage.parent();
+            if (parent.is(Tree.Kind.MEMBER_SELECT)) {
+                parent = parent.parent();
+            }
+            if (parent instanceof AssignmentExpressionTree && isInside(parent, loop)
+                    && LoopInvariance.variable(((AssignmentExpressionTree) parent).variable()) == variable) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isInside(Tree tree, Tree ancestor) {
+        for (Tree parent = tree; parent != null; parent = parent.parent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
-    public void visitNode(Tree tree) {
-        tree.accept(visitorInFile);
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        LoopNestingIndex.release(context.getTree());
+        methods.clear();
+        if (file != null) {
+            for (DatabaseAccessSummaries.Finding finding : file.findings()) {
+                reportThroughMethods(finding);
+            }
+            DatabaseAccessSummaries summaries = DatabaseAccessSummaries.of(context.getProject(), dataAccessTypes);
+            if (summaries != null) {
+                summaries.add(file);
+            }
+            if (CachedFileIssues.isEnabled(context.getCacheContext())) {
+                CachedFileIssues.storeState(context.getCacheContext(), checkKey(), context.getInputFile(),
+                        context.getFileContent(), file.toBytes());
+            }
+            file = null;
+        }
+    }
+
+    @Override
+    protected boolean replayFileState(InputFileScannerContext context) {
+        byte[] state = CachedFileIssues.replayState(context, checkKey());
+        if (state == null) {
+            return false;
+        }
+        DatabaseAccessSummaries summaries = DatabaseAccessSummaries.of(context.getProject(), dataAccessTypes);
+        if (summaries == null) {
+            return true;
+        }
+        try {
+            summaries.add(DatabaseAccessSummaries.readFile(context.getInputFile(), state));
+            return true;
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read cached summary of {}", context.getInputFile(), e);
+            return false;
+        }
     }
 
-    private class AvoidSQLRequestInLoopVisitor extends BaseTreeVisitor {
+    /**
+     * Issue on a call in a loop reaching a SQL request through the methods of the file being analyzed, with the path
+     * up to the SQL request in its message
+     */
+    private void reportThroughMethods(DatabaseAccessSummaries.Finding finding) {
+        List<JavaFileScannerContext.Location> locations = new ArrayList<>();
+        for (DatabaseAccessSummaries.Call call : finding.path()) {
+            locations.add(new JavaFileScannerContext.Location(secondaryMessage(call), call.tree()));
+        }
+        reportIssue(finding.loopCall().tree(), message(finding), locations, null);
+    }
 
-        @Override
-        public void visitMethodInvocation(MethodInvocationTree tree) {
-            if (SQL_METHOD.matches(tree)) {
-                reportIssue(tree, MESSAGERULE);
-            } else {
-                super.visitMethodInvocation(tree);
+    /**
+     * Issues on the calls in loops of a project reaching a SQL request through methods of other files
+     */
+    static List<ProjectIssue> projectIssues(DatabaseAccessSummaries summaries) {
+        String ruleKey = AvoidSQLRequestInLoop.class.getAnnotation(Rule.class).key();
+        List<ProjectIssue> issues = new ArrayList<>();
+        for (DatabaseAccessSummaries.Finding finding : summaries.findings()) {
+            List<ProjectIssue.Location> locations = new ArrayList<>();
+            for (DatabaseAccessSummaries.Call call : finding.path()) {
+                locations.add(call.location(secondaryMessage(call)));
             }
+            issues.add(new ProjectIssue(ruleKey, finding.loopCall().location(message(finding)), locations));
         }
+        return issues;
+    }
+
+    private static String message(DatabaseAccessSummaries.Finding finding) {
+        StringJoiner path = new StringJoiner(" > ", MESSAGERULE + " (through ", ")");
+        path.add(finding.loopCall().name() + "()");
+        for (DatabaseAccessSummaries.Call call : finding.path()) {
+            path.add(call.name() + "()");
+        }
+        return path.toString();
+    }
+
+    private static String secondaryMessage(DatabaseAccessSummaries.Call call) {
+        return call.isSqlRequest() ? "SQL request" : ("Database access through " + call.name() + "()");
+    }
+
+    private static String name(Symbol.MethodSymbol symbol) {
+        return "<init>".equals(symbol.name()) ? ("new " + symbol.owner().name()) : (symbol.owner().name() + "." + symbol.name());
+    }
+
+    private static boolean isJdkMethod(Symbol.MethodSymbol symbol) {
+        String owner = symbol.owner().type().fullyQualifiedName();
+        return owner.startsWith("java.") || owner.startsWith("javax.");
     }
 }
@@ -19,74 +19,63 @@ package org.greencodeinitiative.creedengo.java.checks;
 
 import java.sql.PreparedStatement;
 import java.util.List;
-import java.util.stream.Stream;
+
+import javax.annotation.ParametersAreNonnullByDefault;
 
 import org.greencodeinitiative.creedengo.java.checks.enums.ConstOrLiteralDeclare;
-import static org.greencodeinitiative.creedengo.java.checks.enums.ConstOrLiteralDeclare.isLiteral;
-import static java.util.Arrays.asList;
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.ConstantPropagation;
+import org.greencodeinitiative.creedengo.java.utils.LoopNestingIndex;
+import static java.util.Collections.singletonList;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import static org.sonar.plugins.java.api.semantic.Type.Primitives.INT;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
-import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
-import static org.sonar.plugins.java.api.tree.Tree.Kind.MEMBER_SELECT;
-import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
-
+/**
+ * Values set on a prepared statement in a loop, which are the same for all the rows of the batch : constants (literals,
+ * constant variables, values of the {@link ConstOrLiteralDeclare} catalog), and values not modified by the loop.
+ */
 @Rule(key = "GCI78")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC78")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S78")
-public class AvoidSetConstantInBatchUpdate extends IssuableSubscriptionVisitor {
+public class AvoidSetConstantInBatchUpdate extends CreedengoCheck {
 
     protected static final String MESSAGERULE = "Avoid setting constants in batch update";
-    private final AvoidSetConstantInBatchUpdateVisitor visitorInFile = new AvoidSetConstantInBatchUpdateVisitor();
+
+    private static final MethodMatchers SETTERS = CachedMethodMatchers.of(MethodMatchers.create().ofSubTypes(PreparedStatement.class.getName())
+            .names("setBoolean", "setByte", "setShort", "setInt", "setLong", "setFloat", "setDouble",
+                    "setBigDecimal", "setString")
+            .addParametersMatcher(args -> args.size() == 2 && args.get(0).isPrimitive(INT)).build());
+
+    private final ConstantPropagation constants = new ConstantPropagation(ConstOrLiteralDeclare::isConstantDeclare);
 
     @Override
     public List<Kind> nodesToVisit() {
-        return asList(
-                Tree.Kind.FOR_EACH_STATEMENT,
-                Tree.Kind.FOR_STATEMENT,
-                Tree.Kind.WHILE_STATEMENT,
-                Tree.Kind.DO_STATEMENT);
+        return singletonList(Tree.Kind.METHOD_INVOCATION);
     }
 
     @Override
-    public void visitNode(Tree tree) {
-        tree.accept(visitorInFile);
-    }
-
-    private class AvoidSetConstantInBatchUpdateVisitor extends BaseTreeVisitor {
-
-        private final MethodMatchers setters = MethodMatchers.create().ofSubTypes(PreparedStatement.class.getName())
-                .names("setBoolean", "setByte", "setShort", "setInt", "setLong", "setFloat", "setDouble",
-                        "setBigDecimal", "setString")
-                .addParametersMatcher(args -> args.size() == 2 && args.get(0).isPrimitive(INT)).build();
-
-        @Override
-        public void visitMethodInvocation(MethodInvocationTree tree) {
-            if (setters.matches(tree) && isConstant(tree.arguments().get(1))) {
-                reportIssue(tree, MESSAGERULE);
-            } else {
-                super.visitMethodInvocation(tree);
-            }
+    protected void visitTree(Tree tree) {
+        MethodInvocationTree methodInvocationTree = (MethodInvocationTree) tree;
+        // the batch is usually executed after the outermost loop : the value must be the same in all its iterations
+        Tree loop = LoopNestingIndex.of(context.getTree()).outermostLoop(tree);
+        if (loop != null
+                && SETTERS.matches(methodInvocationTree)
+                && constants.isInvariant(methodInvocationTree.arguments().get(1), loop)) {
+            reportIssue(tree, MESSAGERULE);
         }
     }
 
-    private static final boolean isConstant(Tree arg) {
-
-        if (arg.is(METHOD_INVOCATION)) {
-            MethodInvocationTree m = (MethodInvocationTree) arg;
-            return Stream.of(ConstOrLiteralDeclare.values()).anyMatch(o -> o.isLiteralDeclare(m));
-        } else if (arg.is(MEMBER_SELECT)) {
-            MemberSelectExpressionTree m = (MemberSelectExpressionTree) arg;
-            return Stream.of(ConstOrLiteralDeclare.values()).anyMatch(o -> o.isPublicMember(m));
-        }
-        return isLiteral(arg);
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        LoopNestingIndex.release(context.getTree());
+        constants.clear();
     }
 }
@@ -17,11 +17,15 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.LoopNestingIndex;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.tree.*;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -29,96 +33,128 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI1")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC1")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "GRC1")
-public class AvoidSpringRepositoryCallInLoopOrStreamCheck extends IssuableSubscriptionVisitor {
+public class AvoidSpringRepositoryCallInLoopOrStreamCheck extends CreedengoCheck {
 
     protected static final String RULE_MESSAGE = "Avoid Spring repository call in loop or stream";
 
-    private static final String BASE_STREAM = "java.util.stream.BaseStream";
     private static final String SPRING_REPOSITORY = "org.springframework.data.repository.Repository";
 
     private static final MethodMatchers SPRING_REPOSITORY_METHOD =
-            MethodMatchers
+            CachedMethodMatchers.of(MethodMatchers
                 .create()
                 .ofSubTypes(SPRING_REPOSITORY)
                 .anyName()
                 .withAnyParameters()
-                .build();
-
-    private static final MethodMatchers STREAM_FOREACH_METHOD =
-            MethodMatchers
-                .create()
-                .ofSubTypes(BASE_STREAM)
-                .names("forEach", "forEachOrdered", "map", "peek")
-                .withAnyParameters()
-                .build();
-
-    private final AvoidSpringRepositoryCallInLoopCheckVisitor visitorInFile = new AvoidSpringRepositoryCallInLoopCheckVisitor();
-    private final StreamVisitor streamVisitor = new StreamVisitor();
-
-    private final AncestorMethodVisitor ancestorMethodVisitor = new AncestorMethodVisitor();
+                .build());
+
+    // methods calling their functional arguments for each element (or each stage of an asynchronous chain)
+    private static final MethodMatchers PER_ELEMENT_METHOD =
+            CachedMethodMatchers.of(MethodMatchers.or(
+                MethodMatchers.create()
+                    .ofSubTypes("java.util.stream.BaseStream")
+                    .names("allMatch", "anyMatch", "collect", "dropWhile", "filter", "flatMap", "flatMapToDouble",
+                            "flatMapToInt", "flatMapToLong", "forEach", "forEachOrdered", "map", "mapMulti",
+                            "mapToDouble", "mapToInt", "mapToLong", "mapToObj", "max", "min", "noneMatch", "peek",
+                            "reduce", "sorted", "takeWhile")
+                    .withAnyParameters()
+                    .build(),
+                MethodMatchers.create()
+                    .ofTypes("java.util.stream.Collectors")
+                    .names("averagingDouble", "averagingInt", "averagingLong", "filtering", "flatMapping",
+                            "groupingBy", "groupingByConcurrent", "mapping", "partitioningBy", "reducing",
+                            "summarizingDouble", "summarizingInt", "summarizingLong", "summingDouble", "summingInt",
+                            "summingLong", "toConcurrentMap", "toMap", "toUnmodifiableMap")
+                    .withAnyParameters()
+                    .build(),
+                MethodMatchers.create()
+                    .ofSubTypes("java.lang.Iterable")
+                    .names("forEach")
+                    .withAnyParameters()
+                    .build(),
+                MethodMatchers.create()
+                    .ofSubTypes("java.util.Collection")
+                    .names("removeIf")
+                    .withAnyParameters()
+                    .build(),
+                MethodMatchers.create()
+                    .ofSubTypes("java.util.List")
+                    .names("replaceAll")
+                    .withAnyParameters()
+                    .build(),
+                MethodMatchers.create()
+                    .ofSubTypes("java.util.Map")
+                    .names("computeIfAbsent", "forEach", "replaceAll")
+                    .withAnyParameters()
+                    .build(),
+                MethodMatchers.create()
+                    .ofSubTypes("java.util.concurrent.CompletionStage")
+                    .names("thenAccept", "thenAcceptAsync", "thenApply", "thenApplyAsync", "thenCompose",
+                            "thenComposeAsync")
+                    .withAnyParameters()
+                    .build()));
+
+    private final RepositoryCallVisitor repositoryCallVisitor = new RepositoryCallVisitor();
 
     @Override
     public List<Tree.Kind> nodesToVisit() {
-        return Arrays.asList(
-                Tree.Kind.FOR_EACH_STATEMENT, // loop
-                Tree.Kind.FOR_STATEMENT, // loop
-                Tree.Kind.WHILE_STATEMENT, // loop
-                Tree.Kind.DO_STATEMENT, // loop
-                Tree.Kind.METHOD_INVOCATION // stream
-        );
+        return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
     }
 
     @Override
-    public void visitNode(Tree tree) {
-        if (tree.is(Tree.Kind.METHOD_INVOCATION)) { // stream process
-            MethodInvocationTree methodInvocationTree = (MethodInvocationTree) tree;
-            if (STREAM_FOREACH_METHOD.matches(methodInvocationTree)) {
-                tree.accept(streamVisitor);
-            }
-        } else { // loop process
-            tree.accept(visitorInFile);
+    protected void visitTree(Tree tree) {
+        MethodInvocationTree methodInvocationTree = (MethodInvocationTree) tree;
+        boolean inLoop = isInLoop(tree);
+        if (inLoop && SPRING_REPOSITORY_METHOD.matches(methodInvocationTree)) { // loop process
+            reportIssue(tree, RULE_MESSAGE);
         }
-    }
-
-    private class AvoidSpringRepositoryCallInLoopCheckVisitor extends BaseTreeVisitor {
-        @Override
-        public void visitMethodInvocation(MethodInvocationTree tree) {
-            if (SPRING_REPOSITORY_METHOD.matches(tree)) {
-                reportIssue(tree, RULE_MESSAGE);
-            } else {
-                super.visitMethodInvocation(tree);
+        if (PER_ELEMENT_METHOD.matches(methodInvocationTree)) { // stream process
+            for (ExpressionTree argument : methodInvocationTree.arguments()) {
+                visitFunctionalArgument(argument, inLoop);
             }
         }
+    }
 
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        LoopNestingIndex.release(context.getTree());
     }
 
-    private class StreamVisitor extends BaseTreeVisitor {
+    private boolean isInLoop(Tree tree) {
+        return LoopNestingIndex.of(context.getTree()).isInLoop(tree);
+    }
 
-        @Override
-        public void visitLambdaExpression(LambdaExpressionTree tree) {
-            tree.accept(ancestorMethodVisitor);
+    private void visitFunctionalArgument(ExpressionTree argument, boolean inLoop) {
+        if (argument.is(Tree.Kind.METHOD_REFERENCE)) {
+            // ids.stream().map(repository::findById)
+            if (SPRING_REPOSITORY_METHOD.matches((MethodReferenceTree) argument)) {
+                reportIssue(argument, RULE_MESSAGE);
+            }
+        } else if (argument.is(Tree.Kind.LAMBDA_EXPRESSION) && !inLoop) {
+            // invocations in a lambda inside a loop are already reported as in the loop
+            walk(((LambdaExpressionTree) argument).body(), repositoryCallVisitor);
         }
-
     }
 
-    private class AncestorMethodVisitor extends BaseTreeVisitor {
+    private class RepositoryCallVisitor extends BaseTreeVisitor {
 
         @Override
         public void visitMethodInvocation(MethodInvocationTree tree) {
-            // if the method is a spring repository method, report an issue
             if (SPRING_REPOSITORY_METHOD.matches(tree)) {
                 reportIssue(tree, RULE_MESSAGE);
-            } else { // else, check if the method is a method invocation and check recursively
-                if (tree.methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
-                    MemberSelectExpressionTree memberSelectTree = (MemberSelectExpressionTree) tree.methodSelect();
-                    if ( memberSelectTree.expression().is(Tree.Kind.METHOD_INVOCATION)) {
-                        MethodInvocationTree methodInvocationTree = (MethodInvocationTree) memberSelectTree.expression();
-                        methodInvocationTree.accept(ancestorMethodVisitor);
+            }
+            if (PER_ELEMENT_METHOD.matches(tree)) {
+                // functional arguments are visited with this invocation
+                scan(tree.methodSelect());
+                for (ExpressionTree argument : tree.arguments()) {
+                    if (!argument.is(Tree.Kind.LAMBDA_EXPRESSION, Tree.Kind.METHOD_REFERENCE)) {
+                        scan(argument);
                     }
                 }
+            } else {
+                super.visitMethodInvocation(tree);
             }
         }
-
     }
 
 }
@@ -20,13 +20,15 @@ package org.greencodeinitiative.creedengo.java.checks;
 import java.util.Collections;
 import java.util.List;
 
-import com.google.re2j.Pattern;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.SqlLiterals;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import org.sonar.plugins.java.api.tree.Arguments;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
-import org.sonar.plugins.java.api.tree.LiteralTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -34,15 +36,13 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI5")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC5")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "SDMLQ1")
-public class AvoidStatementForDMLQueries extends IssuableSubscriptionVisitor {
+public class AvoidStatementForDMLQueries extends CreedengoCheck {
 
     protected static final String MESSAGERULE = "You must not use Statement for a DML query";
 
-    private static final Pattern PATTERN = Pattern.compile("(SELECT|INSERT INTO|UPDATE|DELETE FROM)\\s?.*", Pattern.CASE_INSENSITIVE);
-
-    private static final MethodMatchers EXECUTE_METHOD = MethodMatchers.or(
+    private static final MethodMatchers EXECUTE_METHOD = CachedMethodMatchers.of(MethodMatchers.or(
             MethodMatchers.create().ofSubTypes("java.sql.Statement").names("executeUpdate")
-                    .withAnyParameters().build());
+                    .withAnyParameters().build()));
 
     @Override
     public List<Tree.Kind> nodesToVisit() {
@@ -50,7 +50,7 @@ public class AvoidStatementForDMLQueries extends IssuableSubscriptionVisitor {
     }
 
     @Override
-    public void visitNode(Tree tree) {
+    protected void visitTree(Tree tree) {
         MethodInvocationTree methodInvocationTree = (MethodInvocationTree) tree;
         if (!EXECUTE_METHOD.matches(methodInvocationTree))
             return;
@@ -58,11 +58,14 @@ public class AvoidStatementForDMLQueries extends IssuableSubscriptionVisitor {
         if (arguments.isEmpty())
             return;
         ExpressionTree first = arguments.get(0);
-        if (first.is(Tree.Kind.STRING_LITERAL)) {
-            LiteralTree literalTree = (LiteralTree) first;
-            String str = literalTree.value();
-            if (PATTERN.matcher(str).find())
-                reportIssue(literalTree, MESSAGERULE);
-        }
+        SqlLiterals.SqlQuery query = SqlLiterals.of(context.getTree()).query(first);
+        if (query != null && query.isDml())
+            reportIssue(first, MESSAGERULE);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        SqlLiterals.release(context.getTree());
     }
 }
@@ -24,7 +24,6 @@ import java.util.Map;
 import javax.annotation.Nonnull;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.VariableTree;
@@ -33,7 +32,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI76")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC76")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S76")
-public class AvoidUsageOfStaticCollections extends IssuableSubscriptionVisitor {
+public class AvoidUsageOfStaticCollections extends CreedengoCheck {
 
     protected static final String MESSAGE_RULE = "Avoid usage of static collections.";
 
@@ -47,8 +46,8 @@ public class AvoidUsageOfStaticCollections extends IssuableSubscriptionVisitor {
     }
 
     @Override
-    public void visitNode(@Nonnull Tree tree) {
-        tree.accept(visitor);
+    protected void visitTree(@Nonnull Tree tree) {
+        walk(tree, visitor);
     }
 
     private class AvoidUsageOfStaticCollectionsVisitor extends BaseTreeVisitor {
@@ -0,0 +1,306 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.caching.CacheContext;
+
+/**
+ * Issues raised by a check on a file, kept in the analysis cache of SonarQube to be replayed by the next analysis
+ * (pull request) if the file is unchanged.
+ * <p>
+ * Entries are keyed by version of the rules, rule key with the hash of the values of the parameters of the check
+ * ({@link #checkKey}) and file key, and hold the hash of the file content : issues raised by another version of the
+ * rules, with other parameters or on another content of the file are never replayed. Checks keeping a project-wide
+ * state can also cache the part of this state computed on each file.
+ * <p>
+ * Issues can only be replayed on a line or on the file, the plugin API giving no way to report the text range, the
+ * secondary locations or the flows of an issue without the tree of the file : the issues of a file are not cached when
+ * one of them has such a location, and the file is analyzed again by the next analysis. As the checks report their
+ * issues on trees, an unchanged file is in practice only skipped by the checks which raised no issue on it.
+ */
+final class CachedFileIssues {
+
+    private static final Logger LOGGER = Loggers.get(CachedFileIssues.class);
+
+    private static final String KEY_PREFIX = "creedengo:java:issues:";
+    private static final String STATE_KEY_PREFIX = "creedengo:java:state:";
+
+    private static final String VERSION_RESOURCE = "/org/greencodeinitiative/creedengo/java/creedengo-java.properties";
+
+    // nothing is cached when the version of the rules is unknown (issues of other rules could be replayed)
+    @Nullable
+    private static final String RULES_VERSION = loadRulesVersion();
+
+    // issues on file are stored on this line
+    private static final int FILE_LINE = 0;
+
+    private static final int NO_COST = -1;
+
+    private final String contentHash;
+    private final List<Issue> issues = new ArrayList<>();
+    private boolean replayable = true;
+
+    private CachedFileIssues(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /**
+     * Start to collect the issues raised on a file, if the analysis cache is enabled
+     *
+     * @return null if issues are not cached
+     */
+    @CheckForNull
+    static CachedFileIssues collect(@Nullable CacheContext cacheContext, String fileContent) {
+        if (!isEnabled(cacheContext)) {
+            return null;
+        }
+        return new CachedFileIssues(hash(fileContent));
+    }
+
+    void add(int line, @Nullable Integer cost, String message) {
+        issues.add(new Issue(line, cost == null ? NO_COST : cost, message));
+    }
+
+    void addOnFile(String message) {
+        add(FILE_LINE, null, message);
+    }
+
+    /**
+     * Issue with a text range, secondary locations or flows, which can not be replayed
+     */
+    void addLocated() {
+        replayable = false;
+    }
+
+    /**
+     * Key of a check in the cache : its rule key, followed by the hash of the values of its parameters if it has some
+     * (fields annotated with {@link RuleProperty}, set once the check is created)
+     */
+    static String checkKey(String ruleKey, JavaCheck check) {
+        Map<String, String> parameters = new TreeMap<>();
+        for (Class<?> type = check.getClass(); type != null; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                RuleProperty property = field.getAnnotation(RuleProperty.class);
+                if (property != null) {
+                    parameters.put(property.key().isEmpty() ? field.getName() : property.key(), value(check, field));
+                }
+            }
+        }
+        return parameters.isEmpty() ? ruleKey : ruleKey + "@" + hash(parameters.toString());
+    }
+
+    private static String value(JavaCheck check, Field field) {
+        try {
+            field.setAccessible(true);
+            return String.valueOf(field.get(check));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // parameter which can't be read : the issues of the check are never replayed
+            return field.getName() + "#" + System.identityHashCode(check);
+        }
+    }
+
+    /**
+     * Write the issues collected on a file in the cache, for the next analysis, if they can all be replayed
+     */
+    void store(CacheContext cacheContext, String checkKey, InputFile inputFile) {
+        if (!replayable) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(contentHash);
+            out.writeInt(issues.size());
+            for (Issue issue : issues) {
+                out.writeInt(issue.line);
+                out.writeInt(issue.cost);
+                out.writeUTF(issue.message);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cacheContext.getWriteCache().write(key(checkKey, inputFile), bytes.toByteArray());
+    }
+
+    /**
+     * Read the issues cached by the previous analysis for an unchanged file (the cache must be
+     * {@link #isEnabled enabled})
+     *
+     * @return null if no issues are cached for this content of the file : it must be analyzed
+     */
+    @CheckForNull
+    static CachedFileIssues read(InputFileScannerContext context, String checkKey) {
+        CacheContext cacheContext = context.getCacheContext();
+        InputFile inputFile = context.getInputFile();
+        String key = key(checkKey, inputFile);
+        if (!cacheContext.getReadCache().contains(key)) {
+            return null;
+        }
+        try (InputStream stream = cacheContext.getReadCache().read(key);
+             DataInputStream in = new DataInputStream(stream)) {
+            CachedFileIssues cached = new CachedFileIssues(in.readUTF());
+            if (!cached.contentHash.equals(hash(inputFile.contents()))) {
+                return null;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                cached.issues.add(new Issue(in.readInt(), in.readInt(), in.readUTF()));
+            }
+            return cached;
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read cached issues of {} on {}", checkKey, inputFile, e);
+            return null;
+        }
+    }
+
+    /**
+     * Report again on the unchanged file the issues {@link #read} from the cache, and keep them for the next analysis
+     */
+    void replay(InputFileScannerContext context, JavaCheck check, String checkKey) {
+        for (Issue issue : issues) {
+            if (issue.line == FILE_LINE) {
+                context.addIssueOnFile(check, issue.message);
+            } else if (issue.cost == NO_COST) {
+                context.addIssue(issue.line, check, issue.message);
+            } else {
+                context.addIssue(issue.line, check, issue.message, issue.cost);
+            }
+        }
+        context.getCacheContext().getWriteCache().copyFromPrevious(key(checkKey, context.getInputFile()));
+    }
+
+    /**
+     * Keep in the cache the part of a project-wide state of a check computed on a file (the cache must be
+     * {@link #isEnabled enabled})
+     */
+    static void storeState(CacheContext cacheContext, String checkKey, InputFile inputFile, String fileContent, byte[] state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(state.length + 64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(hash(fileContent));
+            out.write(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        cacheContext.getWriteCache().write(stateKey(checkKey, inputFile), bytes.toByteArray());
+    }
+
+    /**
+     * Read the state stored by {@link #storeState} for an unchanged file, and keep it for the next analysis (the cache
+     * must be {@link #isEnabled enabled})
+     *
+     * @return null if no state is cached for this content of the file
+     */
+    @CheckForNull
+    static byte[] replayState(InputFileScannerContext context, String checkKey) {
+        CacheContext cacheContext = context.getCacheContext();
+        InputFile inputFile = context.getInputFile();
+        String key = stateKey(checkKey, inputFile);
+        if (!cacheContext.getReadCache().contains(key)) {
+            return null;
+        }
+        byte[] state;
+        try (InputStream stream = cacheContext.getReadCache().read(key);
+             DataInputStream in = new DataInputStream(stream)) {
+            if (!in.readUTF().equals(hash(inputFile.contents()))) {
+                return null;
+            }
+            state = in.readAllBytes();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to read cached state of {} on {}", checkKey, inputFile, e);
+            return null;
+        }
+        cacheContext.getWriteCache().copyFromPrevious(key);
+        return state;
+    }
+
+    static boolean isEnabled(@Nullable CacheContext cacheContext) {
+        return RULES_VERSION != null && cacheContext != null && cacheContext.isCacheEnabled();
+    }
+
+    private static String key(String checkKey, InputFile inputFile) {
+        return KEY_PREFIX + RULES_VERSION + ":" + checkKey + ":" + inputFile.key();
+    }
+
+    private static String stateKey(String checkKey, InputFile inputFile) {
+        return STATE_KEY_PREFIX + RULES_VERSION + ":" + checkKey + ":" + inputFile.key();
+    }
+
+    private static String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @CheckForNull
+    private static String loadRulesVersion() {
+        Properties properties = new Properties();
+        try (InputStream stream = CachedFileIssues.class.getResourceAsStream(VERSION_RESOURCE)) {
+            if (stream == null) {
+                return null;
+            }
+            properties.load(stream);
+        } catch (IOException e) {
+            return null;
+        }
+        return properties.getProperty("rules.version");
+    }
+
+    private static final class Issue {
+
+        private final int line;
+        private final int cost;
+        private final String message;
+
+        Issue(int line, int cost, String message) {
+            this.line = line;
+            this.cost = cost;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.greencodeinitiative.creedengo.java.instrumentation.CheckExecutionEvent;
+import org.greencodeinitiative.creedengo.java.instrumentation.RuleMetrics;
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.InputFileScannerContext;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TreeVisitor;
+
+/**
+ * Base class of the creedengo checks : subscribed nodes are handled by {@link #visitTree(Tree)} and
+ * {@link #leaveTree(Tree)}, and sub-trees are walked by inner visitors with {@link #walk(Tree, TreeVisitor)}, so that
+ * the execution of each rule can be measured (see {@link RuleMetrics} and {@link CheckExecutionEvent}).
+ * <p>
+ * Issues raised on each file are kept in the analysis cache when it is enabled, and replayed on unchanged files
+ * without visiting them, unless they have a location more precise than a line (see {@link CachedFileIssues}) : an
+ * unchanged file is analyzed again by the checks which reported issues on its trees.
+ */
+public abstract class CreedengoCheck extends IssuableSubscriptionVisitor {
+
+    private final String ruleKey;
+    // key of the check in the analysis cache, computed once its parameters are set
+    @Nullable
+    private String checkKey;
+
+    // per-file state, reset when leaving each file
+    // issues raised on the file being analyzed, to be cached (null if the cache is disabled)
+    @Nullable
+    private CachedFileIssues fileIssues;
+
+    // file whose issues were replayed from the cache : it is still parsed and visited when another check could not
+    // replay its own issues, but must not be analyzed again by this check (set until the file is visited)
+    @Nullable
+    private String replayedFileKey;
+
+    private boolean replayed;
+
+    // instrumentation of the file being analyzed, decided once per file : null and false when measuring nothing
+    @Nullable
+    private RuleMetrics metrics;
+    private boolean eventsEnabled;
+
+    protected CreedengoCheck() {
+        Rule rule = getClass().getAnnotation(Rule.class);
+        ruleKey = rule == null ? getClass().getSimpleName() : rule.key();
+    }
+
+    /**
+     * Called for each node of a kind returned by {@link #nodesToVisit()}
+     */
+    protected void visitTree(Tree tree) {
+        // nothing by default
+    }
+
+    /**
+     * Called when leaving each node of a kind returned by {@link #nodesToVisit()}
+     */
+    protected void leaveTree(Tree tree) {
+        // nothing by default
+    }
+
+    /**
+     * Called after the analysis of each file, to clean the state kept for this file
+     */
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        // nothing by default
+    }
+
+    @Override
+    public void setContext(JavaFileScannerContext context) {
+        super.setContext(context);
+        CachedMethodMatchers.startFile(context.getTree());
+        InputFile inputFile = context.getInputFile();
+        replayed = replayedFileKey != null && inputFile != null && replayedFileKey.equals(inputFile.key());
+        replayedFileKey = null;
+        metrics = RuleMetrics.current();
+        eventsEnabled = new CheckExecutionEvent().isEnabled();
+        fileIssues = replayed ? null : CachedFileIssues.collect(context.getCacheContext(), context.getFileContent());
+    }
+
+    @Override
+    public final void leaveFile(JavaFileScannerContext context) {
+        try {
+            leaveJavaFile(context);
+            if (fileIssues != null) {
+                fileIssues.store(context.getCacheContext(), checkKey(), context.getInputFile());
+            }
+        } finally {
+            CachedMethodMatchers.release(context.getTree());
+            fileIssues = null;
+            replayedFileKey = null;
+            replayed = false;
+            metrics = null;
+            eventsEnabled = false;
+        }
+    }
+
+    /**
+     * Called by sonar-java on a file unchanged since the previous analysis (pull request analysis), before parsing it :
+     * the file is parsed and visited only if a check returns false.
+     */
+    @Override
+    public boolean scanWithoutParsing(InputFileScannerContext inputFileScannerContext) {
+        if (!CachedFileIssues.isEnabled(inputFileScannerContext.getCacheContext())) {
+            // nothing to replay : issues of unchanged files are not reported, as by default
+            return super.scanWithoutParsing(inputFileScannerContext);
+        }
+        CachedFileIssues cachedIssues = CachedFileIssues.read(inputFileScannerContext, checkKey());
+        if (cachedIssues == null || !replayFileState(inputFileScannerContext)) {
+            replayedFileKey = null;
+            return false;
+        }
+        cachedIssues.replay(inputFileScannerContext, this, checkKey());
+        replayedFileKey = inputFileScannerContext.getInputFile().key();
+        return true;
+    }
+
+    /**
+     * Called on a file unchanged since the previous analysis, before replaying its issues, by checks keeping a
+     * project-wide state : the part of this state computed on the file must be restored from the cache.
+     *
+     * @return false if the state of the file is not cached : the file is analyzed again
+     */
+    protected boolean replayFileState(InputFileScannerContext context) {
+        return true;
+    }
+
+    @Override
+    public final void visitNode(Tree tree) {
+        if (replayed) {
+            return;
+        }
+        if (metrics == null && !eventsEnabled) {
+            visitTree(tree);
+        } else {
+            if (metrics != null) {
+                metrics.counters(ruleKey).nodeVisited();
+            }
+            measure(metrics, tree, CheckExecutionEvent.VISIT_NODE, "", () -> visitTree(tree));
+        }
+    }
+
+    @Override
+    public final void leaveNode(Tree tree) {
+        if (replayed) {
+            return;
+        }
+        if (metrics == null && !eventsEnabled) {
+            leaveTree(tree);
+        } else {
+            measure(metrics, tree, CheckExecutionEvent.LEAVE_NODE, "", () -> leaveTree(tree));
+        }
+    }
+
+    /**
+     * Walk a sub-tree with an inner visitor of the check
+     */
+    protected final void walk(Tree tree, TreeVisitor visitor) {
+        if (!eventsEnabled) {
+            tree.accept(visitor);
+        } else {
+            // time of the walk is already part of the node being visited for the rule metrics
+            measure(null, tree, CheckExecutionEvent.WALK, visitor.getClass().getSimpleName(), () -> tree.accept(visitor));
+        }
+    }
+
+    private void measure(@Nullable RuleMetrics metrics, Tree tree, String phase, String visitor, Runnable execution) {
+        CheckExecutionEvent event = new CheckExecutionEvent();
+        long start = System.nanoTime();
+        long bytes = metrics == null ? 0 : RuleMetrics.allocatedBytes();
+        event.begin();
+        try {
+            execution.run();
+        } finally {
+            event.end();
+            if (metrics != null) {
+                metrics.counters(ruleKey).spent(System.nanoTime() - start, RuleMetrics.allocatedBytes() - bytes);
+            }
+            if (event.shouldCommit()) {
+                event.set(ruleKey, filePath(), tree.kind().name(), phase, visitor);
+                event.commit();
+            }
+        }
+    }
+
+    private String filePath() {
+        InputFile inputFile = context == null ? null : context.getInputFile();
+        return inputFile == null ? "" : inputFile.toString();
+    }
+
+    @Override
+    public void reportIssue(Tree tree, String message) {
+        issueRaised();
+        cacheLocatedIssue();
+        super.reportIssue(tree, message);
+    }
+
+    @Override
+    public void reportIssue(Tree tree, String message, List<JavaFileScannerContext.Location> flow, @Nullable Integer cost) {
+        issueRaised();
+        cacheLocatedIssue();
+        super.reportIssue(tree, message, flow, cost);
+    }
+
+    @Override
+    public void reportIssue(Tree startTree, Tree endTree, String message) {
+        issueRaised();
+        cacheLocatedIssue();
+        super.reportIssue(startTree, endTree, message);
+    }
+
+    @Override
+    public void addIssue(int line, String message) {
+        issueRaised();
+        if (fileIssues != null) {
+            fileIssues.add(line, null, message);
+        }
+        super.addIssue(line, message);
+    }
+
+    @Override
+    public void addIssueOnFile(String message) {
+        issueRaised();
+        if (fileIssues != null) {
+            fileIssues.addOnFile(message);
+        }
+        super.addIssueOnFile(message);
+    }
+
+    protected final String ruleKey() {
+        return ruleKey;
+    }
+
+    /**
+     * Key of the check in the analysis cache : issues and states cached with other values of the parameters of the
+     * rule are not replayed
+     */
+    protected final String checkKey() {
+        if (checkKey == null) {
+            checkKey = CachedFileIssues.checkKey(ruleKey, this);
+        }
+        return checkKey;
+    }
+
+    private void issueRaised() {
+        RuleMetrics metrics = RuleMetrics.current();
+        if (metrics != null) {
+            metrics.counters(ruleKey).issueRaised();
+        }
+    }
+
+    private void cacheLocatedIssue() {
+        if (fileIssues != null) {
+            fileIssues.addLocated();
+        }
+    }
+}
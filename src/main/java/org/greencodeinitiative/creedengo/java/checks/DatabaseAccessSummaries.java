@@ -0,0 +1,356 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.plugins.java.api.location.Position;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * "Performs database access" summaries of the methods of a project, to find the calls in loops reaching a SQL request
+ * through other methods, possibly declared in other files.
+ * <p>
+ * Each analyzed file gives the calls made by its methods (including SQL requests, and from an overridden method to
+ * its implementations), with their text range. The calls in loops reaching a SQL request through the methods of their
+ * own file are resolved when leaving the file ({@link FileSummary#findings()}). The summaries of all the files, without
+ * their trees, are kept in one store per project and value of the {@code dataAccessTypes} parameter (which decides
+ * the methods accessing the database), shared by all the instances of the check ({@link #of}), and the other calls in
+ * loops are resolved once all the files are analyzed ({@link #findings()}) : issues depend neither on the order of the
+ * files nor on the threads analyzing them. Up to {@link #MAX_ENTRIES} calls are kept for a store.
+ */
+final class DatabaseAccessSummaries {
+
+    private static final Logger LOGGER = Loggers.get(DatabaseAccessSummaries.class);
+
+    static final int MAX_ENTRIES = 100_000;
+
+    // stores of the projects being analyzed by value of the dataAccessTypes parameter, released by the end of analysis
+    // step (or with their project)
+    private static final Map<InputComponent, Map<String, DatabaseAccessSummaries>> PROJECTS = new WeakHashMap<>();
+
+    // summaries by file key, sorted to resolve the calls in the same order whatever the order of the files
+    private final Map<String, FileSummary> files = new TreeMap<>();
+    private int callCount;
+    private boolean truncated;
+
+    private DatabaseAccessSummaries() {
+    }
+
+    /**
+     * Store of the summaries of the files of a project, made with a value of the {@code dataAccessTypes} parameter
+     *
+     * @return null if the project is unknown : calls are only resolved through the methods of their file
+     */
+    @CheckForNull
+    static DatabaseAccessSummaries of(@Nullable InputComponent project, String dataAccessTypes) {
+        if (project == null) {
+            return null;
+        }
+        synchronized (PROJECTS) {
+            return PROJECTS.computeIfAbsent(project, k -> new TreeMap<>())
+                    .computeIfAbsent(dataAccessTypes, k -> new DatabaseAccessSummaries());
+        }
+    }
+
+    /**
+     * Remove the stores of a project, once all its files are analyzed
+     *
+     * @return stores sorted by value of the {@code dataAccessTypes} parameter, empty if no file was summarized
+     */
+    static Collection<DatabaseAccessSummaries> release(InputComponent project) {
+        synchronized (PROJECTS) {
+            Map<String, DatabaseAccessSummaries> stores = PROJECTS.remove(project);
+            return stores == null ? List.of() : stores.values();
+        }
+    }
+
+    /**
+     * Summary of the file being analyzed
+     */
+    static FileSummary newFile(@Nullable InputFile inputFile) {
+        return new FileSummary(inputFile);
+    }
+
+    /**
+     * Summary of an unchanged file, written by {@link FileSummary#toBytes()} in a previous analysis
+     */
+    static FileSummary readFile(InputFile inputFile, byte[] bytes) throws IOException {
+        FileSummary file = new FileSummary(inputFile);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String caller = in.readUTF();
+                String callee = in.readUTF();
+                Call call = new Call(file, caller, callee.isEmpty() ? null : callee, in.readUTF(), in.readBoolean(),
+                        in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                call.reportedInFile = in.readBoolean();
+                file.calls.add(call);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Keep the summary of an analyzed (or unchanged) file of the project, replacing the previous summary of this file
+     */
+    synchronized void add(FileSummary file) {
+        file.trees = null;
+        if (file.inputFile == null) {
+            return;
+        }
+        FileSummary previous = files.remove(file.inputFile.key());
+        if (previous != null) {
+            callCount -= previous.calls.size();
+        }
+        if (callCount + file.calls.size() > MAX_ENTRIES) {
+            if (!truncated) {
+                truncated = true;
+                LOGGER.debug("Too many methods to summarize : SQL requests in loops through other methods may be missed");
+            }
+            return;
+        }
+        files.put(file.inputFile.key(), file);
+        callCount += file.calls.size();
+    }
+
+    /**
+     * Calls in loops of all the files of the project reaching a SQL request through other methods, except the ones
+     * already resolved through the methods of their file
+     */
+    synchronized List<Finding> findings() {
+        List<Call> calls = new ArrayList<>(callCount);
+        for (FileSummary file : files.values()) {
+            calls.addAll(file.calls);
+        }
+        return resolve(calls);
+    }
+
+    /**
+     * First call towards a database access of each method reaching one, and calls in loops of such methods
+     */
+    private static List<Finding> resolve(Collection<Call> calls) {
+        Map<String, Call> reaching = new HashMap<>();
+        Map<String, List<Call>> callers = new HashMap<>();
+        Deque<String> resolved = new ArrayDeque<>();
+        for (Call call : calls) {
+            if (call.callee == null) {
+                if (!reaching.containsKey(call.caller)) {
+                    reaching.put(call.caller, call);
+                    resolved.add(call.caller);
+                }
+            } else {
+                callers.computeIfAbsent(call.callee, k -> new ArrayList<>()).add(call);
+            }
+        }
+        while (!resolved.isEmpty()) {
+            for (Call call : callers.getOrDefault(resolved.poll(), List.of())) {
+                if (!reaching.containsKey(call.caller)) {
+                    reaching.put(call.caller, call);
+                    resolved.add(call.caller);
+                }
+            }
+        }
+        List<Finding> findings = new ArrayList<>();
+        for (Call call : calls) {
+            if (call.inLoop && !call.reportedInFile && call.callee != null && reaching.containsKey(call.callee)) {
+                List<Call> path = new ArrayList<>();
+                for (Call next = reaching.get(call.callee); next != null;
+                     next = next.callee == null ? null : reaching.get(next.callee)) {
+                    path.add(next);
+                }
+                findings.add(new Finding(call, path));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * Calls made by the methods of a file, with their tree while the file is analyzed
+     */
+    static final class FileSummary {
+
+        @Nullable
+        private final InputFile inputFile;
+        private final List<Call> calls = new ArrayList<>();
+        // trees of the calls, released when the summary is kept for the project
+        @Nullable
+        private Map<Call, Tree> trees = new HashMap<>();
+
+        private FileSummary(@Nullable InputFile inputFile) {
+            this.inputFile = inputFile;
+        }
+
+        /**
+         * @param callee   signature of the called method, or null for a SQL request
+         * @param name     name of the called method, for the messages
+         * @param location location of the call, in the file being analyzed
+         */
+        void addCall(String caller, @Nullable String callee, String name, Tree location, boolean inLoop) {
+            Position start = Position.startOf(location);
+            Position end = Position.endOf(location);
+            Call call = new Call(this, caller, callee, name, inLoop, start.line(), start.columnOffset(), end.line(),
+                    end.columnOffset());
+            calls.add(call);
+            if (trees != null) {
+                trees.put(call, location);
+            }
+        }
+
+        /**
+         * Calls in loops reaching a SQL request through the methods of this file : they are not resolved again with
+         * the other files of the project
+         */
+        List<Finding> findings() {
+            List<Finding> findings = resolve(calls);
+            for (Finding finding : findings) {
+                finding.loopCall.reportedInFile = true;
+            }
+            return findings;
+        }
+
+        /**
+         * Tree of a call of this file, while it is analyzed
+         */
+        @CheckForNull
+        Tree tree(Call call) {
+            return trees == null ? null : trees.get(call);
+        }
+
+        byte[] toBytes() {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(calls.size());
+                for (Call call : calls) {
+                    out.writeUTF(call.caller);
+                    out.writeUTF(call.callee == null ? "" : call.callee);
+                    out.writeUTF(call.name);
+                    out.writeBoolean(call.inLoop);
+                    out.writeInt(call.line);
+                    out.writeInt(call.column);
+                    out.writeInt(call.endLine);
+                    out.writeInt(call.endColumn);
+                    out.writeBoolean(call.reportedInFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    static final class Call {
+
+        private final FileSummary file;
+        private final String caller;
+        @Nullable
+        private final String callee;
+        private final String name;
+        private final boolean inLoop;
+        private final int line;
+        private final int column;
+        private final int endLine;
+        private final int endColumn;
+        // call in a loop resolved through the methods of its file
+        private boolean reportedInFile;
+
+        private Call(FileSummary file, String caller, @Nullable String callee, String name, boolean inLoop,
+                     int line, int column, int endLine, int endColumn) {
+            this.file = file;
+            this.caller = caller;
+            this.callee = callee;
+            this.name = name;
+            this.inLoop = inLoop;
+            this.line = line;
+            this.column = column;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+        }
+
+        String name() {
+            return name;
+        }
+
+        boolean isSqlRequest() {
+            return callee == null;
+        }
+
+        /**
+         * @return null if the file is unknown
+         */
+        @CheckForNull
+        InputFile inputFile() {
+            return file.inputFile;
+        }
+
+        /**
+         * @return null if the call is not in the file being analyzed
+         */
+        @CheckForNull
+        Tree tree() {
+            return file.tree(this);
+        }
+
+        ProjectIssue.Location location(@Nullable String message) {
+            return new ProjectIssue.Location(file.inputFile, line, column, endLine, endColumn, message);
+        }
+    }
+
+    /**
+     * Call in a loop, and the following calls up to a SQL request
+     */
+    static final class Finding {
+
+        private final Call loopCall;
+        private final List<Call> path;
+
+        private Finding(Call loopCall, List<Call> path) {
+            this.loopCall = loopCall;
+            this.path = path;
+        }
+
+        Call loopCall() {
+            return loopCall;
+        }
+
+        List<Call> path() {
+            return path;
+        }
+    }
+}
@@ -26,7 +26,6 @@ import java.util.List;
 import javax.annotation.ParametersAreNonnullByDefault;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
 import org.sonar.plugins.java.api.tree.NewClassTree;
@@ -38,7 +37,8 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI79")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC79")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S79")
-public class FreeResourcesOfAutoCloseableInterface extends IssuableSubscriptionVisitor {
+public class FreeResourcesOfAutoCloseableInterface extends CreedengoCheck {
+    // state of the file being analyzed, cleared when leaving the file
     private final Deque<TryStatementTree> withinTry = new LinkedList<>();
     private final Deque<List<Tree>> toReport = new LinkedList<>();
 
@@ -47,7 +47,7 @@ public class FreeResourcesOfAutoCloseableInterface extends IssuableSubscriptionV
 
     @Override
     @ParametersAreNonnullByDefault
-    public void leaveFile(JavaFileScannerContext context) {
+    protected void leaveJavaFile(JavaFileScannerContext context) {
         withinTry.clear();
         toReport.clear();
     }
@@ -58,12 +58,10 @@ public class FreeResourcesOfAutoCloseableInterface extends IssuableSubscriptionV
     }
 
     @Override
-    public void visitNode(Tree tree) {
+    protected void visitTree(Tree tree) {
         if (tree.is(Tree.Kind.TRY_STATEMENT)) {
             withinTry.push((TryStatementTree) tree);
-            if (withinTry.size() != toReport.size()) {
-                toReport.push(new ArrayList<>());
-            }
+            toReport.push(new ArrayList<>());
         }
         if (tree.is(Tree.Kind.NEW_CLASS) && ((NewClassTree) tree).symbolType().isSubtypeOf(JAVA_LANG_AUTOCLOSEABLE) && withinStandardTryWithFinally()) {
             assert toReport.peek() != null;
@@ -72,8 +70,9 @@ public class FreeResourcesOfAutoCloseableInterface extends IssuableSubscriptionV
     }
 
     @Override
-    public void leaveNode(Tree tree) {
+    protected void leaveTree(Tree tree) {
         if (tree.is(Tree.Kind.TRY_STATEMENT)) {
+            withinTry.pop();
             List<Tree> secondaryTrees = toReport.pop();
             if (!secondaryTrees.isEmpty()) {
                 reportIssue(tree, MESSAGE_RULE);
@@ -21,7 +21,6 @@ import java.util.Collections;
 import java.util.List;
 
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
@@ -29,7 +28,7 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI67")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC67")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S67")
-public class IncrementCheck extends IssuableSubscriptionVisitor {
+public class IncrementCheck extends CreedengoCheck {
 
     protected static final String MESSAGERULE = "Use ++i instead of i++";
 
@@ -39,7 +38,7 @@ public class IncrementCheck extends IssuableSubscriptionVisitor {
     }
 
     @Override
-    public void visitNode(Tree tree) {
+    protected void visitTree(Tree tree) {
         reportIssue(tree, MESSAGERULE);
     }
 }
@@ -19,33 +19,160 @@ package org.greencodeinitiative.creedengo.java.checks;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import javax.annotation.CheckForNull;
+
+import org.greencodeinitiative.creedengo.java.utils.LoopBounds;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.BlockTree;
+import org.sonar.plugins.java.api.tree.ExpressionStatementTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.Tree.Kind;
+import org.sonar.plugins.java.api.tree.VariableTree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
+/**
+ * StringBuilder and StringBuffer created without capacity, and collections or byte / char buffers created empty
+ * just before a loop adding one element on each iteration, when the number of iterations is known (see
+ * {@link LoopBounds}) : they are resized again and again while they are filled.
+ */
 @Rule(key = "GCI32")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC32")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "GRSP0032")
-public class InitializeBufferWithAppropriateSize extends IssuableSubscriptionVisitor {
+public class InitializeBufferWithAppropriateSize extends CreedengoCheck {
 
     protected static final String RULE_MESSAGE = "Initialize StringBuilder or StringBuffer with appropriate size";
 
+    private enum Sizing {
+        // number of elements
+        CAPACITY,
+        // number of elements divided by the default load factor, so that the table is not resized
+        HASHED,
+        // number of bytes or chars written
+        WRITTEN
+    }
+
+    private static final Map<String, Sizing> SIZED_TYPES = Map.of(
+            "java.util.ArrayList", Sizing.CAPACITY,
+            "java.util.ArrayDeque", Sizing.CAPACITY,
+            "java.util.HashMap", Sizing.HASHED,
+            "java.util.LinkedHashMap", Sizing.HASHED,
+            "java.util.HashSet", Sizing.HASHED,
+            "java.util.LinkedHashSet", Sizing.HASHED,
+            "java.io.ByteArrayOutputStream", Sizing.WRITTEN,
+            "java.io.StringWriter", Sizing.WRITTEN);
+
+    private static final Set<String> FILLING_METHODS = Set.of("add", "addFirst", "addLast", "offer", "offerFirst",
+            "offerLast", "push", "put", "write", "writeBytes", "append");
+
     @Override
     public List<Kind> nodesToVisit() {
         return Collections.singletonList(Kind.NEW_CLASS);
     }
 
     @Override
-    public void visitNode(Tree tree) {
+    protected void visitTree(Tree tree) {
         NewClassTree newClassTree = (NewClassTree) tree;
-        if ((newClassTree.symbolType().is("java.lang.StringBuffer")
-                || newClassTree.symbolType().is("java.lang.StringBuilder"))
-                && newClassTree.arguments().isEmpty()) {
+        if (!newClassTree.arguments().isEmpty()) {
+            return;
+        }
+        if (newClassTree.symbolType().is("java.lang.StringBuffer")
+                || newClassTree.symbolType().is("java.lang.StringBuilder")) {
             reportIssue(tree, RULE_MESSAGE);
+        } else {
+            Sizing sizing = SIZED_TYPES.get(newClassTree.symbolType().fullyQualifiedName());
+            String bound = sizing == null ? null : fillingLoopBound(newClassTree);
+            if (bound != null) {
+                reportIssue(tree, message(newClassTree.symbolType().name(), sizing, bound));
+            }
+        }
+    }
+
+    /**
+     * Number of iterations of the first loop following the declaration of the local variable initialized with the
+     * new instance, if this loop adds an element to it on each iteration
+     */
+    @CheckForNull
+    private static String fillingLoopBound(NewClassTree newClassTree) {
+        Tree parent = newClassTree.parent();
+        if (parent == null || !parent.is(Kind.VARIABLE) || parent.parent() == null || !parent.parent().is(Kind.BLOCK)) {
+            return null;
+        }
+        Symbol variable = ((VariableTree) parent).symbol();
+        List<StatementTree> statements = ((BlockTree) parent.parent()).body();
+        for (StatementTree statement : statements.subList(statements.indexOf(parent) + 1, statements.size())) {
+            if (statement.is(Kind.FOR_STATEMENT, Kind.FOR_EACH_STATEMENT, Kind.WHILE_STATEMENT, Kind.DO_STATEMENT)) {
+                return fillsOnEachIteration(statement, variable) ? LoopBounds.of(statement) : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * An element is added by a statement of the loop body itself (not a conditional nor a nested one)
+     */
+    private static boolean fillsOnEachIteration(StatementTree loop, Symbol variable) {
+        StatementTree body;
+        if (loop.is(Kind.FOR_EACH_STATEMENT)) {
+            body = ((ForEachStatement) loop).statement();
+        } else if (loop.is(Kind.FOR_STATEMENT)) {
+            body = ((ForStatementTree) loop).statement();
+        } else {
+            // number of iterations of WHILE and DO loops is unknown
+            return false;
+        }
+        List<StatementTree> statements = body.is(Kind.BLOCK) ? ((BlockTree) body).body() : List.of(body);
+        for (StatementTree statement : statements) {
+            if (statement.is(Kind.EXPRESSION_STATEMENT) && isFilling(((ExpressionStatementTree) statement).expression(), variable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isFilling(ExpressionTree expression, Symbol variable) {
+        if (!expression.is(Kind.METHOD_INVOCATION)) {
+            return false;
+        }
+        ExpressionTree methodSelect = ((MethodInvocationTree) expression).methodSelect();
+        if (!methodSelect.is(Kind.MEMBER_SELECT)) {
+            return false;
+        }
+        MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) methodSelect;
+        if (memberSelect.expression().is(Kind.METHOD_INVOCATION)) {
+            // writer.append(line).append('\n')
+            return isFilling(memberSelect.expression(), variable);
+        }
+        return memberSelect.expression().is(Kind.IDENTIFIER)
+                && variable.equals(((IdentifierTree) memberSelect.expression()).symbol())
+                && FILLING_METHODS.contains(memberSelect.identifier().name());
+    }
+
+    private static String message(String type, Sizing sizing, String bound) {
+        String elements = bound.contains(" ") ? ("(" + bound + ")") : bound;
+        String size;
+        switch (sizing) {
+            case HASHED:
+                size = "new " + type + "<>((int) (" + elements + " / 0.75f) + 1)";
+                break;
+            case WRITTEN:
+                size = "the number of iterations (" + bound + ") times the size written on each iteration";
+                break;
+            default:
+                size = "new " + type + "<>(" + bound + ")";
+                break;
         }
+        return "Initialize " + type + " with appropriate size : " + size;
     }
 }
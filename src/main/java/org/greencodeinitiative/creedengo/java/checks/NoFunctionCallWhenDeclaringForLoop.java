@@ -17,121 +17,274 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import javax.annotation.CheckForNull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
+import org.greencodeinitiative.creedengo.java.utils.LoopInvariance;
+import org.greencodeinitiative.creedengo.java.utils.LoopNestingIndex;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.ClassTree;
-import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
 import org.sonar.plugins.java.api.tree.ForStatementTree;
-import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.MethodInvocationTree;
-import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ReturnStatementTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
 import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 
+/**
+ * Calls in the declaration of a for loop (except the cheap ones, such as the getters inlined by the JIT), and
+ * expensive calls in the statement of a loop whose receiver and arguments are not modified by the loop : they give the
+ * same result on each iteration and can be made once before the loop. Calls in the condition of a while or do loop are
+ * not reported : the loop may wait for a change made elsewhere (by another thread, or a method of the project).
+ * <p>
+ * Each call is checked against the loops enclosing it, given by the shared {@link LoopNestingIndex} : loops are not
+ * walked again for each enclosing loop, and the variables modified by each loop are looked for once per file.
+ */
 @Rule(key = "GCI69")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC69")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "S69")
-public class NoFunctionCallWhenDeclaringForLoop extends IssuableSubscriptionVisitor {
+public class NoFunctionCallWhenDeclaringForLoop extends CreedengoCheck {
 
     protected static final String MESSAGERULE = "Do not call a function when declaring a for-type loop";
+    private static final String MESSAGE_INVARIANT = "Move this call before the loop : it %s, with the same receiver"
+            + " and arguments on each iteration";
 
-    private static final Map<String, Collection<Integer>> linesWithIssuesByClass = new HashMap<>();
+    // constant-time methods of the JDK, as cheap as a getter
+    private static final MethodMatchers CHEAP_METHOD = CachedMethodMatchers.of(MethodMatchers.or(
+            MethodMatchers.create().ofTypes("java.lang.String").names("length", "isEmpty", "charAt")
+                    .withAnyParameters().build(),
+            MethodMatchers.create().ofSubTypes("java.util.Collection", "java.util.Map").names("size", "isEmpty")
+                    .addWithoutParametersMatcher().build(),
+            MethodMatchers.create().ofTypes("java.lang.Math").anyName().withAnyParameters().build()
+    ));
 
-    @Override
-    public List<Tree.Kind> nodesToVisit() {
-        return Collections.singletonList(Tree.Kind.FOR_STATEMENT);
-    }
+    /**
+     * Methods whose cost grows with the data they go through, giving the same result for the same receiver and
+     * arguments (unlike I/O, whose result may change from one iteration to another)
+     */
+    private enum ExpensiveCall {
+        STREAM("traverses a stream", MethodMatchers.create()
+                .ofSubTypes("java.util.stream.BaseStream")
+                .names("count", "collect", "reduce", "anyMatch", "allMatch", "noneMatch", "findFirst", "findAny",
+                        "min", "max", "sum", "average", "toArray", "summaryStatistics")
+                .withAnyParameters()
+                .build()),
+        COLLECTION("traverses a collection", MethodMatchers.or(
+                MethodMatchers.create().ofSubTypes("java.util.List")
+                        .names("contains", "containsAll", "indexOf", "lastIndexOf").withAnyParameters().build(),
+                MethodMatchers.create().ofSubTypes("java.util.Map").names("containsValue").withAnyParameters().build(),
+                MethodMatchers.create().ofTypes("java.util.Collections")
+                        .names("max", "min", "frequency", "sort", "unmodifiableList", "unmodifiableSet")
+                        .withAnyParameters().build(),
+                MethodMatchers.create().ofTypes("java.util.Arrays")
+                        .names("asList", "binarySearch", "copyOf", "copyOfRange", "deepEquals", "deepToString",
+                                "equals", "hashCode", "sort", "toString")
+                        .withAnyParameters().build())),
+        REGEX("compiles a regex", MethodMatchers.or(
+                MethodMatchers.create().ofTypes("java.util.regex.Pattern").names("compile", "matches")
+                        .withAnyParameters().build(),
+                MethodMatchers.create().ofTypes("java.lang.String")
+                        .names("matches", "replaceAll", "replaceFirst", "split").withAnyParameters().build())),
+        REFLECTION("uses reflection", MethodMatchers.create()
+                .ofTypes("java.lang.Class")
+                .names("forName", "getMethod", "getMethods", "getDeclaredMethod", "getDeclaredMethods", "getField",
+                        "getFields", "getDeclaredField", "getDeclaredFields", "getConstructor", "getConstructors",
+                        "getDeclaredConstructor", "getDeclaredConstructors", "getAnnotation", "getAnnotations",
+                        "isAnnotationPresent")
+                .withAnyParameters()
+                .build()),
+        FORMAT("parses a format", MethodMatchers.create()
+                .ofTypes("java.lang.String", "java.text.MessageFormat")
+                .names("format")
+                .withAnyParameters()
+                .build());
 
-    @Override
-    public void visitNode(Tree tree) {
-        ForStatementTree method = (ForStatementTree) tree;
-        MethodInvocationInForStatementVisitor invocationMethodVisitor = new MethodInvocationInForStatementVisitor();
-        ExpressionTree condition = method.condition();
-        if (null != condition) {
-            method.condition().accept(invocationMethodVisitor);
-        }
-        // update
-        // initaliser
-        method.update().accept(invocationMethodVisitor);
-        method.initializer().accept(invocationMethodVisitor);
-    }
+        private final String description;
+        private final MethodMatchers matchers;
 
-    private class MethodInvocationInForStatementVisitor extends BaseTreeVisitor {
+        ExpensiveCall(String description, MethodMatchers matchers) {
+            this.description = description;
+            this.matchers = CachedMethodMatchers.of(matchers);
+        }
 
-        @Override
-        public void visitMethodInvocation(MethodInvocationTree tree) {
-            if (!lineAlreadyHasThisIssue(tree)) {
-                report(tree);
-                return;
+        @CheckForNull
+        static ExpensiveCall of(MethodInvocationTree tree) {
+            for (ExpensiveCall expensiveCall : values()) {
+                if (expensiveCall.matchers.matches(tree)) {
+                    return expensiveCall;
+                }
             }
-            super.visitMethodInvocation(tree);
+            return null;
         }
+    }
 
-        private boolean lineAlreadyHasThisIssue(Tree tree) {
-            if (tree.firstToken() != null) {
-                final String classname = getFullyQualifiedNameOfClassOf(tree);
-                final int line = tree.firstToken().range().start().line();
+    // lines of the file being analyzed already having an issue, cleared when leaving the file
+    private final Set<Integer> linesWithIssues = new HashSet<>();
+    // variables modified by each loop of the file being analyzed, cleared when leaving the file
+    private final Map<Tree, LoopInvariance> loops = new HashMap<>();
 
-                return linesWithIssuesByClass.containsKey(classname)
-                        && linesWithIssuesByClass.get(classname).contains(line);
-            }
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+        return Collections.singletonList(Tree.Kind.METHOD_INVOCATION);
+    }
 
-            return false;
+    @Override
+    protected void visitTree(Tree tree) {
+        LoopNestingIndex index = LoopNestingIndex.of(context.getTree());
+        if (!index.isInLoop(tree) || lineAlreadyHasThisIssue(tree)) {
+            return;
+        }
+        MethodInvocationTree invocation = (MethodInvocationTree) tree;
+        // loops from the outermost one, as when each loop was walked in turn
+        for (EnclosingLoop enclosing : enclosingLoops(invocation, index)) {
+            if (enclosing.isHeader()) {
+                // only the outermost call which is not cheap is reported
+                if (!isCheap(invocation) && enclosing.calls.stream().allMatch(NoFunctionCallWhenDeclaringForLoop::isCheap)) {
+                    report(invocation, MESSAGERULE);
+                    return;
+                }
+            } else if (enclosing.isBody() && !enclosing.deferred) {
+                ExpensiveCall expensiveCall = ExpensiveCall.of(invocation);
+                // only the outermost call of a chain of invariant calls is reported
+                if (expensiveCall != null && isInvariant(invocation, enclosing.loop) && enclosing.calls.stream()
+                        .noneMatch(call -> ExpensiveCall.of(call) != null && isInvariant(call, enclosing.loop))) {
+                    report(invocation, String.format(MESSAGE_INVARIANT, expensiveCall.description));
+                    return;
+                }
+            }
         }
+    }
 
-        private void report(Tree tree) {
-            if (tree.firstToken() != null) {
-                final String classname = getFullyQualifiedNameOfClassOf(tree);
-                final int line = tree.firstToken().range().start().line();
+    @Override
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        LoopNestingIndex.release(context.getTree());
+        linesWithIssues.clear();
+        loops.clear();
+    }
 
-                linesWithIssuesByClass.computeIfAbsent(classname, k -> new ArrayList<>());
+    private boolean isInvariant(MethodInvocationTree invocation, Tree loop) {
+        return loops.computeIfAbsent(loop, LoopInvariance::of).isInvariant(invocation);
+    }
 
-                linesWithIssuesByClass.get(classname).add(line);
+    /**
+     * Loops enclosing the invocation, from the outermost one, going up its parents only to the outermost loop
+     */
+    private static Deque<EnclosingLoop> enclosingLoops(MethodInvocationTree invocation, LoopNestingIndex index) {
+        Deque<EnclosingLoop> enclosingLoops = new ArrayDeque<>();
+        List<MethodInvocationTree> calls = new ArrayList<>();
+        boolean deferred = false;
+        Tree loop = index.innermostLoop(invocation);
+        Tree child = invocation;
+        for (Tree parent = invocation.parent(); loop != null && parent != null; child = parent, parent = parent.parent()) {
+            if (parent == loop) {
+                enclosingLoops.push(new EnclosingLoop(loop, child, new ArrayList<>(calls), deferred));
+                // a loop is indexed with the loops enclosing it
+                loop = index.innermostLoop(loop);
+            } else if (parent.is(Tree.Kind.METHOD_INVOCATION)) {
+                calls.add((MethodInvocationTree) parent);
+            } else if (parent.is(Tree.Kind.LAMBDA_EXPRESSION) || parent instanceof ClassTree) {
+                // not run on each iteration
+                deferred = true;
             }
+        }
+        return enclosingLoops;
+    }
 
-            reportIssue(tree, MESSAGERULE);
+    private boolean lineAlreadyHasThisIssue(Tree tree) {
+        if (tree.firstToken() != null) {
+            return linesWithIssues.contains(tree.firstToken().range().start().line());
         }
 
-        private String getFullyQualifiedNameOfClassOf(Tree tree) {
-            Tree parent = tree.parent();
+        return false;
+    }
 
-            while (parent != null) {
-                final Tree grandparent = parent.parent();
+    private void report(Tree tree, String message) {
+        if (tree.firstToken() != null) {
+            linesWithIssues.add(tree.firstToken().range().start().line());
+        }
 
-                if (parent.is(Tree.Kind.CLASS) && grandparent != null && grandparent.is(Tree.Kind.COMPILATION_UNIT)) {
-                    final String packageName = getPackageName((CompilationUnitTree) grandparent);
+        reportIssue(tree, message);
+    }
 
-                    return packageName.isEmpty() ? getClassName((ClassTree) parent)
-                            : packageName + '.' + getClassName((ClassTree) parent);
-                }
+    /**
+     * Call of a method of the JDK running in constant time, or of a getter of the file (a method without parameter
+     * only returning a field), inlined by the JIT
+     */
+    private static boolean isCheap(MethodInvocationTree tree) {
+        if (CHEAP_METHOD.matches(tree)) {
+            return true;
+        }
+        MethodTree declaration = tree.methodSymbol().declaration();
+        if (declaration == null || !declaration.parameters().isEmpty() || declaration.block() == null) {
+            return false;
+        }
+        List<StatementTree> body = declaration.block().body();
+        if (body.size() != 1 || !body.get(0).is(Tree.Kind.RETURN_STATEMENT)) {
+            return false;
+        }
+        ExpressionTree returned = ((ReturnStatementTree) body.get(0)).expression();
+        Symbol field = returned == null ? null : LoopInvariance.variable(returned);
+        return field != null && field.owner().isTypeSymbol();
+    }
 
-                parent = parent.parent();
-            }
+    /**
+     * Loop enclosing a call, with the part of the loop containing the call and the calls enclosing it in this loop
+     */
+    private static final class EnclosingLoop {
 
-            return "";
-        }
+        private final Tree loop;
+        private final Tree child;
+        private final List<MethodInvocationTree> calls;
+        // the call is in a lambda or a class declared in the loop
+        private final boolean deferred;
 
-        private String getPackageName(CompilationUnitTree compilationUnitTree) {
-            final PackageDeclarationTree packageDeclarationTree = compilationUnitTree.packageDeclaration();
-            if (packageDeclarationTree == null) {
-                return "";
-            }
+        EnclosingLoop(Tree loop, Tree child, List<MethodInvocationTree> calls, boolean deferred) {
+            this.loop = loop;
+            this.child = child;
+            this.calls = calls;
+            this.deferred = deferred;
+        }
 
-            return packageDeclarationTree.packageName().toString();
+        /**
+         * Initializer, condition or update of a for loop
+         */
+        boolean isHeader() {
+            return loop.is(Tree.Kind.FOR_STATEMENT) && child != ((ForStatementTree) loop).statement();
         }
 
-        private String getClassName(ClassTree classTree) {
-            final IdentifierTree simpleName = classTree.simpleName();
-            return simpleName == null ? "" : simpleName.toString();
+        /**
+         * Statement of the loop, run on each iteration (the iterated expression of a for-each loop is evaluated once,
+         * and the condition of a while or do loop may wait for a change made elsewhere)
+         */
+        boolean isBody() {
+            if (loop.is(Tree.Kind.FOR_STATEMENT)) {
+                return child == ((ForStatementTree) loop).statement();
+            } else if (loop.is(Tree.Kind.FOR_EACH_STATEMENT)) {
+                return child == ((ForEachStatement) loop).statement();
+            } else if (loop.is(Tree.Kind.WHILE_STATEMENT)) {
+                return child == ((WhileStatementTree) loop).statement();
+            }
+            return loop.is(Tree.Kind.DO_STATEMENT) && child == ((DoWhileStatementTree) loop).statement();
         }
     }
 
@@ -21,10 +21,12 @@ package org.greencodeinitiative.creedengo.java.checks;
 import java.util.Arrays;
 import java.util.List;
 
+import javax.annotation.ParametersAreNonnullByDefault;
+
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.tree.CatchTree;
 import org.sonar.plugins.java.api.tree.NewClassTree;
 import org.sonar.plugins.java.api.tree.Tree;
@@ -35,10 +37,11 @@ import org.sonarsource.analyzer.commons.annotations.DeprecatedRuleKey;
 @Rule(key = "GCI28")
 @DeprecatedRuleKey(repositoryKey = "ecocode-java", ruleKey = "EC28")
 @DeprecatedRuleKey(repositoryKey = "greencodeinitiative-java", ruleKey = "GRSP0028")
-public class OptimizeReadFileExceptions extends IssuableSubscriptionVisitor {
+public class OptimizeReadFileExceptions extends CreedengoCheck {
 
     protected static final String MESSAGERULE = "Optimize Read File Exceptions";
     private static final Logger LOGGER = Loggers.get(OptimizeReadFileExceptions.class);
+    // state of the file being analyzed : catch clauses of the last visited try statement
     private boolean isExceptionFound = false;
 
     @Override
@@ -47,7 +50,13 @@ public class OptimizeReadFileExceptions extends IssuableSubscriptionVisitor {
     }
 
     @Override
-    public void visitNode(Tree tree) {
+    @ParametersAreNonnullByDefault
+    protected void leaveJavaFile(JavaFileScannerContext context) {
+        isExceptionFound = false;
+    }
+
+    @Override
+    protected void visitTree(Tree tree) {
         LOGGER.debug("--------------------_____-----_____----- OptimizeReadFileExceptions.visitNode METHOD - BEGIN");
         if (tree.kind().getAssociatedInterface().equals(NewClassTree.class)) {
             LOGGER.debug("interface NewClassTree found");
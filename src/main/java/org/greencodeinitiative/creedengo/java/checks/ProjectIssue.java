@@ -0,0 +1,125 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Issue raised on a file once all the files of the project are analyzed, by a check keeping a project-wide state
+ * (GCI72 calls in loops reaching a SQL request through methods of other files).
+ * <p>
+ * sonar-java only lets the end of analysis step of a check raise issues on the project : these issues are collected
+ * by {@link #collect} and reported by the {@code ProjectIssuesSensor} of the plugin, or by the offline runner.
+ */
+public final class ProjectIssue {
+
+    private final String ruleKey;
+    private final Location location;
+    private final List<Location> secondaryLocations;
+
+    ProjectIssue(String ruleKey, Location location, List<Location> secondaryLocations) {
+        this.ruleKey = ruleKey;
+        this.location = location;
+        this.secondaryLocations = secondaryLocations;
+    }
+
+    /**
+     * Issues of the checks keeping a project-wide state, once all the files of a project are analyzed : the state of
+     * the project is released
+     */
+    public static List<ProjectIssue> collect(InputComponent project) {
+        List<ProjectIssue> issues = new ArrayList<>();
+        for (DatabaseAccessSummaries summaries : DatabaseAccessSummaries.release(project)) {
+            issues.addAll(AvoidSQLRequestInLoop.projectIssues(summaries));
+        }
+        return issues;
+    }
+
+    public String ruleKey() {
+        return ruleKey;
+    }
+
+    /**
+     * Primary location, with the message of the issue
+     */
+    public Location location() {
+        return location;
+    }
+
+    public List<Location> secondaryLocations() {
+        return secondaryLocations;
+    }
+
+    /**
+     * Text range in a file, as given to {@link InputFile#newRange(int, int, int, int)}
+     */
+    public static final class Location {
+
+        private final InputFile file;
+        private final int line;
+        private final int column;
+        private final int endLine;
+        private final int endColumn;
+        @Nullable
+        private final String message;
+
+        Location(InputFile file, int line, int column, int endLine, int endColumn, @Nullable String message) {
+            this.file = file;
+            this.line = line;
+            this.column = column;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+            this.message = message;
+        }
+
+        public InputFile file() {
+            return file;
+        }
+
+        public int line() {
+            return line;
+        }
+
+        /**
+         * @return offset of the first character in its line, from 0
+         */
+        public int column() {
+            return column;
+        }
+
+        public int endLine() {
+            return endLine;
+        }
+
+        public int endColumn() {
+            return endColumn;
+        }
+
+        @CheckForNull
+        public String message() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.IfStatementTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree.Kind;
+
+/**
+ * Dispatch of the switch which would replace an IF / ELSE IF chain only comparing a variable with constants, as
+ * compiled by javac :
+ * - dense int constants and enum constants (through their ordinal) : a tableswitch, one indexed jump
+ * - sparse int constants : a lookupswitch, a binary search among the constants
+ * - strings : a lookupswitch on the hash code of the string, followed by one equals
+ * - other types (long, boolean, objects...) : no switch
+ * The chain makes up to one comparison per constant : the switch is worth it when it makes less comparisons.
+ */
+final class SwitchDispatch {
+
+    enum Instruction {
+        TABLESWITCH("one indexed jump (tableswitch)"),
+        ENUM_TABLESWITCH("one indexed jump on its ordinal (tableswitch)"),
+        LOOKUPSWITCH("a binary search of %d comparisons (lookupswitch)"),
+        STRING_SWITCH("a lookup of its hash code and one equals (string switch)"),
+        NONE("");
+
+        private final String description;
+
+        Instruction(String description) {
+            this.description = description;
+        }
+    }
+
+    private final Instruction instruction;
+    private final String variableName;
+    // number of distinct constants compared with the variable, and thus of comparisons of the chain (worst case)
+    private final int constants;
+
+    private SwitchDispatch(Instruction instruction, String variableName, int constants) {
+        this.instruction = instruction;
+        this.variableName = variableName;
+        this.constants = constants;
+    }
+
+    /**
+     * @param root first IF statement of the chain
+     * @param variableName name of the compared variable
+     * @return null if the chain does not only compare the variable with at least two constants
+     */
+    @CheckForNull
+    static SwitchDispatch of(IfStatementTree root, String variableName) {
+        Set<Object> constants = new LinkedHashSet<>();
+        Type[] variableType = new Type[1];
+        StatementTree statement = root;
+        while (statement != null && statement.is(Kind.IF_STATEMENT)) {
+            IfStatementTree ifStatement = (IfStatementTree) statement;
+            if (!addConstants(ifStatement.condition(), variableName, constants, variableType)) {
+                return null;
+            }
+            statement = ifStatement.elseStatement();
+        }
+        if (constants.size() < 2) {
+            return null;
+        }
+        return new SwitchDispatch(instruction(variableType[0], constants), variableName, constants.size());
+    }
+
+    /**
+     * Variable of a String compared with a constant by {@code variable.equals("constant")} or
+     * {@code "constant".equals(variable)}
+     */
+    @CheckForNull
+    static IdentifierTree stringComparedToConstant(ExpressionTree expression) {
+        if (!expression.is(Kind.METHOD_INVOCATION)) {
+            return null;
+        }
+        MethodInvocationTree invocation = (MethodInvocationTree) expression;
+        if (!invocation.methodSelect().is(Kind.MEMBER_SELECT) || invocation.arguments().size() != 1
+                || !"equals".equals(((MemberSelectExpressionTree) invocation.methodSelect()).identifier().name())) {
+            return null;
+        }
+        ExpressionTree receiver = ((MemberSelectExpressionTree) invocation.methodSelect()).expression();
+        ExpressionTree argument = invocation.arguments().get(0);
+        if (isStringVariable(receiver) && argument.asConstant(String.class).isPresent()) {
+            return (IdentifierTree) receiver;
+        }
+        if (isStringVariable(argument) && receiver.asConstant(String.class).isPresent()) {
+            return (IdentifierTree) argument;
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the switch makes less comparisons than the chain
+     */
+    boolean reducesComparisons() {
+        switch (instruction) {
+            case TABLESWITCH:
+            case ENUM_TABLESWITCH:
+                return constants > 1;
+            case LOOKUPSWITCH:
+                return binarySearchComparisons() < constants;
+            case STRING_SWITCH:
+                return constants > 2;
+            default:
+                return false;
+        }
+    }
+
+    String description() {
+        return String.format("%d comparisons of %s replaced by %s", constants, variableName,
+                String.format(instruction.description, binarySearchComparisons()));
+    }
+
+    private int binarySearchComparisons() {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(constants);
+    }
+
+    private static Instruction instruction(Type type, Set<Object> constants) {
+        if (type.is("java.lang.String")) {
+            return Instruction.STRING_SWITCH;
+        }
+        if (type.symbol().isEnum()) {
+            return Instruction.ENUM_TABLESWITCH;
+        }
+        if (!isIntType(type) || !constants.stream().allMatch(Integer.class::isInstance)) {
+            return Instruction.NONE;
+        }
+        long lo = constants.stream().mapToLong(Integer.class::cast).min().orElse(0);
+        long hi = constants.stream().mapToLong(Integer.class::cast).max().orElse(0);
+        // costs weighed by javac (Gen.visitSwitch) to choose between a tableswitch and a lookupswitch
+        long tableSpaceCost = 4 + (hi - lo + 1);
+        long tableTimeCost = 3;
+        long lookupSpaceCost = 3 + 2L * constants.size();
+        long lookupTimeCost = constants.size();
+        return tableSpaceCost + 3 * tableTimeCost <= lookupSpaceCost + 3 * lookupTimeCost
+                ? Instruction.TABLESWITCH
+                : Instruction.LOOKUPSWITCH;
+    }
+
+    private static boolean isIntType(Type type) {
+        return type.isPrimitive(Type.Primitives.INT) || type.isPrimitive(Type.Primitives.SHORT)
+                || type.isPrimitive(Type.Primitives.BYTE) || type.isPrimitive(Type.Primitives.CHAR)
+                || type.is("java.lang.Integer") || type.is("java.lang.Short") || type.is("java.lang.Byte")
+                || type.is("java.lang.Character");
+    }
+
+    private static boolean isStringVariable(ExpressionTree expression) {
+        return expression.is(Kind.IDENTIFIER) && expression.symbolType().is("java.lang.String");
+    }
+
+    /**
+     * Add the constants of a condition only made of comparisons of the variable with constants, joined by ||
+     * @return false if the condition is not made this way
+     */
+    private static boolean addConstants(ExpressionTree condition, String variableName, Set<Object> constants,
+                                        Type[] variableType) {
+        if (condition.is(Kind.PARENTHESIZED_EXPRESSION)) {
+            return addConstants(((ParenthesizedTree) condition).expression(), variableName, constants, variableType);
+        }
+        if (condition.is(Kind.CONDITIONAL_OR)) {
+            BinaryExpressionTree or = (BinaryExpressionTree) condition;
+            return addConstants(or.leftOperand(), variableName, constants, variableType)
+                    && addConstants(or.rightOperand(), variableName, constants, variableType);
+        }
+        ExpressionTree variable;
+        ExpressionTree constant;
+        IdentifierTree comparedString = stringComparedToConstant(condition);
+        if (comparedString != null) {
+            MethodInvocationTree invocation = (MethodInvocationTree) condition;
+            variable = comparedString;
+            constant = comparedString == invocation.arguments().get(0)
+                    ? ((MemberSelectExpressionTree) invocation.methodSelect()).expression()
+                    : invocation.arguments().get(0);
+        } else if (condition.is(Kind.EQUAL_TO)) {
+            BinaryExpressionTree equalTo = (BinaryExpressionTree) condition;
+            boolean variableOnLeft = isVariable(equalTo.leftOperand(), variableName);
+            variable = variableOnLeft ? equalTo.leftOperand() : equalTo.rightOperand();
+            constant = variableOnLeft ? equalTo.rightOperand() : equalTo.leftOperand();
+        } else {
+            return false;
+        }
+        Object key = constantKey(constant);
+        if (!isVariable(variable, variableName) || key == null) {
+            return false;
+        }
+        variableType[0] = variable.symbolType();
+        constants.add(key);
+        return true;
+    }
+
+    private static boolean isVariable(ExpressionTree expression, String variableName) {
+        return expression.is(Kind.IDENTIFIER) && ((IdentifierTree) expression).name().equals(variableName);
+    }
+
+    /**
+     * Value of a constant (int value of a char), or name of an enum constant
+     */
+    @CheckForNull
+    private static Object constantKey(ExpressionTree constant) {
+        if (constant.is(Kind.CHAR_LITERAL)) {
+            // not evaluated as a constant : only a single character between quotes is read (no escape sequence)
+            String literal = ((LiteralTree) constant).value();
+            return literal.length() == 3 ? (Object) (int) literal.charAt(1) : null;
+        }
+        Optional<Object> value = constant.asConstant();
+        if (value.isPresent()) {
+            Object key = value.get();
+            if (key instanceof Character) {
+                return (int) (Character) key;
+            }
+            if (key instanceof Short || key instanceof Byte) {
+                return ((Number) key).intValue();
+            }
+            return key;
+        }
+        Symbol symbol = null;
+        if (constant.is(Kind.IDENTIFIER)) {
+            symbol = ((IdentifierTree) constant).symbol();
+        } else if (constant.is(Kind.MEMBER_SELECT)) {
+            symbol = ((MemberSelectExpressionTree) constant).identifier().symbol();
+        }
+        if (symbol != null && symbol.isVariableSymbol() && symbol.isStatic() && symbol.isFinal()
+                && symbol.type().symbol().isEnum() && symbol.owner().equals(symbol.type().symbol())) {
+            return symbol.name();
+        }
+        return null;
+    }
+}
@@ -18,8 +18,12 @@
 package org.greencodeinitiative.creedengo.java.checks.enums;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
+import org.greencodeinitiative.creedengo.java.utils.CachedMethodMatchers;
 import org.sonar.plugins.java.api.semantic.MethodMatchers;
 import static org.sonar.plugins.java.api.semantic.MethodMatchers.create;
 import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
@@ -31,6 +35,8 @@ import static org.sonar.plugins.java.api.tree.Tree.Kind.DOUBLE_LITERAL;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.FLOAT_LITERAL;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.INT_LITERAL;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.LONG_LITERAL;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.MEMBER_SELECT;
+import static org.sonar.plugins.java.api.tree.Tree.Kind.METHOD_INVOCATION;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.STRING_LITERAL;
 import static org.sonar.plugins.java.api.tree.Tree.Kind.TYPE_CAST;
 import org.sonar.plugins.java.api.tree.TypeCastTree;
@@ -184,12 +190,58 @@ public enum ConstOrLiteralDeclare {
             return Set.of("ZERO", "ONE", "TEN");
         }
 
+        @Override
+        MethodMatchers methodMatchers() {
+            return DEFAULT_METHOD_MATCHERS;
+        }
+    },
+
+    BIGINTEGER {
+        @Override
+        String className() {
+            return BigInteger.class.getName();
+        }
+
+        @Override
+        Set<String> publicMembers() {
+            return Set.of("ZERO", "ONE", "TWO", "TEN");
+        }
+
         @Override
         MethodMatchers methodMatchers() {
             return DEFAULT_METHOD_MATCHERS;
         }
     };
 
+    // values by the name of their class, so that a tree is only checked against the value of its type
+    private static final Map<String, ConstOrLiteralDeclare> BY_CLASS_NAME = new HashMap<>();
+
+    static {
+        for (ConstOrLiteralDeclare value : values()) {
+            BY_CLASS_NAME.put(value.className(), value);
+        }
+    }
+
+    /**
+     * @return true if the tree is a public constant of a class of the catalog ({@code Boolean.TRUE}), or a call of one
+     * of its factories ({@code BigDecimal.valueOf(...)}) : the value is constant when the arguments of the call are
+     */
+    public static boolean isConstantDeclare(Tree tree) {
+        if (tree.is(METHOD_INVOCATION)) {
+            MethodInvocationTree invocation = (MethodInvocationTree) tree;
+            if (invocation.methodSymbol().isUnknown()) {
+                return false;
+            }
+            ConstOrLiteralDeclare value = BY_CLASS_NAME.get(invocation.methodSymbol().owner().type().fullyQualifiedName());
+            return value != null && value.methodMatchers().matches(invocation);
+        } else if (tree.is(MEMBER_SELECT)) {
+            MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) tree;
+            ConstOrLiteralDeclare value = BY_CLASS_NAME.get(memberSelect.expression().symbolType().fullyQualifiedName());
+            return value != null && value.isPublicMember(memberSelect);
+        }
+        return false;
+    }
+
     public boolean isPublicMember(MemberSelectExpressionTree tree) {
 
         return className().equals(tree.expression().symbolType().fullyQualifiedName()) //strong check
@@ -210,9 +262,9 @@ public enum ConstOrLiteralDeclare {
 
     private static final Set<String> NUMBER_DEFAULT_MEMBERS = Set.of("MIN_VALUE", "MAX_VALUE");
 
-    private static final MethodMatchers DEFAULT_METHOD_MATCHERS = create()
+    private static final MethodMatchers DEFAULT_METHOD_MATCHERS = CachedMethodMatchers.of(create()
             .ofSubTypes(Number.class.getName(), Boolean.class.getName(), Character.class.getName()).names("valueOf")
-            .addParametersMatcher(args -> !args.isEmpty()).build();
+            .addParametersMatcher(args -> !args.isEmpty()).build());
 
     public static final boolean isLiteral(Tree arg) {
         if (arg.is(TYPE_CAST)) {
@@ -0,0 +1,74 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.instrumentation;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted around the execution of a check on a node : subscribed node visited or left,
+ * or walk of a sub-tree by an inner visitor of the check.
+ * <p>
+ * Disabled by default : enable {@value #NAME} in the JFR settings (or the recording) to attribute analysis time per
+ * rule in JMC. Its enablement is read once per file by each check : when disabled, nothing is created per node, and a
+ * recording started during the analysis of a file applies from the next file.
+ */
+@Name(CheckExecutionEvent.NAME)
+@Label("Check Execution")
+@Category({"creedengo", "Java"})
+@Description("Execution of a creedengo check on a node of the syntax tree")
+@Enabled(false)
+@StackTrace(false)
+public final class CheckExecutionEvent extends Event {
+
+    public static final String NAME = "org.greencodeinitiative.creedengo.CheckExecution";
+
+    public static final String VISIT_NODE = "visitNode";
+    public static final String LEAVE_NODE = "leaveNode";
+    public static final String WALK = "walk";
+
+    @Label("Rule Key")
+    String ruleKey;
+
+    @Label("File Path")
+    String filePath;
+
+    @Label("Node Kind")
+    String nodeKind;
+
+    @Label("Phase")
+    @Description("visitNode, leaveNode or walk (of a sub-tree by an inner visitor)")
+    String phase;
+
+    @Label("Visitor")
+    @Description("Inner visitor walking the sub-tree")
+    String visitor;
+
+    public void set(String ruleKey, String filePath, String nodeKind, String phase, String visitor) {
+        this.ruleKey = ruleKey;
+        this.filePath = filePath;
+        this.nodeKind = nodeKind;
+        this.phase = phase;
+        this.visitor = visitor;
+    }
+}
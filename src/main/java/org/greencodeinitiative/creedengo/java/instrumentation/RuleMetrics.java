@@ -0,0 +1,192 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForNull;
+
+/**
+ * Execution metrics of each rule during an analysis : number of nodes visited, number of issues raised, time spent
+ * (wall-clock nanoseconds) and bytes allocated by the thread while visiting nodes.
+ * <p>
+ * Metrics are only collected when the {@link #PROPERTY} scanner property is set to {@code true} : the
+ * {@link org.greencodeinitiative.creedengo.java.JavaCheckRegistrar} then starts the collection, and
+ * {@link RuleMetricsPostJob} writes the summary at the end of the analysis. Otherwise, {@link #current()} returns
+ * {@code null} and checks only pay for this read.
+ */
+public final class RuleMetrics {
+
+    public static final String PROPERTY = "creedengo.java.ruleMetrics";
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private static volatile RuleMetrics current;
+
+    private final Map<String, Counters> countersByRule = new ConcurrentHashMap<>();
+    private final long startNanos = System.nanoTime();
+
+    private RuleMetrics() {
+    }
+
+    /**
+     * Start collecting metrics (forgetting the ones of a previous analysis)
+     */
+    public static RuleMetrics start() {
+        RuleMetrics metrics = new RuleMetrics();
+        current = metrics;
+        return metrics;
+    }
+
+    /**
+     * Stop collecting metrics
+     *
+     * @return metrics collected since {@link #start()}, {@code null} if not started
+     */
+    @CheckForNull
+    public static RuleMetrics stop() {
+        RuleMetrics metrics = current;
+        current = null;
+        return metrics;
+    }
+
+    /**
+     * @return metrics being collected, {@code null} if disabled
+     */
+    @CheckForNull
+    public static RuleMetrics current() {
+        return current;
+    }
+
+    /**
+     * @return bytes allocated so far by the current thread, 0 if the JVM does not measure it
+     */
+    public static long allocatedBytes() {
+        return THREAD_MX_BEAN == null ? 0 : THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public Counters counters(String ruleKey) {
+        return countersByRule.computeIfAbsent(ruleKey, Counters::new);
+    }
+
+    /**
+     * @return counters of all the rules, most expensive rules first
+     */
+    public List<Counters> allCounters() {
+        List<Counters> all = new ArrayList<>(countersByRule.values());
+        all.sort(Comparator.comparingLong(Counters::nanos).reversed().thenComparing(Counters::ruleKey));
+        return all;
+    }
+
+    /**
+     * JSON summary of the metrics :
+     * <pre>
+     * {
+     *   "analysisNanos": 123456789,
+     *   "rules": [
+     *     {"rule": "GCI72", "nodesVisited": 1234, "issues": 2, "nanos": 456789, "allocatedBytes": 98765},
+     *     ...
+     *   ]
+     * }
+     * </pre>
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder("{\n")
+                .append("  \"analysisNanos\": ").append(System.nanoTime() - startNanos).append(",\n")
+                .append("  \"rules\": [");
+        List<Counters> all = allCounters();
+        for (int i = 0; i < all.size(); i++) {
+            Counters counters = all.get(i);
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"rule\": \"").append(counters.ruleKey())
+                    .append("\", \"nodesVisited\": ").append(counters.nodesVisited())
+                    .append(", \"issues\": ").append(counters.issues())
+                    .append(", \"nanos\": ").append(counters.nanos())
+                    .append(", \"allocatedBytes\": ").append(counters.allocatedBytes())
+                    .append('}');
+        }
+        return json.append(all.isEmpty() ? "]\n}\n" : "\n  ]\n}\n").toString();
+    }
+
+    @CheckForNull
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Metrics of one rule, updated concurrently by all the analysis threads
+     */
+    public static final class Counters {
+
+        private final String ruleKey;
+        private final LongAdder nodesVisited = new LongAdder();
+        private final LongAdder issues = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private Counters(String ruleKey) {
+            this.ruleKey = ruleKey;
+        }
+
+        public void nodeVisited() {
+            nodesVisited.increment();
+        }
+
+        public void spent(long durationNanos, long bytes) {
+            nanos.add(durationNanos);
+            allocatedBytes.add(bytes);
+        }
+
+        public void issueRaised() {
+            issues.increment();
+        }
+
+        public String ruleKey() {
+            return ruleKey;
+        }
+
+        public long nodesVisited() {
+            return nodesVisited.sum();
+        }
+
+        public long issues() {
+            return issues.sum();
+        }
+
+        public long nanos() {
+            return nanos.sum();
+        }
+
+        public long allocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+}
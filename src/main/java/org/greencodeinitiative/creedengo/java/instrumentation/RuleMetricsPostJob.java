@@ -0,0 +1,68 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.instrumentation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.postjob.PostJob;
+import org.sonar.api.batch.postjob.PostJobContext;
+import org.sonar.api.batch.postjob.PostJobDescriptor;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Write the {@link RuleMetrics} collected during the analysis in a JSON file of the scanner working directory
+ * (next to the scanner report).
+ */
+public class RuleMetricsPostJob implements PostJob {
+
+    public static final String REPORT_FILE = "creedengo-rule-metrics.json";
+
+    private static final Logger LOGGER = Loggers.get(RuleMetricsPostJob.class);
+
+    private final FileSystem fileSystem;
+
+    public RuleMetricsPostJob(FileSystem fileSystem) {
+        this.fileSystem = fileSystem;
+    }
+
+    @Override
+    public void describe(PostJobDescriptor descriptor) {
+        descriptor.name("creedengo rule metrics").requireProperties(RuleMetrics.PROPERTY);
+    }
+
+    @Override
+    public void execute(PostJobContext context) {
+        RuleMetrics metrics = RuleMetrics.stop();
+        if (metrics == null) {
+            return;
+        }
+        Path report = fileSystem.workDir().toPath().resolve(REPORT_FILE);
+        try {
+            Files.writeString(report, metrics.toJson(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write " + report, e);
+        }
+        LOGGER.info("creedengo rule metrics written in {}", report);
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.greencodeinitiative.creedengo.java.checks.ProjectIssue;
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.check.Rule;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.ModuleScannerContext;
+import org.sonar.plugins.java.api.caching.CacheContext;
+import org.sonar.plugins.java.api.internal.EndOfAnalysis;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Run a set of checks on already parsed files, without any SonarQube analysis.
+ * <p>
+ * As the sonar-java "VisitorsBridge", the tree of each file is walked only once and each node is dispatched to all
+ * the checks subscribing to its kind. Checks having an end of analysis step are called by {@link #endOfAnalysis()} once
+ * all the files are scanned.
+ * <p>
+ * Runners analyzing the files of a same project in parallel are given the same project : the checks keeping a
+ * project-wide state share it, and their issues on the files are resolved once by {@link #projectIssues}.
+ */
+public class ChecksRunner {
+
+    /**
+     * Path of the issues raised on the project, by the end of analysis step of the checks
+     */
+    public static final Path PROJECT = Path.of("");
+
+    private final List<SubscriptionVisitor> checks;
+    private final Map<Tree.Kind, List<SubscriptionVisitor>> checksByKind = new EnumMap<>(Tree.Kind.class);
+    private final Map<JavaCheck, String> ruleKeys = new IdentityHashMap<>();
+    private final InputComponent project;
+
+    /**
+     * Runner analyzing the files of its own project
+     */
+    public ChecksRunner(Collection<? extends JavaCheck> checks) {
+        this(checks, newProject());
+    }
+
+    /**
+     * @param project project of the analyzed files, given by {@link #newProject()}
+     */
+    public ChecksRunner(Collection<? extends JavaCheck> checks, InputComponent project) {
+        this.project = project;
+        this.checks = new ArrayList<>(checks.size());
+        for (JavaCheck check : checks) {
+            SubscriptionVisitor visitor = (SubscriptionVisitor) check;
+            this.checks.add(visitor);
+            ruleKeys.put(check, check.getClass().getAnnotation(Rule.class).key());
+            for (Tree.Kind kind : visitor.nodesToVisit()) {
+                checksByKind.computeIfAbsent(kind, k -> new ArrayList<>()).add(visitor);
+            }
+        }
+    }
+
+    /**
+     * Project of the files analyzed by one or several runners
+     */
+    public static InputComponent newProject() {
+        return new OfflineProject();
+    }
+
+    /**
+     * Create a new instance of each check class (as done by SonarQube at the beginning of an analysis)
+     */
+    public static List<JavaCheck> instantiate(Collection<Class<? extends JavaCheck>> checkClasses) {
+        List<JavaCheck> instances = new ArrayList<>(checkClasses.size());
+        for (Class<? extends JavaCheck> checkClass : checkClasses) {
+            try {
+                instances.add(checkClass.getDeclaredConstructor().newInstance());
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+                throw new IllegalStateException("Unable to instantiate " + checkClass, e);
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Run all the checks on a file
+     *
+     * @return issues raised on this file
+     */
+    public List<ReportedIssue> scan(ParsedJavaFile file) {
+        IssueCollectorContext context = new IssueCollectorContext(file);
+        for (SubscriptionVisitor check : checks) {
+            check.setContext(context);
+        }
+        visit(file.tree());
+        for (SubscriptionVisitor check : checks) {
+            check.leaveFile(context);
+        }
+        return context.issues;
+    }
+
+    /**
+     * Call the end of analysis step of the checks having one, once all the files are scanned
+     *
+     * @return issues raised on the project, with the path {@link #PROJECT}
+     */
+    public List<ReportedIssue> endOfAnalysis() {
+        ProjectIssueCollectorContext context = new ProjectIssueCollectorContext();
+        for (SubscriptionVisitor check : checks) {
+            if (check instanceof EndOfAnalysis) {
+                ((EndOfAnalysis) check).endOfAnalysis(context);
+            }
+        }
+        return context.issues;
+    }
+
+    /**
+     * Issues on the files of a project raised by the checks keeping a project-wide state, once all the files of the
+     * project are scanned by its runners
+     *
+     * @return issues sorted by file and line
+     */
+    public static List<ReportedIssue> projectIssues(InputComponent project) {
+        List<ReportedIssue> issues = new ArrayList<>();
+        for (ProjectIssue issue : ProjectIssue.collect(project)) {
+            ProjectIssue.Location location = issue.location();
+            issues.add(new ReportedIssue(issue.ruleKey(), location.file().path(), location.line(), location.message()));
+        }
+        issues.sort(Comparator.comparing(ReportedIssue::file).thenComparingInt(ReportedIssue::line));
+        return issues;
+    }
+
+    private void visit(Tree tree) {
+        List<SubscriptionVisitor> subscribers = checksByKind.get(tree.kind());
+        if (subscribers != null) {
+            for (SubscriptionVisitor check : subscribers) {
+                check.visitNode(tree);
+            }
+        }
+        JavaTree javaTree = (JavaTree) tree;
+        if (!javaTree.isLeaf()) {
+            for (Tree child : javaTree.getChildren()) {
+                if (child != null) {
+                    visit(child);
+                }
+            }
+        }
+        if (subscribers != null) {
+            for (SubscriptionVisitor check : subscribers) {
+                check.leaveNode(tree);
+            }
+        }
+    }
+
+    private class IssueCollectorContext implements JavaFileScannerContext {
+
+        private final ParsedJavaFile file;
+        private final InputFile inputFile;
+        private final List<ReportedIssue> issues = new ArrayList<>();
+
+        IssueCollectorContext(ParsedJavaFile file) {
+            this.file = file;
+            this.inputFile = new OfflineInputFile(file.path());
+        }
+
+        private void addIssue(JavaCheck check, int line, String message) {
+            issues.add(new ReportedIssue(ruleKeys.get(check), file.path(), line, message));
+        }
+
+        private int lineOf(Tree tree) {
+            SyntaxToken token = tree.firstToken();
+            return token == null ? 0 : token.range().start().line();
+        }
+
+        @Override
+        public CompilationUnitTree getTree() {
+            return file.tree();
+        }
+
+        @Override
+        public Object getSemanticModel() {
+            return null;
+        }
+
+        @Override
+        public boolean fileParsed() {
+            return true;
+        }
+
+        @Override
+        public List<Tree> getComplexityNodes(Tree tree) {
+            // complexity is not computed by this runner
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void reportIssue(JavaCheck javaCheck, Tree tree, String message) {
+            addIssue(javaCheck, lineOf(tree), message);
+        }
+
+        @Override
+        public void reportIssue(JavaCheck javaCheck, Tree tree, String message, List<Location> flow, Integer cost) {
+            addIssue(javaCheck, lineOf(tree), message);
+        }
+
+        @Override
+        public void reportIssueWithFlow(JavaCheck javaCheck, Tree tree, String message, Iterable<List<Location>> flows, Integer cost) {
+            addIssue(javaCheck, lineOf(tree), message);
+        }
+
+        @Override
+        public void reportIssue(JavaCheck javaCheck, Tree startTree, Tree endTree, String message) {
+            addIssue(javaCheck, lineOf(startTree), message);
+        }
+
+        @Override
+        public void reportIssue(JavaCheck javaCheck, Tree startTree, Tree endTree, String message, List<Location> flow, Integer cost) {
+            addIssue(javaCheck, lineOf(startTree), message);
+        }
+
+        @Override
+        public List<String> getFileLines() {
+            return file.content().lines().collect(Collectors.toList());
+        }
+
+        @Override
+        public String getFileContent() {
+            return file.content();
+        }
+
+        @Override
+        public void addIssueOnFile(JavaCheck javaCheck, String message) {
+            addIssue(javaCheck, 0, message);
+        }
+
+        @Override
+        public void addIssue(int line, JavaCheck javaCheck, String message) {
+            addIssue(javaCheck, line, message);
+        }
+
+        @Override
+        public void addIssue(int line, JavaCheck javaCheck, String message, Integer cost) {
+            addIssue(javaCheck, line, message);
+        }
+
+        @Override
+        public InputFile getInputFile() {
+            return inputFile;
+        }
+
+        @Override
+        public void addIssueOnProject(JavaCheck javaCheck, String message) {
+            addIssue(javaCheck, 0, message);
+        }
+
+        @Override
+        public InputComponent getProject() {
+            return project;
+        }
+
+        @Override
+        public File getWorkingDirectory() {
+            return null;
+        }
+
+        @Override
+        public JavaVersion getJavaVersion() {
+            return ParsedJavaFile.JAVA_VERSION;
+        }
+
+        @Override
+        public boolean inAndroidContext() {
+            return false;
+        }
+
+        @Override
+        public CacheContext getCacheContext() {
+            return null;
+        }
+
+        @Override
+        public File getRootProjectWorkingDirectory() {
+            return null;
+        }
+
+        @Override
+        public String getModuleKey() {
+            return "";
+        }
+    }
+
+    private class ProjectIssueCollectorContext implements ModuleScannerContext {
+
+        private final List<ReportedIssue> issues = new ArrayList<>();
+
+        @Override
+        public void addIssueOnProject(JavaCheck javaCheck, String message) {
+            issues.add(new ReportedIssue(ruleKeys.get(javaCheck), PROJECT, 0, message));
+        }
+
+        @Override
+        public InputComponent getProject() {
+            return project;
+        }
+
+        @Override
+        public File getWorkingDirectory() {
+            return null;
+        }
+
+        @Override
+        public JavaVersion getJavaVersion() {
+            return ParsedJavaFile.JAVA_VERSION;
+        }
+
+        @Override
+        public boolean inAndroidContext() {
+            return false;
+        }
+
+        @Override
+        public CacheContext getCacheContext() {
+            return null;
+        }
+
+        @Override
+        public File getRootProjectWorkingDirectory() {
+            return null;
+        }
+
+        @Override
+        public String getModuleKey() {
+            return "";
+        }
+    }
+
+    private static final class OfflineProject implements InputComponent {
+
+        @Override
+        public String key() {
+            return "project";
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Command line entry point running the creedengo rules on source files without any SonarQube server, for instance as
+ * a pre-commit gate or to profile the rules locally :
+ * <pre>
+ * java -cp creedengo-java-plugin.jar:sonar-java-plugin.jar:sonar-plugin-api.jar \
+ *     org.greencodeinitiative.creedengo.java.offline.CreedengoCli [options] &lt;source directory or file&gt;...
+ * </pre>
+ * Issues are printed as {@code file:line: [rule] message}, followed by a summary of the analysis (files, issues,
+ * time), or streamed as newline delimited JSON or SARIF (see {@link IssuesReport}). See {@link #USAGE} for the
+ * options.
+ */
+public class CreedengoCli {
+
+    static final String USAGE = "Usage: CreedengoCli [options] <source directory or file>...\n"
+            + "Options:\n"
+            + "  -cp, --classpath <path>   classpath of the analyzed sources (jars or directories separated by '"
+            + File.pathSeparator + "', 'dir/*' for all the jars of a directory)\n"
+            + "  -r, --rules <keys>        comma separated keys of the rules to run (default: all the rules)\n"
+            + "  -j, --threads <count>     number of files analyzed in parallel (default: number of processors)\n"
+            + "  -o, --output <file>       write the report into this file instead of the standard output\n"
+            + "  -f, --format <format>     format of the report: text (default, with the summary), ndjson or sarif"
+            + " (summary on the standard error)\n"
+            + "  --fail-on-issues          exit with status 1 when at least one issue is raised\n";
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_ISSUES = 1;
+    static final int EXIT_ERROR = 2;
+
+    private final List<Path> sources = new ArrayList<>();
+    private final List<File> classpath = new ArrayList<>();
+    private final Set<String> rules = new HashSet<>();
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private Path output;
+    private String format = IssuesReport.TEXT;
+    private boolean failOnIssues;
+
+    private CreedengoCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * @return exit status of the command
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        CreedengoCli cli = new CreedengoCli();
+        List<Class<? extends JavaCheck>> checkClasses;
+        List<Path> files;
+        try {
+            cli.parseArguments(args);
+            checkClasses = cli.selectedChecks();
+            files = cli.sourceFiles();
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.print(USAGE);
+            return EXIT_ERROR;
+        }
+
+        Writer writer;
+        try {
+            writer = cli.output == null
+                    ? new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))
+                    : Files.newBufferedWriter(cli.output, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            err.println("Unable to write " + cli.output + ": " + e);
+            return EXIT_ERROR;
+        }
+        List<String> ruleKeys = checkClasses.stream().map(CreedengoCli::ruleKey).collect(Collectors.toList());
+        IssuesReport report = IssuesReport.create(cli.format, writer, ruleKeys);
+        OfflineAnalysis.Summary summary;
+        try {
+            report.start();
+            summary = new OfflineAnalysis(checkClasses, cli.classpath, cli.threads).analyze(files, new OfflineAnalysis.Listener() {
+                @Override
+                public void fileAnalyzed(Path file, List<ReportedIssue> issues) {
+                    report.fileAnalyzed(file, issues);
+                }
+
+                @Override
+                public void fileFailed(Path file, RuntimeException error) {
+                    err.println("Unable to analyze " + file + ": " + error);
+                    report.fileFailed(file, error);
+                }
+            });
+            report.end(summary);
+            String summaryLine = summary(summary, cli.threads, report.duplicates());
+            if (IssuesReport.TEXT.equals(cli.format)) {
+                writer.write(summaryLine + System.lineSeparator());
+            } else {
+                // keep the report a valid JSON document
+                err.println(summaryLine);
+            }
+            if (cli.output == null) {
+                writer.flush();
+            } else {
+                writer.close();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            err.println("Unable to write the report: " + e);
+            return EXIT_ERROR;
+        }
+        return cli.failOnIssues && summary.issues() > 0 ? EXIT_ISSUES : EXIT_OK;
+    }
+
+    static String summary(OfflineAnalysis.Summary summary, int threads, long duplicates) {
+        double seconds = summary.wallNanos() / 1e9;
+        return String.format(Locale.ROOT,
+                "Analyzed %d files (%d failed) in %.3f s with %d threads: %d issues (%d duplicates), %.1f files/s"
+                        + " (parsing %.3f s, checks %.3f s, cumulated over the threads)",
+                summary.files(), summary.failedFiles(), seconds, threads, summary.issues() - duplicates, duplicates,
+                summary.files() / seconds, summary.parseNanos() / 1e9, summary.checksNanos() / 1e9);
+    }
+
+    private void parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-cp":
+                case "--classpath":
+                    classpath.addAll(classpath(value(args, ++i, arg)));
+                    break;
+                case "-r":
+                case "--rules":
+                    Arrays.stream(value(args, ++i, arg).split(",")).map(String::trim).forEach(rules::add);
+                    break;
+                case "-j":
+                case "--threads":
+                    threads = threads(value(args, ++i, arg));
+                    break;
+                case "-o":
+                case "--output":
+                    output = Path.of(value(args, ++i, arg));
+                    break;
+                case "-f":
+                case "--format":
+                    format = format(value(args, ++i, arg));
+                    break;
+                case "--fail-on-issues":
+                    failOnIssues = true;
+                    break;
+                default:
+                    if (arg.startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    sources.add(Path.of(arg));
+            }
+        }
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No source directory or file");
+        }
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value of option " + option);
+        }
+        return args[index];
+    }
+
+    private static String format(String value) {
+        if (!IssuesReport.FORMATS.contains(value)) {
+            throw new IllegalArgumentException("Unknown report format: " + value);
+        }
+        return value;
+    }
+
+    private static int threads(String value) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid number of threads: " + value);
+    }
+
+    static List<File> classpath(String value) {
+        List<File> entries = new ArrayList<>();
+        for (String entry : value.split(File.pathSeparator)) {
+            if (entry.endsWith("*")) {
+                File[] jars = new File(entry.substring(0, entry.length() - 1)).listFiles((dir, name) -> name.endsWith(".jar"));
+                if (jars != null) {
+                    Arrays.sort(jars);
+                    entries.addAll(Arrays.asList(jars));
+                }
+            } else if (!entry.isEmpty()) {
+                entries.add(new File(entry));
+            }
+        }
+        return entries;
+    }
+
+    private List<Class<? extends JavaCheck>> selectedChecks() {
+        List<Class<? extends JavaCheck>> checkClasses = JavaCheckRegistrar.checkClasses();
+        if (rules.isEmpty()) {
+            return checkClasses;
+        }
+        List<Class<? extends JavaCheck>> selected = checkClasses.stream()
+                .filter(checkClass -> rules.contains(ruleKey(checkClass)))
+                .collect(Collectors.toList());
+        if (selected.size() < rules.size()) {
+            Set<String> unknown = new HashSet<>(rules);
+            checkClasses.forEach(checkClass -> unknown.remove(ruleKey(checkClass)));
+            throw new IllegalArgumentException("Unknown rules: " + unknown);
+        }
+        return selected;
+    }
+
+    private static String ruleKey(Class<? extends JavaCheck> checkClass) {
+        return checkClass.getAnnotation(Rule.class).key();
+    }
+
+    private List<Path> sourceFiles() {
+        List<Path> files = new ArrayList<>();
+        for (Path source : sources) {
+            if (Files.isDirectory(source)) {
+                try (Stream<Path> walk = Files.walk(source)) {
+                    walk.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                            .sorted()
+                            .forEach(files::add);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to list " + source, e);
+                }
+            } else if (Files.isRegularFile(source)) {
+                files.add(source);
+            } else {
+                throw new IllegalArgumentException("No such source directory or file: " + source);
+            }
+        }
+        return files;
+    }
+}
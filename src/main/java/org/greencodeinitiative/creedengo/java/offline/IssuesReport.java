@@ -0,0 +1,161 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Report of the issues of an {@link OfflineAnalysis}, written as the files are analyzed instead of keeping all the
+ * issues in memory.
+ * <p>
+ * Issues raised several times by a rule on the same line of a file are written once. Files being given in turn by
+ * the analysis, only the issues of the current file are kept to detect duplicates.
+ */
+public abstract class IssuesReport implements OfflineAnalysis.Listener {
+
+    public static final String TEXT = "text";
+    public static final String NDJSON = "ndjson";
+    public static final String SARIF = "sarif";
+    public static final List<String> FORMATS = List.of(TEXT, NDJSON, SARIF);
+
+    protected final Writer writer;
+    private final Set<String> fileIssues = new HashSet<>();
+    private long writtenIssues;
+    private long duplicates;
+
+    protected IssuesReport(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * @param format    {@value #TEXT}, {@value #NDJSON} or {@value #SARIF}
+     * @param ruleKeys  keys of the rules run by the analysis
+     */
+    public static IssuesReport create(String format, Writer writer, Collection<String> ruleKeys) {
+        switch (format) {
+            case TEXT:
+                return new TextIssuesReport(writer);
+            case NDJSON:
+                return new NdjsonIssuesReport(writer);
+            case SARIF:
+                return new SarifIssuesReport(writer, ruleKeys);
+            default:
+                throw new IllegalArgumentException("Unknown report format: " + format);
+        }
+    }
+
+    /**
+     * Write the beginning of the report, before the results of the first file
+     */
+    public abstract void start() throws IOException;
+
+    /**
+     * Write the end of the report, once all the files are analyzed
+     */
+    public abstract void end(OfflineAnalysis.Summary summary) throws IOException;
+
+    protected abstract void write(ReportedIssue issue) throws IOException;
+
+    protected void writeFailure(Path file, RuntimeException error) throws IOException {
+        // nothing by default
+    }
+
+    @Override
+    public final void fileAnalyzed(Path file, List<ReportedIssue> issues) {
+        fileIssues.clear();
+        try {
+            for (ReportedIssue issue : issues) {
+                if (fileIssues.add(issue.ruleKey() + ':' + issue.line())) {
+                    write(issue);
+                    writtenIssues++;
+                } else {
+                    duplicates++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the issues of " + file, e);
+        }
+    }
+
+    @Override
+    public final void fileFailed(Path file, RuntimeException error) {
+        try {
+            writeFailure(file, error);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the failure of " + file, e);
+        }
+    }
+
+    public long writtenIssues() {
+        return writtenIssues;
+    }
+
+    public long duplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Path of a file with '/' separators, as expected in URIs
+     */
+    static String uri(Path file) {
+        return file.isAbsolute() ? file.toUri().toString() : file.toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * @return the JSON string (with quotes) of a text
+     */
+    static String json(String text) {
+        StringBuilder json = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
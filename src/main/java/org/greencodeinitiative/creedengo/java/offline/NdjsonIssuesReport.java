@@ -0,0 +1,50 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Newline delimited JSON : one JSON object per issue and per line, e.g.
+ * {@code {"rule": "GCI67", "file": "src/Foo.java", "line": 24, "message": "Use ++i instead of i++"}}
+ */
+class NdjsonIssuesReport extends IssuesReport {
+
+    NdjsonIssuesReport(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    public void start() {
+        // no header
+    }
+
+    @Override
+    protected void write(ReportedIssue issue) throws IOException {
+        writer.write("{\"rule\": " + json(issue.ruleKey())
+                + ", \"file\": " + json(uri(issue.file()))
+                + ", \"line\": " + issue.line()
+                + ", \"message\": " + json(issue.message()) + "}\n");
+    }
+
+    @Override
+    public void end(OfflineAnalysis.Summary summary) {
+        // no footer
+    }
+}
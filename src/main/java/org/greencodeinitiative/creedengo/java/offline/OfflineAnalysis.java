@@ -0,0 +1,210 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.sonar.api.batch.fs.InputComponent;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Analysis of source files by a set of checks, fully offline (no SonarQube server nor scanner).
+ * <p>
+ * Files are parsed and analyzed in parallel in a fork-join pool. Each thread of the pool has its own instance of each
+ * check, as checks keep the state of the file being analyzed. Results are given to the {@link Listener} in the order
+ * of the files, from the calling thread, and only a few files ahead of the listener are analyzed : memory does not
+ * depend on the number of files. Once all the files are analyzed, the end of analysis step of the checks of each thread
+ * is called, and the issues raised on the project are given with the path {@link ChecksRunner#PROJECT}. The checks of
+ * all the threads share the project-wide state of the analysis : the issues resolved with it on the files are then
+ * given, file by file, so that they don't depend on the number of threads.
+ */
+public class OfflineAnalysis {
+
+    /**
+     * Number of files which can be analyzed ahead of the listener, per thread
+     */
+    private static final int FILES_AHEAD_PER_THREAD = 4;
+
+    /**
+     * Receives the results of each file, in the order of the analyzed files
+     */
+    public interface Listener {
+
+        void fileAnalyzed(Path file, List<ReportedIssue> issues);
+
+        void fileFailed(Path file, RuntimeException error);
+    }
+
+    private final Collection<Class<? extends JavaCheck>> checkClasses;
+    private final List<File> classpath;
+    private final int parallelism;
+
+    public OfflineAnalysis(Collection<Class<? extends JavaCheck>> checkClasses, List<File> classpath, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        this.checkClasses = checkClasses;
+        this.classpath = classpath;
+        this.parallelism = parallelism;
+    }
+
+    public Summary analyze(List<Path> files, Listener listener) {
+        InputComponent project = ChecksRunner.newProject();
+        Queue<ChecksRunner> allRunners = new ConcurrentLinkedQueue<>();
+        ThreadLocal<ChecksRunner> runners = ThreadLocal.withInitial(() -> {
+            ChecksRunner runner = new ChecksRunner(ChecksRunner.instantiate(checkClasses), project);
+            allRunners.add(runner);
+            return runner;
+        });
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        Summary summary = new Summary();
+        long start = System.nanoTime();
+        try {
+            Deque<ForkJoinTask<FileResult>> pending = new ArrayDeque<>();
+            int maxPending = parallelism * FILES_AHEAD_PER_THREAD;
+            for (Path file : files) {
+                if (pending.size() == maxPending) {
+                    summary.add(pending.removeFirst().join(), listener);
+                }
+                pending.addLast(pool.submit(() -> analyze(file, runners.get())));
+            }
+            while (!pending.isEmpty()) {
+                summary.add(pending.removeFirst().join(), listener);
+            }
+            // all the tasks are done : the checks of the threads are no more used
+            for (ChecksRunner runner : allRunners) {
+                summary.addProjectIssues(runner.endOfAnalysis(), listener);
+            }
+            summary.addFileIssues(ChecksRunner.projectIssues(project), listener);
+        } finally {
+            pool.shutdownNow();
+        }
+        summary.wallNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    private FileResult analyze(Path file, ChecksRunner runner) {
+        long start = System.nanoTime();
+        try {
+            ParsedJavaFile parsedFile = ParsedJavaFile.parse(file, classpath);
+            long parsed = System.nanoTime();
+            List<ReportedIssue> issues = runner.scan(parsedFile);
+            return new FileResult(file, issues, null, parsed - start, System.nanoTime() - parsed);
+        } catch (RuntimeException e) {
+            return new FileResult(file, Collections.emptyList(), e, System.nanoTime() - start, 0);
+        }
+    }
+
+    private static final class FileResult {
+
+        private final Path file;
+        private final List<ReportedIssue> issues;
+        private final RuntimeException error;
+        private final long parseNanos;
+        private final long checksNanos;
+
+        FileResult(Path file, List<ReportedIssue> issues, RuntimeException error, long parseNanos, long checksNanos) {
+            this.file = file;
+            this.issues = issues;
+            this.error = error;
+            this.parseNanos = parseNanos;
+            this.checksNanos = checksNanos;
+        }
+    }
+
+    /**
+     * Figures of a whole analysis. Parse and checks times are cumulated over all the threads.
+     */
+    public static final class Summary {
+
+        private int files;
+        private int failedFiles;
+        private long issues;
+        private long parseNanos;
+        private long checksNanos;
+        private long wallNanos;
+
+        private void add(FileResult result, Listener listener) {
+            files++;
+            parseNanos += result.parseNanos;
+            checksNanos += result.checksNanos;
+            if (result.error == null) {
+                issues += result.issues.size();
+                listener.fileAnalyzed(result.file, result.issues);
+            } else {
+                failedFiles++;
+                listener.fileFailed(result.file, result.error);
+            }
+        }
+
+        private void addProjectIssues(List<ReportedIssue> projectIssues, Listener listener) {
+            if (!projectIssues.isEmpty()) {
+                issues += projectIssues.size();
+                listener.fileAnalyzed(ChecksRunner.PROJECT, projectIssues);
+            }
+        }
+
+        /**
+         * Issues on files resolved at the end of the analysis, sorted by file
+         */
+        private void addFileIssues(List<ReportedIssue> fileIssues, Listener listener) {
+            int start = 0;
+            for (int i = 1; i <= fileIssues.size(); i++) {
+                if (i == fileIssues.size() || !fileIssues.get(i).file().equals(fileIssues.get(start).file())) {
+                    issues += i - start;
+                    listener.fileAnalyzed(fileIssues.get(start).file(), fileIssues.subList(start, i));
+                    start = i;
+                }
+            }
+        }
+
+        public int files() {
+            return files;
+        }
+
+        public int failedFiles() {
+            return failedFiles;
+        }
+
+        public long issues() {
+            return issues;
+        }
+
+        public long parseNanos() {
+            return parseNanos;
+        }
+
+        public long checksNanos() {
+            return checksNanos;
+        }
+
+        public long wallNanos() {
+            return wallNanos;
+        }
+    }
+}
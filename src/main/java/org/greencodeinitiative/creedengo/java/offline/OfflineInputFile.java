@@ -0,0 +1,159 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextPointer;
+import org.sonar.api.batch.fs.TextRange;
+
+/**
+ * File analyzed by the {@link ChecksRunner}, as given to the checks : its key is its path, as given to the runner.
+ * <p>
+ * The file can be kept by checks until the end of the analysis, so its content is not kept : it is read from the disk
+ * when asked. Text ranges are not supported, issues of the runner being located by their line.
+ */
+final class OfflineInputFile implements InputFile {
+
+    private final Path path;
+
+    OfflineInputFile(Path path) {
+        this.path = path;
+    }
+
+    @Override
+    public String key() {
+        return path.toString();
+    }
+
+    @Override
+    public boolean isFile() {
+        return true;
+    }
+
+    @Override
+    public String relativePath() {
+        return path.toString();
+    }
+
+    @Override
+    public String absolutePath() {
+        return path.toAbsolutePath().toString();
+    }
+
+    @Override
+    public File file() {
+        return path.toFile();
+    }
+
+    /**
+     * @return the path given to the runner, possibly relative
+     */
+    @Override
+    public Path path() {
+        return path;
+    }
+
+    @Override
+    public URI uri() {
+        return path.toUri();
+    }
+
+    @Override
+    public String filename() {
+        return path.getFileName().toString();
+    }
+
+    @Override
+    public String language() {
+        return "java";
+    }
+
+    @Override
+    public Type type() {
+        return Type.MAIN;
+    }
+
+    @Override
+    public InputStream inputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public String contents() throws IOException {
+        return Files.readString(path, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Status status() {
+        return Status.ADDED;
+    }
+
+    @Override
+    public int lines() {
+        try {
+            return (int) contents().lines().count();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + path, e);
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return lines() == 0;
+    }
+
+    @Override
+    public TextPointer newPointer(int line, int lineOffset) {
+        throw new UnsupportedOperationException("Text pointers are not supported by the offline runner");
+    }
+
+    @Override
+    public TextRange newRange(TextPointer start, TextPointer end) {
+        throw new UnsupportedOperationException("Text ranges are not supported by the offline runner");
+    }
+
+    @Override
+    public TextRange newRange(int startLine, int startLineOffset, int endLine, int endLineOffset) {
+        throw new UnsupportedOperationException("Text ranges are not supported by the offline runner");
+    }
+
+    @Override
+    public TextRange selectLine(int line) {
+        throw new UnsupportedOperationException("Text ranges are not supported by the offline runner");
+    }
+
+    @Override
+    public Charset charset() {
+        return StandardCharsets.UTF_8;
+    }
+
+    @Override
+    public String toString() {
+        return path.toString();
+    }
+}
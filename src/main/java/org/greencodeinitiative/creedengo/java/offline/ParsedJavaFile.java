@@ -0,0 +1,101 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.sonar.java.model.JParser;
+import org.sonar.java.model.JParserConfig;
+import org.sonar.java.model.JavaVersionImpl;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Java source file parsed once (with semantic) outside of any SonarQube analysis, so that checks can be run on it
+ * as many times as needed (benchmarks, stress tests, command line).
+ */
+public class ParsedJavaFile {
+
+    public static final JavaVersion JAVA_VERSION = new JavaVersionImpl(JavaVersionImpl.MAX_SUPPORTED);
+
+    private final Path path;
+    private final String content;
+    private final CompilationUnitTree tree;
+
+    private ParsedJavaFile(Path path, String content, CompilationUnitTree tree) {
+        this.path = path;
+        this.content = content;
+        this.tree = tree;
+    }
+
+    public static ParsedJavaFile parse(Path path, List<File> classpath) {
+        try {
+            return parse(path, Files.readString(path, StandardCharsets.UTF_8), classpath);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read " + path, e);
+        }
+    }
+
+    /**
+     * Parse a source code which is not read from the disk (generated code)
+     */
+    public static ParsedJavaFile parse(Path path, String content, List<File> classpath) {
+        JParserConfig config = JParserConfig.Mode.FILE_BY_FILE.create(JAVA_VERSION, classpath);
+        CompilationUnitTree tree = JParser.parse(config.astParser(), JAVA_VERSION.effectiveJavaVersionAsString(),
+                path.getFileName().toString(), content);
+        return new ParsedJavaFile(path, content, tree);
+    }
+
+    /**
+     * Parse all the ".java" files of a directory (recursively)
+     */
+    public static List<ParsedJavaFile> parseDirectory(Path directory, List<File> classpath) {
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(directory)) {
+            sources = files.filter(file -> file.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list " + directory, e);
+        }
+        List<ParsedJavaFile> parsedFiles = new ArrayList<>(sources.size());
+        for (Path source : sources) {
+            parsedFiles.add(parse(source, classpath));
+        }
+        return parsedFiles;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public String content() {
+        return content;
+    }
+
+    public CompilationUnitTree tree() {
+        return tree;
+    }
+}
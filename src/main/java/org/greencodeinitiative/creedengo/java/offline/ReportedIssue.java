@@ -0,0 +1,80 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Issue raised by a check when it is run by {@link ChecksRunner}
+ */
+public final class ReportedIssue {
+
+    private final String ruleKey;
+    private final Path file;
+    private final int line;
+    private final String message;
+
+    public ReportedIssue(String ruleKey, Path file, int line, String message) {
+        this.ruleKey = ruleKey;
+        this.file = file;
+        this.line = line;
+        this.message = message;
+    }
+
+    public String ruleKey() {
+        return ruleKey;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int line() {
+        return line;
+    }
+
+    public String message() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReportedIssue)) {
+            return false;
+        }
+        ReportedIssue that = (ReportedIssue) o;
+        return line == that.line
+                && ruleKey.equals(that.ruleKey)
+                && file.equals(that.file)
+                && message.equals(that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ruleKey, file, line, message);
+    }
+
+    @Override
+    public String toString() {
+        return ruleKey + " " + file + ":" + line + " " + message;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * SARIF 2.1.0 log with a single run : results are written as the files are analyzed, files which could not be
+ * analyzed are reported as notifications of the invocation at the end of the log.
+ */
+class SarifIssuesReport extends IssuesReport {
+
+    static final String TOOL_NAME = "creedengo-java";
+    static final String TOOL_URI = "https://github.com/green-code-initiative/creedengo-java";
+
+    private final Collection<String> ruleKeys;
+    private final List<String> failures = new ArrayList<>();
+    private boolean firstResult = true;
+
+    SarifIssuesReport(Writer writer, Collection<String> ruleKeys) {
+        super(writer);
+        this.ruleKeys = ruleKeys;
+    }
+
+    @Override
+    public void start() throws IOException {
+        writer.write("{\n"
+                + "  \"$schema\": \"https://json.schemastore.org/sarif-2.1.0.json\",\n"
+                + "  \"version\": \"2.1.0\",\n"
+                + "  \"runs\": [\n"
+                + "    {\n"
+                + "      \"tool\": {\n"
+                + "        \"driver\": {\n"
+                + "          \"name\": \"" + TOOL_NAME + "\",\n"
+                + "          \"informationUri\": \"" + TOOL_URI + "\",\n"
+                + "          \"rules\": [");
+        boolean first = true;
+        for (String ruleKey : ruleKeys) {
+            writer.write((first ? "\n" : ",\n") + "            {\"id\": " + json(ruleKey) + "}");
+            first = false;
+        }
+        writer.write((first ? "]\n" : "\n          ]\n")
+                + "        }\n"
+                + "      },\n"
+                + "      \"results\": [");
+    }
+
+    @Override
+    protected void write(ReportedIssue issue) throws IOException {
+        writer.write((firstResult ? "\n" : ",\n")
+                + "        {\"ruleId\": " + json(issue.ruleKey())
+                + ", \"level\": \"warning\""
+                + ", \"message\": {\"text\": " + json(issue.message()) + "}"
+                + ", \"locations\": [" + location(issue.file(), issue.line()) + "]}");
+        firstResult = false;
+    }
+
+    @Override
+    protected void writeFailure(Path file, RuntimeException error) {
+        failures.add("{\"level\": \"error\""
+                + ", \"message\": {\"text\": " + json("Unable to analyze file: " + error) + "}"
+                + ", \"locations\": [" + location(file, 0) + "]}");
+    }
+
+    @Override
+    public void end(OfflineAnalysis.Summary summary) throws IOException {
+        writer.write((firstResult ? "],\n" : "\n      ],\n")
+                + "      \"invocations\": [\n"
+                + "        {\n"
+                + "          \"executionSuccessful\": " + failures.isEmpty() + ",\n"
+                + "          \"toolExecutionNotifications\": [");
+        for (int i = 0; i < failures.size(); i++) {
+            writer.write((i == 0 ? "\n" : ",\n") + "            " + failures.get(i));
+        }
+        writer.write((failures.isEmpty() ? "],\n" : "\n          ],\n")
+                + "          \"properties\": {"
+                + "\"files\": " + summary.files()
+                + ", \"failedFiles\": " + summary.failedFiles()
+                + ", \"issues\": " + writtenIssues()
+                + ", \"duplicates\": " + duplicates()
+                + ", \"wallNanos\": " + summary.wallNanos()
+                + ", \"parseNanos\": " + summary.parseNanos()
+                + ", \"checksNanos\": " + summary.checksNanos() + "}\n"
+                + "        }\n"
+                + "      ]\n"
+                + "    }\n"
+                + "  ]\n"
+                + "}\n");
+    }
+
+    /**
+     * Location of a whole file when line is 0
+     */
+    private static String location(Path file, int line) {
+        String region = line > 0 ? ", \"region\": {\"startLine\": " + line + "}" : "";
+        return "{\"physicalLocation\": {\"artifactLocation\": {\"uri\": " + json(uri(file)) + "}" + region + "}}";
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodReferenceTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * {@link MethodMatchers} remembering its verdicts, to avoid walking the type hierarchy of the same method again
+ * and again (for each call and each check of a file).
+ * <p>
+ * The verdict of a matcher only depends on the invoked method and on the call site type (type of the receiver, or
+ * owner of the method when there is no receiver) : the symbol and the type, which are the same objects for all the
+ * calls of a file, are the key of the cache. Unknown symbols and types are never cached.
+ * <p>
+ * Verdicts are kept for the file being analyzed by the current thread (files are analyzed one after the other by a
+ * thread, all checks for a file being run on the same thread), from {@link #startFile} to {@link #release}, called by
+ * the {@link org.greencodeinitiative.creedengo.java.checks.CreedengoCheck creedengo checks} : symbols of a file are
+ * not retained once it is analyzed. Verdicts of a file are bounded to {@link #MAX_ENTRIES} (emptied when full), and
+ * computed without cache outside of a file. Verdicts are not shared between files : symbols and types are only the
+ * same objects within the semantic model of a file, and a verdict keyed by a signature would depend on the classpath
+ * of the file (supertypes of the call site type), which may change from one module or SonarLint analysis to another.
+ * Nothing is kept from one analysis to another, so there is no global state to reset.
+ */
+public final class CachedMethodMatchers implements MethodMatchers {
+
+    static final int MAX_ENTRIES = 50_000;
+
+    private static final ThreadLocal<FileVerdicts> CURRENT = new ThreadLocal<>();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private final MethodMatchers delegate;
+
+    private CachedMethodMatchers(MethodMatchers delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Wrap matchers so that their verdicts are cached
+     */
+    public static MethodMatchers of(MethodMatchers matchers) {
+        return matchers instanceof CachedMethodMatchers ? matchers : new CachedMethodMatchers(matchers);
+    }
+
+    /**
+     * Start to cache the verdicts of the calls of a file (kept if already started for this file)
+     */
+    public static void startFile(CompilationUnitTree compilationUnit) {
+        FileVerdicts verdicts = CURRENT.get();
+        if (verdicts == null || verdicts.compilationUnit != compilationUnit) {
+            CURRENT.set(new FileVerdicts(compilationUnit));
+        }
+    }
+
+    /**
+     * Forget the verdicts of a file at the end of its analysis
+     */
+    public static void release(CompilationUnitTree compilationUnit) {
+        FileVerdicts verdicts = CURRENT.get();
+        if (verdicts != null && verdicts.compilationUnit == compilationUnit) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return number of verdicts found in the cache since the plugin is loaded
+     */
+    public static long hits() {
+        return HITS.sum();
+    }
+
+    /**
+     * @return number of verdicts computed (and then cached) since the plugin is loaded
+     */
+    public static long misses() {
+        return MISSES.sum();
+    }
+
+    /**
+     * @return number of verdicts currently cached for the file being analyzed by the current thread
+     */
+    public static int size() {
+        FileVerdicts verdicts = CURRENT.get();
+        return verdicts == null ? 0 : verdicts.verdicts.size();
+    }
+
+    @Override
+    public boolean matches(NewClassTree newClassTree) {
+        return matches(newClassTree.methodSymbol(), null, () -> delegate.matches(newClassTree));
+    }
+
+    @Override
+    public boolean matches(MethodInvocationTree mit) {
+        ExpressionTree methodSelect = mit.methodSelect();
+        IdentifierTree methodName = methodSelect.is(Tree.Kind.IDENTIFIER)
+                ? (IdentifierTree) methodSelect
+                : ((MemberSelectExpressionTree) methodSelect).identifier();
+        return matches(methodName.symbol(), callSiteType(mit), () -> delegate.matches(mit));
+    }
+
+    @Override
+    public boolean matches(MethodTree methodTree) {
+        Symbol.TypeSymbol enclosingClass = methodTree.symbol().enclosingClass();
+        if (enclosingClass == null) {
+            return delegate.matches(methodTree);
+        }
+        return matches(methodTree.symbol(), enclosingClass.type(), () -> delegate.matches(methodTree));
+    }
+
+    @Override
+    public boolean matches(MethodReferenceTree methodReferenceTree) {
+        Tree expression = methodReferenceTree.expression();
+        Type callSiteType = expression instanceof ExpressionTree ? ((ExpressionTree) expression).symbolType() : null;
+        return matches(methodReferenceTree.method().symbol(), callSiteType, () -> delegate.matches(methodReferenceTree));
+    }
+
+    @Override
+    public boolean matches(Symbol symbol) {
+        return matches(symbol, null, () -> delegate.matches(symbol));
+    }
+
+    private boolean matches(Symbol symbol, @Nullable Type callSiteType, Verdict verdict) {
+        FileVerdicts fileVerdicts = CURRENT.get();
+        Key key = fileVerdicts == null ? null : key(symbol, callSiteType);
+        if (key == null) {
+            return verdict.compute();
+        }
+        Map<Key, Boolean> verdicts = fileVerdicts.verdicts;
+        Boolean cached = verdicts.get(key);
+        if (cached != null) {
+            HITS.increment();
+            return cached;
+        }
+        MISSES.increment();
+        boolean matches = verdict.compute();
+        if (verdicts.size() >= MAX_ENTRIES) {
+            verdicts.clear();
+        }
+        verdicts.put(key, matches);
+        return matches;
+    }
+
+    @CheckForNull
+    private Key key(Symbol symbol, @Nullable Type callSiteType) {
+        if (!symbol.isMethodSymbol() || symbol.isUnknown()) {
+            return null;
+        }
+        Type type = callSiteType;
+        if (type == null) {
+            Symbol owner = symbol.owner();
+            type = owner == null ? null : owner.type();
+        }
+        if (type == null || type.isUnknown()) {
+            return null;
+        }
+        return new Key(delegate, symbol, type);
+    }
+
+    /**
+     * Same call site type as the one used by sonar-java matchers
+     */
+    @CheckForNull
+    private static Type callSiteType(MethodInvocationTree mit) {
+        ExpressionTree methodSelect = mit.methodSelect();
+        if (methodSelect.is(Tree.Kind.IDENTIFIER)) {
+            Symbol.TypeSymbol enclosingClass = ((IdentifierTree) methodSelect).symbol().enclosingClass();
+            return enclosingClass == null ? null : enclosingClass.type();
+        }
+        return ((MemberSelectExpressionTree) methodSelect).expression().symbolType();
+    }
+
+    @FunctionalInterface
+    private interface Verdict {
+        boolean compute();
+    }
+
+    private static final class FileVerdicts {
+
+        private final CompilationUnitTree compilationUnit;
+        private final Map<Key, Boolean> verdicts = new HashMap<>();
+
+        private FileVerdicts(CompilationUnitTree compilationUnit) {
+            this.compilationUnit = compilationUnit;
+        }
+    }
+
+    /**
+     * Matchers, method symbol and call site type, compared by identity
+     */
+    private static final class Key {
+
+        private final MethodMatchers matchers;
+        private final Symbol method;
+        private final Type callSiteType;
+
+        private Key(MethodMatchers matchers, Symbol method, Type callSiteType) {
+            this.matchers = matchers;
+            this.method = method;
+            this.callSiteType = callSiteType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return matchers == other.matchers && method == other.method && callSiteType == other.callSiteType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(matchers) + System.identityHashCode(method))
+                    + System.identityHashCode(callSiteType);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ConditionalExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeCastTree;
+import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Expressions giving the same value each time they are evaluated :
+ * - literals, and operators, casts and conditions on constants
+ * - variables holding a constant : local variables never assigned again and final fields initialized with a constant,
+ * and static final fields of an immutable type declared in any class (computed once, when their class is loaded)
+ * - constants and calls (with constant arguments) known by the caller, such as {@code BigDecimal.valueOf(1)}
+ * <p>
+ * Inside a loop, variables declared before the loop and not modified by it give the same value on each iteration too
+ * (see {@link LoopInvariance}). Constant variables and loops are remembered until {@link #clear()}, called at the end
+ * of each file.
+ */
+public final class ConstantPropagation {
+
+    // types whose values can't be modified once a variable is initialized
+    private static final List<String> IMMUTABLE_TYPES = List.of("java.lang.String", "java.lang.Boolean",
+            "java.lang.Byte", "java.lang.Character", "java.lang.Short", "java.lang.Integer", "java.lang.Long",
+            "java.lang.Float", "java.lang.Double", "java.math.BigDecimal", "java.math.BigInteger");
+
+    private final Predicate<ExpressionTree> knownConstant;
+    private final Map<Symbol, Boolean> constantVariables = new HashMap<>();
+    private final Map<Tree, LoopInvariance> loops = new HashMap<>();
+
+    /**
+     * @param knownConstant member selects and method invocations known to give a constant (method invocations only
+     *                      when their arguments are constant)
+     */
+    public ConstantPropagation(Predicate<ExpressionTree> knownConstant) {
+        this.knownConstant = knownConstant;
+    }
+
+    /**
+     * @return true if the expression gives the same value each time it is evaluated
+     */
+    public boolean isConstant(ExpressionTree expression) {
+        return isConstant(expression, null);
+    }
+
+    /**
+     * @return true if the expression gives the same value on each iteration of the loop
+     */
+    public boolean isInvariant(ExpressionTree expression, Tree loop) {
+        return isConstant(expression, loop);
+    }
+
+    public void clear() {
+        constantVariables.clear();
+        loops.clear();
+    }
+
+    private boolean isConstant(ExpressionTree expression, @Nullable Tree loop) {
+        ExpressionTree value = skipParenthesesAndCasts(expression);
+        if (value.is(Tree.Kind.BOOLEAN_LITERAL, Tree.Kind.CHAR_LITERAL, Tree.Kind.INT_LITERAL, Tree.Kind.LONG_LITERAL,
+                Tree.Kind.FLOAT_LITERAL, Tree.Kind.DOUBLE_LITERAL, Tree.Kind.STRING_LITERAL, Tree.Kind.TEXT_BLOCK)) {
+            return true;
+        }
+        if (value.is(Tree.Kind.METHOD_INVOCATION)) {
+            return knownConstant.test(value)
+                    && ((MethodInvocationTree) value).arguments().stream().allMatch(argument -> isConstant(argument, loop));
+        }
+        if (value.is(Tree.Kind.UNARY_MINUS, Tree.Kind.UNARY_PLUS, Tree.Kind.LOGICAL_COMPLEMENT,
+                Tree.Kind.BITWISE_COMPLEMENT)) {
+            return isConstant(((UnaryExpressionTree) value).expression(), loop);
+        }
+        if (value instanceof BinaryExpressionTree) {
+            BinaryExpressionTree binary = (BinaryExpressionTree) value;
+            return isConstant(binary.leftOperand(), loop) && isConstant(binary.rightOperand(), loop);
+        }
+        if (value.is(Tree.Kind.CONDITIONAL_EXPRESSION)) {
+            ConditionalExpressionTree conditional = (ConditionalExpressionTree) value;
+            return isConstant(conditional.condition(), loop) && isConstant(conditional.trueExpression(), loop)
+                    && isConstant(conditional.falseExpression(), loop);
+        }
+        if (value.is(Tree.Kind.MEMBER_SELECT) && knownConstant.test(value)) {
+            return true;
+        }
+        Symbol variable = variable(value);
+        return variable != null
+                && (isConstantVariable(variable) || (loop != null && isInvariantVariable(variable, loop)));
+    }
+
+    private static ExpressionTree skipParenthesesAndCasts(ExpressionTree expression) {
+        ExpressionTree value = expression;
+        while (value.is(Tree.Kind.PARENTHESIZED_EXPRESSION, Tree.Kind.TYPE_CAST)) {
+            value = value.is(Tree.Kind.TYPE_CAST) ? ((TypeCastTree) value).expression()
+                    : ((ParenthesizedTree) value).expression();
+        }
+        return value;
+    }
+
+    /**
+     * Variable read by the expression : {@code name}, {@code this.name}, or a static field {@code Type.NAME}
+     */
+    @CheckForNull
+    private static Symbol variable(ExpressionTree expression) {
+        Symbol variable = LoopInvariance.variable(expression);
+        if (variable == null && expression.is(Tree.Kind.MEMBER_SELECT)) {
+            Symbol member = ((MemberSelectExpressionTree) expression).identifier().symbol();
+            if (member.isVariableSymbol() && member.isStatic()) {
+                variable = member;
+            }
+        }
+        return variable;
+    }
+
+    private boolean isConstantVariable(Symbol variable) {
+        Boolean constant = constantVariables.get(variable);
+        if (constant == null) {
+            // not constant while its initializer is read (variables initialized from each other)
+            constantVariables.put(variable, Boolean.FALSE);
+            constant = computeConstantVariable(variable);
+            constantVariables.put(variable, constant);
+        }
+        return constant;
+    }
+
+    private boolean computeConstantVariable(Symbol variable) {
+        if (variable.isStatic() && variable.isFinal() && isImmutable(variable.type())) {
+            return true;
+        }
+        Tree declaration = variable.declaration();
+        boolean local = variable.owner() != null && variable.owner().isMethodSymbol();
+        if (!(declaration instanceof VariableTree) || !(variable.isFinal() || (local && !isAssigned(variable)))) {
+            return false;
+        }
+        ExpressionTree initializer = ((VariableTree) declaration).initializer();
+        return initializer != null && isConstant(initializer, null);
+    }
+
+    private boolean isInvariantVariable(Symbol variable, Tree loop) {
+        return isImmutable(variable.type()) && !loops.computeIfAbsent(loop, LoopInvariance::of).isVariant(variable);
+    }
+
+    private static boolean isAssigned(Symbol variable) {
+        for (IdentifierTree usage : variable.usages()) {
+            Tree parent = usage.parent();
+            if ((parent instanceof AssignmentExpressionTree && ((AssignmentExpressionTree) parent).variable() == usage)
+                    || parent.is(Tree.Kind.PREFIX_INCREMENT, Tree.Kind.PREFIX_DECREMENT, Tree.Kind.POSTFIX_INCREMENT,
+                    Tree.Kind.POSTFIX_DECREMENT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isImmutable(Type type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        for (String immutableType : IMMUTABLE_TYPES) {
+            if (type.is(immutableType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
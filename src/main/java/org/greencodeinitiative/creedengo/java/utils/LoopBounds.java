@@ -0,0 +1,141 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import javax.annotation.CheckForNull;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.StatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Number of iterations of a loop, when it can be read from its header : size of the array or collection of a
+ * FOR_EACH loop, or bound of the counter of a FOR loop ({@code i < n}, {@code i <= n}, {@code n > i}...).
+ * <p>
+ * The bound is given as source code, to be shown in messages : only simple expressions (literals, variables, fields,
+ * calls without arguments such as {@code list.size()}) are read.
+ */
+public final class LoopBounds {
+
+    private LoopBounds() {
+        // Utility class
+    }
+
+    /**
+     * @return source code of the number of iterations of the loop, or null if unknown
+     */
+    @CheckForNull
+    public static String of(Tree loop) {
+        if (loop.is(Tree.Kind.FOR_EACH_STATEMENT)) {
+            return sizeOf(((ForEachStatement) loop).expression());
+        }
+        if (loop.is(Tree.Kind.FOR_STATEMENT)) {
+            ForStatementTree forStatement = (ForStatementTree) loop;
+            ExpressionTree condition = forStatement.condition();
+            return condition instanceof BinaryExpressionTree
+                    ? counterBound((BinaryExpressionTree) condition, forStatement)
+                    : null;
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private static String sizeOf(ExpressionTree iterable) {
+        String source = source(iterable);
+        if (source == null) {
+            return null;
+        }
+        Type type = iterable.symbolType();
+        if (type.isArray()) {
+            return source + ".length";
+        }
+        return type.isSubtypeOf("java.util.Collection") ? (source + ".size()") : null;
+    }
+
+    @CheckForNull
+    private static String counterBound(BinaryExpressionTree condition, ForStatementTree loop) {
+        ExpressionTree left = condition.leftOperand();
+        ExpressionTree right = condition.rightOperand();
+        switch (condition.kind()) {
+            case LESS_THAN:
+                return isCounter(left, loop) ? source(right) : null;
+            case LESS_THAN_OR_EQUAL_TO:
+                return isCounter(left, loop) ? plusOne(source(right)) : null;
+            case GREATER_THAN:
+                return isCounter(right, loop) ? source(left) : null;
+            case GREATER_THAN_OR_EQUAL_TO:
+                return isCounter(right, loop) ? plusOne(source(left)) : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Counter declared by the loop and starting from 0
+     */
+    private static boolean isCounter(ExpressionTree expression, ForStatementTree loop) {
+        if (!expression.is(Tree.Kind.IDENTIFIER)) {
+            return false;
+        }
+        Symbol symbol = ((IdentifierTree) expression).symbol();
+        for (StatementTree initializer : loop.initializer()) {
+            if (initializer.is(Tree.Kind.VARIABLE) && ((VariableTree) initializer).symbol().equals(symbol)) {
+                ExpressionTree start = ((VariableTree) initializer).initializer();
+                return !symbol.isUnknown() && start != null && start.is(Tree.Kind.INT_LITERAL)
+                        && "0".equals(((LiteralTree) start).value());
+            }
+        }
+        return false;
+    }
+
+    @CheckForNull
+    private static String plusOne(@CheckForNull String bound) {
+        return bound == null ? null : (bound + " + 1");
+    }
+
+    @CheckForNull
+    private static String source(ExpressionTree expression) {
+        switch (expression.kind()) {
+            case INT_LITERAL:
+            case LONG_LITERAL:
+                return ((LiteralTree) expression).value();
+            case IDENTIFIER:
+                return ((IdentifierTree) expression).name();
+            case MEMBER_SELECT:
+                MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) expression;
+                String owner = source(memberSelect.expression());
+                return owner == null ? null : (owner + "." + memberSelect.identifier().name());
+            case METHOD_INVOCATION:
+                MethodInvocationTree invocation = (MethodInvocationTree) expression;
+                String method = invocation.arguments().isEmpty() ? source(invocation.methodSelect()) : null;
+                return method == null ? null : (method + "()");
+            default:
+                return null;
+        }
+    }
+}
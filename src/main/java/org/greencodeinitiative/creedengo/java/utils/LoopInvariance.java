@@ -0,0 +1,250 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.UnaryExpressionTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Variables which may change from one iteration of a loop to another, computed in a single walk of the loop : the
+ * variables declared in the loop (header included), and the ones it modifies by an assignment, an increment, a call of
+ * a method which is not a known read method, or by giving them to a method or a constructor (unless their type is
+ * immutable). Getting an iterator is a change, unless the iterator is only read : the collection of an iterator
+ * variable is modified by the loop if the iterator is used otherwise ({@code it.remove()}...).
+ * <p>
+ * An expression only reading other variables gives the same value on each iteration and can be computed once before
+ * the loop (as far as the methods of the project called by the loop don't modify them).
+ */
+public final class LoopInvariance {
+
+    // methods not modifying their receiver, when called on a collection or a string in the loop
+    private static final Set<String> READ_METHODS = Set.of("charAt", "contains", "containsAll", "containsKey",
+            "containsValue", "equals", "get", "getFirst", "getLast", "getOrDefault", "hashCode", "indexOf", "isEmpty",
+            "lastIndexOf", "length", "peek", "peekFirst", "peekLast", "size", "stream", "subSequence", "substring",
+            "toString");
+
+    // methods giving an iterator able to modify their receiver, and the methods of an iterator only reading it
+    private static final Set<String> ITERATOR_METHODS = Set.of("iterator", "listIterator");
+    private static final Set<String> ITERATOR_READ_METHODS = Set.of("forEachRemaining", "hasNext", "hasPrevious",
+            "next", "nextIndex", "previous", "previousIndex");
+
+    // types whose instances can't be modified by the methods they are given to
+    private static final List<String> IMMUTABLE_TYPES = List.of("java.lang.String", "java.lang.Number",
+            "java.lang.Boolean", "java.lang.Character", "java.lang.Class", "java.lang.Enum", "java.io.File",
+            "java.nio.file.Path", "java.util.regex.Pattern", "java.time.temporal.TemporalAccessor");
+
+    private final Set<Symbol> variants = new HashSet<>();
+
+    private LoopInvariance() {
+    }
+
+    /**
+     * Walk the loop (FOR, FOR_EACH, WHILE or DO statement) to find its variant variables
+     */
+    public static LoopInvariance of(Tree loop) {
+        LoopInvariance invariance = new LoopInvariance();
+        loop.accept(invariance.new VariantsVisitor());
+        return invariance;
+    }
+
+    /**
+     * @return true if the variable is declared or modified by the loop
+     */
+    public boolean isVariant(Symbol variable) {
+        return variants.contains(variable);
+    }
+
+    /**
+     * @return true if the expression reads no variable declared or modified by the loop
+     */
+    public boolean isInvariant(Tree expression) {
+        InvariantVisitor visitor = new InvariantVisitor();
+        expression.accept(visitor);
+        return visitor.invariant;
+    }
+
+    /**
+     * Variable or field read by the expression ({@code name} or {@code this.name})
+     */
+    @CheckForNull
+    public static Symbol variable(ExpressionTree expression) {
+        IdentifierTree identifier;
+        if (expression.is(Tree.Kind.IDENTIFIER)) {
+            identifier = (IdentifierTree) expression;
+        } else if (expression.is(Tree.Kind.MEMBER_SELECT)
+                && ((MemberSelectExpressionTree) expression).expression().is(Tree.Kind.IDENTIFIER)
+                && "this".equals(((IdentifierTree) ((MemberSelectExpressionTree) expression).expression()).name())) {
+            identifier = ((MemberSelectExpressionTree) expression).identifier();
+        } else {
+            return null;
+        }
+        Symbol symbol = identifier.symbol();
+        return symbol.isVariableSymbol() && !symbol.isUnknown() ? symbol : null;
+    }
+
+    private static boolean isImmutable(Type type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        for (String immutableType : IMMUTABLE_TYPES) {
+            if (type.isSubtypeOf(immutableType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private class VariantsVisitor extends BaseTreeVisitor {
+
+        @Override
+        public void visitVariable(VariableTree tree) {
+            variants.add(tree.symbol());
+            super.visitVariable(tree);
+        }
+
+        @Override
+        public void visitAssignmentExpression(AssignmentExpressionTree tree) {
+            addVariable(tree.variable());
+            super.visitAssignmentExpression(tree);
+        }
+
+        @Override
+        public void visitUnaryExpression(UnaryExpressionTree tree) {
+            if (tree.is(Tree.Kind.PREFIX_INCREMENT, Tree.Kind.PREFIX_DECREMENT, Tree.Kind.POSTFIX_INCREMENT,
+                    Tree.Kind.POSTFIX_DECREMENT)) {
+                addVariable(tree.expression());
+            }
+            super.visitUnaryExpression(tree);
+        }
+
+        @Override
+        public void visitMethodInvocation(MethodInvocationTree tree) {
+            ExpressionTree methodSelect = tree.methodSelect();
+            if (methodSelect.is(Tree.Kind.MEMBER_SELECT)) {
+                MemberSelectExpressionTree memberSelect = (MemberSelectExpressionTree) methodSelect;
+                String name = memberSelect.identifier().name();
+                if (ITERATOR_METHODS.contains(name) ? !isReadIterator(tree)
+                        : !READ_METHODS.contains(name) && !isImmutable(memberSelect.expression().symbolType())) {
+                    addVariable(memberSelect.expression());
+                }
+                if (!ITERATOR_READ_METHODS.contains(name)) {
+                    addIteratorSource(memberSelect.expression());
+                }
+            }
+            addArguments(tree.arguments());
+            super.visitMethodInvocation(tree);
+        }
+
+        @Override
+        public void visitNewClass(NewClassTree tree) {
+            addArguments(tree.arguments());
+            super.visitNewClass(tree);
+        }
+
+        private void addArguments(List<ExpressionTree> arguments) {
+            for (ExpressionTree argument : arguments) {
+                if (!isImmutable(argument.symbolType())) {
+                    addVariable(argument);
+                    addIteratorSource(argument);
+                }
+            }
+        }
+
+        /**
+         * Iterator only read where it is got ({@code list.iterator().next()}), or kept in a variable : the calls on
+         * this variable tell whether the collection is modified
+         */
+        private boolean isReadIterator(MethodInvocationTree iteratorCall) {
+            Tree parent = iteratorCall.parent();
+            if (parent != null && parent.is(Tree.Kind.MEMBER_SELECT) && parent.parent() != null
+                    && parent.parent().is(Tree.Kind.METHOD_INVOCATION)) {
+                return ITERATOR_READ_METHODS.contains(((MemberSelectExpressionTree) parent).identifier().name());
+            }
+            return parent != null && parent.is(Tree.Kind.VARIABLE);
+        }
+
+        /**
+         * Collection of an iterator variable ({@code Iterator<String> it = list.iterator()}), modified by the loop
+         * through this iterator
+         */
+        private void addIteratorSource(ExpressionTree iterator) {
+            Symbol symbol = variable(iterator);
+            Tree declaration = symbol == null ? null : symbol.declaration();
+            if (declaration == null || !declaration.is(Tree.Kind.VARIABLE)) {
+                return;
+            }
+            ExpressionTree initializer = ((VariableTree) declaration).initializer();
+            if (initializer != null && initializer.is(Tree.Kind.METHOD_INVOCATION)
+                    && ((MethodInvocationTree) initializer).methodSelect().is(Tree.Kind.MEMBER_SELECT)) {
+                MemberSelectExpressionTree memberSelect =
+                        (MemberSelectExpressionTree) ((MethodInvocationTree) initializer).methodSelect();
+                if (ITERATOR_METHODS.contains(memberSelect.identifier().name())) {
+                    addVariable(memberSelect.expression());
+                }
+            }
+        }
+
+        private void addVariable(ExpressionTree expression) {
+            Symbol symbol = variable(expression);
+            if (symbol != null) {
+                variants.add(symbol);
+            }
+        }
+    }
+
+    private class InvariantVisitor extends BaseTreeVisitor {
+
+        private boolean invariant = true;
+        // variables declared by the expression itself (parameters of its lambdas...)
+        private final Set<Symbol> declared = new HashSet<>();
+
+        @Override
+        protected void scan(@CheckForNull Tree tree) {
+            if (invariant) {
+                super.scan(tree);
+            }
+        }
+
+        @Override
+        public void visitVariable(VariableTree tree) {
+            declared.add(tree.symbol());
+            super.visitVariable(tree);
+        }
+
+        @Override
+        public void visitIdentifier(IdentifierTree tree) {
+            invariant &= declared.contains(tree.symbol()) || !variants.contains(tree.symbol());
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.ListTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+/**
+ * Loop nesting of all the nodes of a file, computed in a single walk of the tree and shared by all the checks
+ * looking for code executed inside loops (FOR, FOR_EACH, WHILE and DO statements).
+ * <p>
+ * A node is "inside" a loop as soon as it is a descendant of the loop statement (loop header included), as the
+ * checks did when they were walking each loop by themselves.
+ * <p>
+ * The index of the file being analyzed is kept by the current thread (files are analyzed one after the other by a
+ * thread, all checks for a file being run on the same thread) : checks using it must call {@link #release} in
+ * their {@code leaveJavaFile} method.
+ */
+public final class LoopNestingIndex {
+
+    private static final ThreadLocal<LoopNestingIndex> CURRENT = new ThreadLocal<>();
+
+    private final CompilationUnitTree compilationUnit;
+
+    // only nodes inside at least one loop are indexed : all the nodes of the same loop body share the same nesting
+    private final Map<Tree, LoopNesting> nestingByTree = new IdentityHashMap<>();
+
+    private LoopNestingIndex(CompilationUnitTree compilationUnit) {
+        this.compilationUnit = compilationUnit;
+        new IndexBuilder().scan(compilationUnit);
+    }
+
+    /**
+     * Get the index of a file (built on first call for this file)
+     */
+    public static LoopNestingIndex of(CompilationUnitTree compilationUnit) {
+        LoopNestingIndex index = CURRENT.get();
+        if (index == null || index.compilationUnit != compilationUnit) {
+            index = new LoopNestingIndex(compilationUnit);
+            CURRENT.set(index);
+        }
+        return index;
+    }
+
+    /**
+     * Release the index of a file at the end of its analysis
+     */
+    public static void release(CompilationUnitTree compilationUnit) {
+        LoopNestingIndex index = CURRENT.get();
+        if (index != null && index.compilationUnit == compilationUnit) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return number of loops enclosing the tree (0 if not inside a loop)
+     */
+    public int depth(Tree tree) {
+        LoopNesting nesting = nestingByTree.get(tree);
+        return nesting == null ? 0 : nesting.depth;
+    }
+
+    public boolean isInLoop(Tree tree) {
+        return nestingByTree.containsKey(tree);
+    }
+
+    /**
+     * @return the outermost loop enclosing the tree, or null if not inside a loop
+     */
+    @CheckForNull
+    public Tree outermostLoop(Tree tree) {
+        LoopNesting nesting = nestingByTree.get(tree);
+        return nesting == null ? null : nesting.outermostLoop;
+    }
+
+    /**
+     * @return the nearest loop enclosing the tree, or null if not inside a loop
+     */
+    @CheckForNull
+    public Tree innermostLoop(Tree tree) {
+        LoopNesting nesting = nestingByTree.get(tree);
+        return nesting == null ? null : nesting.loop;
+    }
+
+    private static final class LoopNesting {
+        private final Tree loop;
+        private final Tree outermostLoop;
+        private final int depth;
+
+        private LoopNesting(Tree loop, @Nullable LoopNesting parent) {
+            this.loop = loop;
+            this.outermostLoop = parent == null ? loop : parent.outermostLoop;
+            this.depth = parent == null ? 1 : parent.depth + 1;
+        }
+    }
+
+    private class IndexBuilder extends BaseTreeVisitor {
+
+        private LoopNesting current;
+
+        @Override
+        protected void scan(@Nullable Tree tree) {
+            if (tree != null && current != null) {
+                nestingByTree.put(tree, current);
+                // elements of a list (arguments of a call...) are visited by the list itself, not scanned
+                if (tree instanceof ListTree) {
+                    for (Tree element : (ListTree<?>) tree) {
+                        nestingByTree.put(element, current);
+                    }
+                }
+            }
+            super.scan(tree);
+        }
+
+        @Override
+        public void visitBinaryExpression(BinaryExpressionTree tree) {
+            // operands are visited by BaseTreeVisitor without being scanned
+            scan(tree.leftOperand());
+            scan(tree.rightOperand());
+        }
+
+        @Override
+        public void visitForStatement(ForStatementTree tree) {
+            LoopNesting parent = current;
+            current = new LoopNesting(tree, parent);
+            super.visitForStatement(tree);
+            current = parent;
+        }
+
+        @Override
+        public void visitForEachStatement(ForEachStatement tree) {
+            LoopNesting parent = current;
+            current = new LoopNesting(tree, parent);
+            super.visitForEachStatement(tree);
+            current = parent;
+        }
+
+        @Override
+        public void visitWhileStatement(WhileStatementTree tree) {
+            LoopNesting parent = current;
+            current = new LoopNesting(tree, parent);
+            super.visitWhileStatement(tree);
+            current = parent;
+        }
+
+        @Override
+        public void visitDoWhileStatement(DoWhileStatementTree tree) {
+            LoopNesting parent = current;
+            current = new LoopNesting(tree, parent);
+            super.visitDoWhileStatement(tree);
+            current = parent;
+        }
+    }
+}
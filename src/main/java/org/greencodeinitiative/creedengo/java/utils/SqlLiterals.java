@@ -0,0 +1,408 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+import com.google.re2j.Pattern;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.ParenthesizedTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * SQL queries of a file, shared by all the checks on SQL requests : constant string expressions (literals, text
+ * blocks, concatenations of literals and of constants, {@code StringBuilder} chains appending them and calling
+ * {@code toString()}) are folded once, and their value is classified once per expression.
+ * <p>
+ * Values not holding any SQL keyword are rejected by a re2j pattern (linear time, without backtracking) before being
+ * classified.
+ * <p>
+ * The queries of the file being analyzed are kept by the current thread, as {@link LoopNestingIndex} : checks using
+ * them must call {@link #release} in their {@code leaveJavaFile} method.
+ */
+public final class SqlLiterals {
+
+    private static final ThreadLocal<SqlLiterals> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern SQL_KEYWORD = Pattern.compile("(?i)\\b(?:select|insert|update|delete|merge)\\b");
+    private static final Pattern SELECT_ALL_COLUMNS = Pattern.compile("(?i)\\bselect\\s*(?:distinct\\s+)?\\*\\s*from\\b");
+
+    private static final List<String> STRING_BUILDER_TYPES = List.of("java.lang.StringBuilder", "java.lang.StringBuffer");
+
+    private final CompilationUnitTree compilationUnit;
+
+    // values of the expressions (empty if not constant) and their queries (empty if not SQL), computed once
+    private final Map<Tree, Optional<String>> values = new IdentityHashMap<>();
+    private final Map<Tree, Optional<SqlQuery>> queries = new IdentityHashMap<>();
+    // constant variables whose initializer is being folded (constants defined from themselves are not constants)
+    private final Set<Symbol> folding = new HashSet<>();
+    private List<SqlQuery> queriesOfFile;
+
+    private SqlLiterals(CompilationUnitTree compilationUnit) {
+        this.compilationUnit = compilationUnit;
+    }
+
+    /**
+     * Get the SQL queries of a file (folded on demand)
+     */
+    public static SqlLiterals of(CompilationUnitTree compilationUnit) {
+        SqlLiterals sqlLiterals = CURRENT.get();
+        if (sqlLiterals == null || sqlLiterals.compilationUnit != compilationUnit) {
+            sqlLiterals = new SqlLiterals(compilationUnit);
+            CURRENT.set(sqlLiterals);
+        }
+        return sqlLiterals;
+    }
+
+    /**
+     * Release the queries of a file at the end of its analysis
+     */
+    public static void release(CompilationUnitTree compilationUnit) {
+        SqlLiterals sqlLiterals = CURRENT.get();
+        if (sqlLiterals != null && sqlLiterals.compilationUnit == compilationUnit) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * SQL queries written in the file : largest constant string expressions holding a literal (a constant read
+     * elsewhere is a query of the file only where it is written)
+     */
+    public List<SqlQuery> queries() {
+        if (queriesOfFile == null) {
+            queriesOfFile = new ArrayList<>();
+            compilationUnit.accept(new QueriesCollector());
+        }
+        return queriesOfFile;
+    }
+
+    /**
+     * @return the SQL query of a string expression, or null if it is not a constant holding a SQL query
+     */
+    @CheckForNull
+    public SqlQuery query(ExpressionTree expression) {
+        Optional<SqlQuery> query = queries.get(expression);
+        if (query == null) {
+            String value = value(expression);
+            query = value == null || !SQL_KEYWORD.matcher(value).find()
+                    ? Optional.empty()
+                    : Optional.of(new SqlQuery(expression, value, SqlKind.of(value)));
+            queries.put(expression, query);
+        }
+        return query.orElse(null);
+    }
+
+    /**
+     * @return the value of a constant string expression, or null if it is not constant
+     */
+    @CheckForNull
+    public String value(ExpressionTree expression) {
+        Optional<String> value = values.get(expression);
+        if (value == null) {
+            value = Optional.ofNullable(fold(expression));
+            values.put(expression, value);
+        }
+        return value.orElse(null);
+    }
+
+    @CheckForNull
+    private String fold(ExpressionTree expression) {
+        switch (expression.kind()) {
+            case STRING_LITERAL:
+                String literal = ((LiteralTree) expression).value();
+                return StringUtils.unescape(literal.substring(1, literal.length() - 1));
+            case TEXT_BLOCK:
+                return textBlock(((LiteralTree) expression).value());
+            case CHAR_LITERAL:
+                String character = ((LiteralTree) expression).value();
+                return character.length() == 3 ? character.substring(1, 2) : null;
+            case INT_LITERAL:
+            case LONG_LITERAL:
+            case BOOLEAN_LITERAL:
+                return ((LiteralTree) expression).value();
+            case PARENTHESIZED_EXPRESSION:
+                return value(((ParenthesizedTree) expression).expression());
+            case PLUS:
+                BinaryExpressionTree plus = (BinaryExpressionTree) expression;
+                String left = value(plus.leftOperand());
+                String right = left == null ? null : value(plus.rightOperand());
+                return right == null ? null : (left + right);
+            case IDENTIFIER:
+                return constant(expression, ((IdentifierTree) expression).symbol());
+            case MEMBER_SELECT:
+                return constant(expression, ((MemberSelectExpressionTree) expression).identifier().symbol());
+            case METHOD_INVOCATION:
+                MethodInvocationTree invocation = (MethodInvocationTree) expression;
+                return isMethod(invocation, "toString", 0)
+                        ? builderValue(((MemberSelectExpressionTree) invocation.methodSelect()).expression())
+                        : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Value of a final variable (or a local variable never assigned again) initialized by a constant, or of a constant
+     * of a library
+     */
+    @CheckForNull
+    private String constant(ExpressionTree expression, Symbol symbol) {
+        if (!symbol.isVariableSymbol() || symbol.isUnknown()) {
+            return null;
+        }
+        VariableTree declaration = ((Symbol.VariableSymbol) symbol).declaration();
+        if (declaration == null) {
+            return expression.asConstant(String.class).orElse(null);
+        }
+        ExpressionTree initializer = declaration.initializer();
+        boolean constantVariable = symbol.isFinal() || (symbol.owner().isMethodSymbol() && !isAssigned(symbol));
+        if (initializer == null || !constantVariable || !folding.add(symbol)) {
+            return null;
+        }
+        try {
+            return value(initializer);
+        } finally {
+            folding.remove(symbol);
+        }
+    }
+
+    private static boolean isAssigned(Symbol symbol) {
+        for (IdentifierTree usage : symbol.usages()) {
+            Tree assigned = usage;
+            while (assigned.parent().is(Tree.Kind.PARENTHESIZED_EXPRESSION)) {
+                assigned = assigned.parent();
+            }
+            if (assigned.parent() instanceof AssignmentExpressionTree
+                    && ((AssignmentExpressionTree) assigned.parent()).variable() == assigned) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Value of a chain of appends of constants on a new StringBuilder (or StringBuffer)
+     */
+    @CheckForNull
+    private String builderValue(ExpressionTree expression) {
+        if (expression.is(Tree.Kind.NEW_CLASS) && isStringBuilder(expression)) {
+            NewClassTree newClass = (NewClassTree) expression;
+            if (newClass.arguments().isEmpty()) {
+                return "";
+            }
+            ExpressionTree argument = newClass.arguments().get(0);
+            // new StringBuilder(capacity) is empty
+            return argument.symbolType().isPrimitive() ? "" : value(argument);
+        }
+        if (expression.is(Tree.Kind.METHOD_INVOCATION) && isStringBuilder(expression)
+                && isMethod((MethodInvocationTree) expression, "append", 1)) {
+            MethodInvocationTree append = (MethodInvocationTree) expression;
+            String builder = builderValue(((MemberSelectExpressionTree) append.methodSelect()).expression());
+            String appended = builder == null ? null : value(append.arguments().get(0));
+            return appended == null ? null : (builder + appended);
+        }
+        return null;
+    }
+
+    private static boolean isStringBuilder(ExpressionTree expression) {
+        return STRING_BUILDER_TYPES.stream().anyMatch(expression.symbolType()::is);
+    }
+
+    private static boolean isMethod(MethodInvocationTree invocation, String name, int arguments) {
+        return invocation.methodSelect().is(Tree.Kind.MEMBER_SELECT)
+                && name.equals(((MemberSelectExpressionTree) invocation.methodSelect()).identifier().name())
+                && invocation.arguments().size() == arguments;
+    }
+
+    /**
+     * Content of a text block, without its incidental indentation
+     */
+    private static String textBlock(String textBlock) {
+        String content = textBlock.substring(textBlock.indexOf('\n') + 1, textBlock.length() - 3);
+        String[] lines = content.split("\n", -1);
+        int indentation = Integer.MAX_VALUE;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            // blank lines don't count, except the closing delimiter line
+            if (!line.isBlank() || i == lines.length - 1) {
+                int spaces = 0;
+                while (spaces < line.length() && Character.isWhitespace(line.charAt(spaces))) {
+                    spaces++;
+                }
+                indentation = Math.min(indentation, spaces);
+            }
+        }
+        StringBuilder value = new StringBuilder(content.length());
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            value.append(line.length() > indentation ? line.substring(indentation).stripTrailing() : "");
+            if (i < lines.length - 1) {
+                value.append('\n');
+            }
+        }
+        return StringUtils.unescape(value.toString());
+    }
+
+    /**
+     * Kind of SQL statement, given by its first keyword
+     */
+    public enum SqlKind {
+        SELECT, INSERT, UPDATE, DELETE, MERGE, OTHER;
+
+        static SqlKind of(String sql) {
+            int start = 0;
+            while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+                start++;
+            }
+            int end = start;
+            while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+                end++;
+            }
+            String keyword = sql.substring(start, end).toUpperCase(Locale.ROOT);
+            // common table expressions are read by a query
+            if ("WITH".equals(keyword)) {
+                return SELECT;
+            }
+            for (SqlKind kind : values()) {
+                if (kind.name().equals(keyword)) {
+                    return kind;
+                }
+            }
+            return OTHER;
+        }
+    }
+
+    /**
+     * SQL query written by a constant string expression
+     */
+    public static final class SqlQuery {
+
+        private final ExpressionTree tree;
+        private final String sql;
+        private final SqlKind kind;
+        private Boolean selectsAllColumns;
+        private List<SqlTokens.Token> tokens;
+
+        private SqlQuery(ExpressionTree tree, String sql, SqlKind kind) {
+            this.tree = tree;
+            this.sql = sql;
+            this.kind = kind;
+        }
+
+        public ExpressionTree tree() {
+            return tree;
+        }
+
+        public String sql() {
+            return sql;
+        }
+
+        public SqlKind kind() {
+            return kind;
+        }
+
+        /**
+         * @return true for a data manipulation query (SELECT, INSERT, UPDATE, DELETE or MERGE)
+         */
+        public boolean isDml() {
+            return kind != SqlKind.OTHER;
+        }
+
+        /**
+         * @return true if the query holds a {@code SELECT * FROM}
+         */
+        public boolean selectsAllColumns() {
+            if (selectsAllColumns == null) {
+                selectsAllColumns = SELECT_ALL_COLUMNS.matcher(sql).find();
+            }
+            return selectsAllColumns;
+        }
+
+        /**
+         * @return the tokens of the query (tokenized on first call)
+         */
+        public List<SqlTokens.Token> tokens() {
+            if (tokens == null) {
+                tokens = SqlTokens.tokenize(sql);
+            }
+            return tokens;
+        }
+    }
+
+    /**
+     * Look for the largest constant string expressions (not going into them), holding a SQL query
+     */
+    private class QueriesCollector extends BaseTreeVisitor {
+
+        @Override
+        public void visitLiteral(LiteralTree tree) {
+            if (tree.is(Tree.Kind.STRING_LITERAL, Tree.Kind.TEXT_BLOCK)) {
+                collect(tree);
+            }
+        }
+
+        @Override
+        public void visitBinaryExpression(BinaryExpressionTree tree) {
+            if (!tree.is(Tree.Kind.PLUS) || !collect(tree)) {
+                super.visitBinaryExpression(tree);
+            }
+        }
+
+        @Override
+        public void visitMethodInvocation(MethodInvocationTree tree) {
+            if (!collect(tree)) {
+                super.visitMethodInvocation(tree);
+            }
+        }
+
+        /**
+         * @return true if the expression is a constant (holding a SQL query or not)
+         */
+        private boolean collect(ExpressionTree expression) {
+            if (value(expression) == null) {
+                return false;
+            }
+            SqlQuery query = query(expression);
+            if (query != null) {
+                queriesOfFile.add(query);
+            }
+            return true;
+        }
+    }
+}
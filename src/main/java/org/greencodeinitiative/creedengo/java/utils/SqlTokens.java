@@ -0,0 +1,162 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Tokens of a SQL query (or of a JPQL / HQL query) : words (keywords and names, qualified names included), string
+ * literals (without their quotes), numbers, parameters ({@code ?}, {@code ?1}, {@code :name}) and symbols, comments
+ * being skipped.
+ */
+public final class SqlTokens {
+
+    private static final List<String> TWO_CHARACTERS_SYMBOLS = List.of("<=", ">=", "<>", "!=", "||");
+
+    private SqlTokens() {
+        // Utility class
+    }
+
+    public enum Type {
+        WORD, STRING, NUMBER, PARAMETER, SYMBOL
+    }
+
+    /**
+     * Token of a query
+     */
+    public static final class Token {
+
+        private final Type type;
+        private final String text;
+
+        Token(Type type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        public Type type() {
+            return type;
+        }
+
+        /**
+         * @return the text of the token (a word in upper case, a string literal without its quotes)
+         */
+        public String text() {
+            return text;
+        }
+
+        /**
+         * @return true if the token is the given keyword (in upper case) or symbol
+         */
+        public boolean is(String keywordOrSymbol) {
+            return (type == Type.WORD || type == Type.SYMBOL) && text.equals(keywordOrSymbol);
+        }
+
+        @Override
+        public String toString() {
+            return type == Type.STRING ? ("'" + text + "'") : text;
+        }
+    }
+
+    public static List<Token> tokenize(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int length = sql.length();
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            int end;
+            if (Character.isWhitespace(c)) {
+                end = i + 1;
+            } else if (sql.startsWith("--", i)) {
+                end = sql.indexOf('\n', i);
+                end = end < 0 ? length : end;
+            } else if (sql.startsWith("/*", i)) {
+                end = sql.indexOf("*/", i + 2);
+                end = end < 0 ? length : end + 2;
+            } else if (c == '\'') {
+                end = endOfString(sql, i);
+                tokens.add(new Token(Type.STRING, sql.substring(i + 1, Math.max(i + 1, end - 1)).replace("''", "'")));
+            } else if (c == '"' || c == '`' || c == '[') {
+                // quoted name
+                int closing = sql.indexOf(c == '[' ? ']' : c, i + 1);
+                end = closing < 0 ? length : closing + 1;
+                tokens.add(new Token(Type.WORD, sql.substring(i + 1, Math.max(i + 1, end - 1))));
+            } else if (Character.isLetter(c) || c == '_') {
+                end = endOfWord(sql, i);
+                tokens.add(new Token(Type.WORD, sql.substring(i, end).toUpperCase(Locale.ROOT)));
+            } else if (Character.isDigit(c)) {
+                end = i + 1;
+                while (end < length && (Character.isDigit(sql.charAt(end)) || sql.charAt(end) == '.')) {
+                    end++;
+                }
+                tokens.add(new Token(Type.NUMBER, sql.substring(i, end)));
+            } else if ((c == '?' || c == ':') && i + 1 < length
+                    && (Character.isLetterOrDigit(sql.charAt(i + 1)) || sql.charAt(i + 1) == '_')) {
+                end = endOfWord(sql, i + 1);
+                tokens.add(new Token(Type.PARAMETER, sql.substring(i, end)));
+            } else if (c == '?') {
+                end = i + 1;
+                tokens.add(new Token(Type.PARAMETER, "?"));
+            } else if (i + 1 < length && TWO_CHARACTERS_SYMBOLS.contains(sql.substring(i, i + 2))) {
+                end = i + 2;
+                tokens.add(new Token(Type.SYMBOL, sql.substring(i, end)));
+            } else {
+                end = i + 1;
+                tokens.add(new Token(Type.SYMBOL, String.valueOf(c)));
+            }
+            i = end;
+        }
+        return tokens;
+    }
+
+    private static int endOfString(String sql, int start) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == '\'') {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    /**
+     * End of a word, with the names qualifying it ({@code table.column})
+     */
+    private static int endOfWord(String sql, int start) {
+        int i = start;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '_' || c == '$') {
+                i++;
+            } else if (c == '.' && i + 1 < sql.length()
+                    && (Character.isLetter(sql.charAt(i + 1)) || sql.charAt(i + 1) == '_')) {
+                i += 2;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+}
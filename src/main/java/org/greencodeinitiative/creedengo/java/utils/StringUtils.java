@@ -35,4 +35,22 @@ public final class StringUtils {
         return string != null && !string.isEmpty();
     }
 
+    /**
+     * Value of the content of a string literal (between its quotes), with its escape sequences replaced
+     */
+    public static String unescape(String literal) {
+        StringBuilder value = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c == '\\' && i + 1 < literal.length()) {
+                char escaped = literal.charAt(++i);
+                int escape = "btnfrs".indexOf(escaped);
+                value.append(escape < 0 ? escaped : "\b\t\n\f\r ".charAt(escape));
+            } else {
+                value.append(c);
+            }
+        }
+        return value.toString();
+    }
+
 }
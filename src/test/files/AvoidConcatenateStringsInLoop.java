@@ -0,0 +1,91 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.Iterator;
+import java.util.List;
+
+class AvoidConcatenateStringsInLoop {
+
+    private String field = "";
+
+    String concatenateArray(String[] strings) {
+        String result = "";
+        for (String string : strings) {
+            result += string; // Noncompliant {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop, with a capacity computed from strings.length}}
+        }
+        return result;
+    }
+
+    String concatenateCollection(List<String> lines) {
+        String csv = "";
+        for (String line : lines) {
+            csv = csv + line + "\n"; // Noncompliant {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop, with a capacity computed from lines.size()}}
+        }
+        return csv;
+    }
+
+    String prependWithCounter(List<String> lines, int count) {
+        String log = "";
+        for (int i = 0; i < count; i++) {
+            log = (lines.get(i) + ";") + log; // Noncompliant {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop, with a capacity computed from count}}
+        }
+        for (int i = 0; i <= lines.size(); ++i) {
+            log += i; // Noncompliant {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop, with a capacity computed from lines.size() + 1}}
+        }
+        return log;
+    }
+
+    String concatenateWithUnknownBound(Iterator<String> iterator) {
+        String result = "";
+        while (iterator.hasNext()) {
+            result += iterator.next(); // Noncompliant [[sc=13;ec=38]] {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop}}
+        }
+        do {
+            result = result.concat("-") + "+"; // Compliant: concat is not an operand of the concatenation
+        } while (result.length() < 10);
+        return result;
+    }
+
+    String concatenateInNestedLoop(String[][] table) {
+        String result = "";
+        for (String[] row : table) {
+            String line = "";
+            for (String cell : row) {
+                line += cell; // Noncompliant {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop, with a capacity computed from row.length}}
+            }
+            result += line; // Noncompliant {{Avoid concatenating Strings in a loop : append to a StringBuilder created before the loop, with a capacity computed from table.length}}
+        }
+        return result;
+    }
+
+    void compliant(List<String> lines) {
+        for (String line : lines) {
+            String message = "line: ";
+            message += line; // Compliant: new string on each iteration
+            field += line; // Compliant: not a local variable
+            int length = 0;
+            length += line.length();
+            String copy = line;
+            copy = copy;
+            System.out.println(message + copy + length);
+        }
+        String outOfLoop = "";
+        outOfLoop += "another";
+    }
+}
@@ -42,6 +42,23 @@ class AvoidFullSQLRequestCheck {
         String requestNonCompiliant_nSpace = "SELECT   *FROM table"; // Noncompliant {{Don't use the query SELECT * FROM}}
     }
 
+    private static final String SELECT_ALL = "SELECT * ";
+    private static final String FROM_PERSONS = "FROM persons";
+
+    public void constantSQLrequest(String table) {
+        dummyCall(SELECT_ALL + FROM_PERSONS); // Noncompliant {{Don't use the query SELECT * FROM}}
+        dummyCall("SELECT * " + "FROM " + FROM_PERSONS.substring(5)); // Noncompliant {{Don't use the query SELECT * FROM}}
+        dummyCall("SELECT * FROM " + table); // Noncompliant {{Don't use the query SELECT * FROM}}
+        dummyCall(new StringBuilder("select ").append('*').append(" from ").append(FROM_PERSONS).toString()); // Noncompliant {{Don't use the query SELECT * FROM}}
+        dummyCall(new StringBuilder("select ").append(table).append(" from persons").toString());
+        dummyCall("""
+                SELECT *
+                  FROM persons
+                """); // Noncompliant@-3 {{Don't use the query SELECT * FROM}}
+        String request = SELECT_ALL;
+        dummyCall(request + "FROM persons"); // Noncompliant {{Don't use the query SELECT * FROM}}
+    }
+
     private void dummyCall(String request) {
 
     }
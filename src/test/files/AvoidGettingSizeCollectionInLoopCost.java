@@ -0,0 +1,71 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedTransferQueue;
+
+class AvoidGettingSizeCollectionInLoopCost {
+
+    private final List<String> items = new ArrayList<>();
+
+    void linearSize(ConcurrentLinkedQueue<String> queue, ConcurrentLinkedDeque<String> deque, LinkedTransferQueue<String> transfer) {
+        while (queue.size() > 10) { // Noncompliant [[effortToFix=2]] {{Avoid getting the size of the collection in the loop : ConcurrentLinkedQueue.size() counts all its elements}}
+            queue.poll();
+        }
+        for (int i = 0; i < deque.size(); i++) { // Noncompliant {{Avoid getting the size of the collection in the loop : ConcurrentLinkedDeque.size() counts all its elements}}
+            System.out.println(i);
+        }
+        while (transfer.size() != 0) { // Noncompliant {{Avoid getting the size of the collection in the loop : LinkedTransferQueue.size() counts all its elements}}
+            transfer.poll();
+        }
+    }
+
+    void invariantReceiver(String text, List<String> lines) {
+        for (int i = 0; i < text.length(); i++) { // Noncompliant [[effortToFix=1]] {{Avoid getting the size of the collection in the loop}}
+            System.out.println(text.charAt(i) + text.substring(i));
+        }
+        for (int i = 0; i < this.items.size(); i++) { // Noncompliant {{Avoid getting the size of the collection in the loop}}
+            System.out.println(items.get(i) + lines.contains(items.get(i)));
+        }
+    }
+
+    void modifiedReceiver(List<String> lines, String text) {
+        List<String> result = new ArrayList<>();
+        while (result.size() < 10) { // Compliant: modified in the loop
+            result.add("line");
+        }
+        for (int i = 0; i < lines.size(); i++) { // Compliant: may be modified by the called method
+            Collections.sort(lines);
+        }
+        for (int i = 0; i < text.length(); i++) { // Compliant: reassigned in the loop
+            text = text.trim();
+        }
+        for (int i = 0; i < items().size(); i++) { // Compliant: not a variable
+            System.out.println(i);
+        }
+    }
+
+    List<String> items() {
+        return items;
+    }
+}
@@ -19,6 +19,7 @@ package org.greencodeinitiative.creedengo.java.checks;
 
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 class AvoidGettingSizeCollectionInWhileLoopBad {
@@ -37,4 +38,11 @@ class AvoidGettingSizeCollectionInWhileLoopBad {
             i++;
         }
     }
+
+    public void readThroughIterator(List<String> lines) {
+        Iterator<String> it = lines.iterator();
+        while (it.hasNext() && lines.size() > 1) { // Noncompliant {{Avoid getting the size of the collection in the loop}}
+            System.out.println(it.next());
+        }
+    }
 }
@@ -19,7 +19,9 @@ package org.greencodeinitiative.creedengo.java.checks;
 
 import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 
 class AvoidGettingSizeCollectionInWhileLoopGood {
     AvoidGettingSizeCollectionInWhileLoopGood(AvoidGettingSizeCollectionInWhileLoopGood obj) {
@@ -39,4 +41,27 @@ class AvoidGettingSizeCollectionInWhileLoopGood {
             i++;
         }
     }
+
+    public void removeThroughIterator(List<String> lines) {
+        Iterator<String> it = lines.iterator();
+        while (it.hasNext() && lines.size() > 1) { // Compliant : the size changes with it.remove()
+            it.next();
+            it.remove();
+        }
+    }
+
+    public void addThroughListIterator(List<String> lines) {
+        ListIterator<String> it = lines.listIterator();
+        while (lines.size() < 10) { // Compliant : the size changes with it.add()
+            it.add("");
+        }
+    }
+
+    public void removeThroughIteratorOfTheLoop(List<String> lines) {
+        while (lines.size() > 1) { // Compliant : the size changes through the iterator
+            Iterator<String> it = lines.iterator();
+            it.next();
+            it.remove();
+        }
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+class AvoidMultipleIfElseStatementDispatch {
+
+    enum Color { RED, GREEN, BLUE }
+
+    private static final int FOURTH = 4;
+
+    public int denseInt(int kind) {
+        if (kind == 1 || kind == 2) {
+            return 10;
+        } else if (kind == 3) { // Noncompliant {{Use a switch statement instead of multiple if-else if possible : 4 comparisons of kind replaced by one indexed jump (tableswitch)}}
+            return 30;
+        } else if (kind == FOURTH) { // Noncompliant {{Use a switch statement instead of multiple if-else if possible : 4 comparisons of kind replaced by one indexed jump (tableswitch)}}
+            return 40;
+        }
+        return 0;
+    }
+
+    public int sparseInt(int code) {
+        if (code == 100) {
+            return 1;
+        } else if (code == 2000) {
+            return 2;
+        } else if (code == 30000) { // Noncompliant {{Use a switch statement instead of multiple if-else if possible : 3 comparisons of code replaced by a binary search of 2 comparisons (lookupswitch)}}
+            return 3;
+        }
+        return 0;
+    }
+
+    public int twoSparseInts(int code) {
+        if (code == 100) {
+            return 1;
+        } else if (code == 2000) {
+            return 2;
+        } else { // Compliant : a lookupswitch would make as many comparisons
+            return 3;
+        }
+    }
+
+    public int chars(char letter) {
+        if (letter == 'a') {
+            return 1;
+        } else if (letter == 'b') {
+            return 2;
+        } else if (letter == 'c') { // Noncompliant {{Use a switch statement instead of multiple if-else if possible : 3 comparisons of letter replaced by one indexed jump (tableswitch)}}
+            return 3;
+        }
+        return 0;
+    }
+
+    public int strings(String command) {
+        if (command.equals("start")) {
+            return 1;
+        } else if ("stop".equals(command)) {
+            return 2;
+        } else if (command.equals("pause")) { // Noncompliant {{Use a switch statement instead of multiple if-else if possible : 3 comparisons of command replaced by a lookup of its hash code and one equals (string switch)}}
+            return 3;
+        }
+        return 0;
+    }
+
+    public int twoStrings(String command) {
+        if (command.equals("start")) {
+            return 1;
+        } else if (command.equals("stop")) {
+            return 2;
+        } else { // Compliant : a string switch would make as many comparisons
+            return 3;
+        }
+    }
+
+    public int enums(Color color) {
+        if (color == Color.RED) {
+            return 1;
+        } else if (color == Color.GREEN) {
+            return 2;
+        } else { // Noncompliant {{Use a switch statement instead of multiple if-else if possible : 2 comparisons of color replaced by one indexed jump on its ordinal (tableswitch)}}
+            return 3;
+        }
+    }
+
+    public int longs(long id) {
+        if (id == 1L) {
+            return 1;
+        } else if (id == 2L) {
+            return 2;
+        } else if (id == 3L) { // Compliant : no switch on a long
+            return 3;
+        }
+        return 0;
+    }
+}
@@ -270,5 +270,37 @@ class AvoidMultipleIfElseStatementCheckNoIssue {
         return nb1;
     }
 
+    // COMPLIANT
+    // USE CASE : compliant use case to check if following is OK :
+    // - usage of the same variable in nested IF statements of several sibling IF statements
+    // - child levels are cleaned before each sibling IF statement, even if parent levels use no variable
+    public int shouldBeCompliantBecauseVariableUsedOnceInChildLevelsOfSiblingIfStatements(boolean b1, boolean b2)
+    {
+        int nb1 = 0;
+
+        if (b1) {
+            if (b2) {
+                if (nb1 == 1) {
+                    nb1 = 2;
+                }
+            }
+        }
+        if (b1) {
+            if (b2) {
+                if (nb1 == 2) {
+                    nb1 = 3;
+                }
+            }
+        }
+        if (b1) {
+            if (b2) {
+                if (nb1 == 3) {
+                    nb1 = 4;
+                }
+            }
+        }
+
+        return nb1;
+    }
 
 }
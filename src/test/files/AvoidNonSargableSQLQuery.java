@@ -0,0 +1,110 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcOperations;
+
+class AvoidNonSargableSQLQuery {
+
+    private static final String PERSON_COLUMNS = "SELECT id, name FROM person ";
+
+    private Connection connection;
+    private EntityManager entityManager;
+    private Session session;
+    private JdbcOperations jdbcTemplate;
+
+    void leadingWildcard(String name) throws SQLException {
+        connection.prepareStatement("SELECT id FROM person WHERE name LIKE '%son'"); // Noncompliant {{Avoid LIKE with a leading wildcard : no index on the column can be used, all the rows are read}}
+        connection.prepareStatement(PERSON_COLUMNS + "WHERE name like '_ohn'"); // Noncompliant {{Avoid LIKE with a leading wildcard : no index on the column can be used, all the rows are read}}
+        entityManager.createQuery("SELECT p FROM Person p WHERE p.name LIKE CONCAT('%', :name)"); // Noncompliant {{Avoid LIKE with a leading wildcard : no index on the column can be used, all the rows are read}}
+        jdbcTemplate.queryForList("SELECT id FROM person WHERE name LIKE '%' || ?", name); // Noncompliant {{Avoid LIKE with a leading wildcard : no index on the column can be used, all the rows are read}}
+
+        connection.prepareStatement("SELECT id FROM person WHERE name LIKE 'john%'");
+        connection.prepareStatement("SELECT id FROM person WHERE name LIKE ?");
+        connection.prepareStatement("SELECT id FROM person WHERE name = '%son'");
+        connection.prepareStatement("SELECT id FROM person WHERE name LIKE " + name);
+    }
+
+    void functionOnColumn(Statement statement) throws SQLException {
+        connection.prepareStatement("SELECT id FROM person WHERE UPPER(email) = ?"); // Noncompliant {{Avoid applying UPPER() to a column in a WHERE clause : no index on the column can be used}}
+        statement.executeQuery("SELECT id FROM person WHERE YEAR(birth_date) >= 1970 AND name = 'john'"); // Noncompliant {{Avoid applying YEAR() to a column in a WHERE clause : no index on the column can be used}}
+        entityManager.createQuery("SELECT p FROM Person p WHERE lower(p.email) = :email"); // Noncompliant {{Avoid applying LOWER() to a column in a WHERE clause : no index on the column can be used}}
+        session.createNativeQuery("DELETE FROM person WHERE TRIM(name) NOT IN (SELECT name FROM customer)"); // Noncompliant {{Avoid applying TRIM() to a column in a WHERE clause : no index on the column can be used}}
+
+        connection.prepareStatement("SELECT UPPER(email) FROM person WHERE email = UPPER(?)");
+        connection.prepareStatement("SELECT id FROM person WHERE email = ? GROUP BY id HAVING COUNT(id) > 1");
+        connection.prepareStatement("SELECT id FROM person WHERE id IN (SELECT MAX(id) FROM person GROUP BY name)");
+        connection.prepareStatement("SELECT id FROM person WHERE ABS(?) > 1");
+    }
+
+    void orAcrossColumns() throws SQLException {
+        connection.prepareStatement("SELECT id FROM person WHERE email = ? OR phone = ?"); // Noncompliant {{Avoid OR between conditions on different columns (EMAIL, PHONE) : no single index can be used, split the query with UNION}}
+        connection.prepareStatement("SELECT id FROM person WHERE active = 1 AND (p.email = ? OR p.phone IS NULL)"); // Noncompliant {{Avoid OR between conditions on different columns (P.EMAIL, P.PHONE) : no single index can be used, split the query with UNION}}
+
+        connection.prepareStatement("SELECT id FROM person WHERE email = ? OR email = ?");
+        connection.prepareStatement("SELECT id FROM person WHERE active = 1 AND (email = ? OR email IS NULL)");
+        connection.prepareStatement("SELECT id, CASE WHEN a = 1 OR b = 1 THEN 1 END FROM person WHERE id = ?");
+        connection.prepareStatement("SELECT id FROM person WHERE email = ? UNION SELECT id FROM person WHERE phone = ?");
+    }
+
+    void orderByRandom() throws SQLException {
+        connection.prepareStatement("SELECT id FROM person ORDER BY RAND() LIMIT 1"); // Noncompliant {{Avoid ORDER BY RAND() : all the rows are read and sorted to pick some at random}}
+        jdbcTemplate.queryForList("SELECT id FROM person WHERE active = 1 ORDER BY name, random()"); // Noncompliant {{Avoid ORDER BY RANDOM() : all the rows are read and sorted to pick some at random}}
+
+        connection.prepareStatement("SELECT id, RAND() FROM person ORDER BY name");
+    }
+
+    boolean countForExistence(String email) throws SQLException {
+        if (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person WHERE email = ?", Integer.class, email) > 0) { // Noncompliant {{Avoid counting all the matching rows to test whether one exists : use EXISTS, or read a single row}}
+            return true;
+        }
+        return ((Long) entityManager.createQuery("SELECT COUNT(p) FROM Person p WHERE p.email = :email") // Noncompliant {{Avoid counting all the matching rows to test whether one exists : use EXISTS, or read a single row}}
+                .setParameter("email", email)
+                .getSingleResult()) != 0;
+    }
+
+    long count(String email) {
+        int persons = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person WHERE email = ?", Integer.class, email);
+        boolean many = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person", Integer.class) > 10;
+        boolean duplicated = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM person GROUP BY email", Integer.class) > 1;
+        return (Long) entityManager.createQuery("SELECT COUNT(p) FROM Person p").getSingleResult() + persons;
+    }
+
+    void severalPatterns() throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("SELECT id FROM person WHERE UPPER(name) LIKE '%SON' ORDER BY NEWID()");
+        // Noncompliant@-1 {{Avoid applying UPPER() to a column in a WHERE clause : no index on the column can be used}}
+        // Noncompliant@-2 {{Avoid LIKE with a leading wildcard : no index on the column can be used, all the rows are read}}
+        // Noncompliant@-3 {{Avoid ORDER BY NEWID() : all the rows are read and sorted to pick some at random}}
+        statement.close();
+    }
+
+    void notSql(List<String> names) {
+        names.add("SELECT id FROM person WHERE name LIKE '%son'");
+        jdbcTemplate.update("UPDATE person SET name = ? WHERE id = ?", "john", 1);
+    }
+}
@@ -17,12 +17,55 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
+import java.util.List;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 public class AvoidRegexPatternNotStatic {
 
+    private static final String SEPARATOR = "\\s*,\\s*";
+
     public boolean foo() {
         final Pattern pattern = Pattern.compile("foo"); // Noncompliant {{Avoid using Pattern.compile() in a non-static context.}}
         return pattern.matcher("foo").find();
     }
+
+    public int implicitCompilation(List<String> lines, String dynamicRegex) {
+        int count = 0;
+        for (String line : lines) {
+            if (line.matches("[a-z]+")) { // Noncompliant {{Avoid using String.matches() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+                count++;
+            }
+            String clean = line.replaceAll("\\s+", " "); // Noncompliant {{Avoid using String.replaceAll() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+            clean = clean.replaceFirst("^#", ""); // Noncompliant {{Avoid using String.replaceFirst() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+            count += clean.split(SEPARATOR).length; // Noncompliant {{Avoid using String.split() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+            count += clean.split("\\d", 2).length; // Noncompliant {{Avoid using String.split() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+            count += clean.split("|").length; // Noncompliant {{Avoid using String.split() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+            count += clean.split(", ").length; // Noncompliant {{Avoid using String.split() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+            if (Pattern.matches("[0-9]+", line)) { // Noncompliant {{Avoid using Pattern.matches() with a constant regex in a non-static context : compile it once in a static Pattern.}}
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int compliantImplicitCompilation(List<String> lines, String dynamicRegex) {
+        int count = 0;
+        for (String line : lines) {
+            count += line.split(",").length; // Compliant: single character fast path
+            count += line.split("\\.").length; // Compliant: escaped character fast path
+            count += line.split(dynamicRegex).length; // Compliant: regex not constant
+            count += line.replace("a", "b").length(); // Compliant: not a regex
+        }
+        return count;
+    }
+
+    public Supplier<Pattern> local() {
+        return new Supplier<Pattern>() {
+            @Override
+            public Pattern get() {
+                return Pattern.compile("bar"); // Noncompliant {{Avoid using Pattern.compile() in a non-static context.}}
+            }
+        };
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcOperations;
+
+class AvoidSQLRequestInLoopBatch {
+
+    private static final String UPDATE_NAME = "UPDATE person SET name = ? WHERE id = ?";
+
+    private Connection connection;
+    private JdbcOperations jdbcTemplate;
+    private PreparedStatement insert;
+
+    void preparedBeforeLoop(List<String> names) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("INSERT INTO person(name) VALUES (?)");
+        for (String name : names) {
+            statement.setString(1, name);
+            statement.executeUpdate(); // Noncompliant {{Avoid executing a prepared statement in loop : call addBatch() on each iteration, and executeBatch() every few hundred rows and after the loop}}
+        }
+    }
+
+    void fieldPreparedBeforeLoop(long[] ids) throws SQLException {
+        int i = 0;
+        while (i < ids.length) {
+            this.insert.setLong(1, ids[i++]);
+            this.insert.executeLargeUpdate(); // Noncompliant {{Avoid executing a prepared statement in loop : call addBatch() on each iteration, and executeBatch() every few hundred rows and after the loop}}
+        }
+    }
+
+    int countReadOnEachIteration(List<String> names) throws SQLException {
+        int count = 0;
+        PreparedStatement statement = connection.prepareStatement("DELETE FROM person WHERE name = ?");
+        for (String name : names) {
+            statement.setString(1, name);
+            count += statement.executeUpdate(); // Noncompliant {{Avoid executing a prepared statement in loop : call addBatch() on each iteration, and executeBatch() every few hundred rows and after the loop}}
+        }
+        return count;
+    }
+
+    void preparedInLoop(List<String> names) throws SQLException {
+        for (String name : names) {
+            PreparedStatement statement = connection.prepareStatement("INSERT INTO person(name) VALUES (?)"); // Noncompliant {{Avoid SQL request in loop}}
+            statement.setString(1, name);
+            statement.executeUpdate(); // Noncompliant {{Avoid SQL request in loop}}
+        }
+        PreparedStatement statement = null;
+        for (String name : names) {
+            statement = connection.prepareStatement("INSERT INTO person(name) VALUES ('" + name + "')"); // Noncompliant {{Avoid SQL request in loop}}
+            statement.executeUpdate(); // Noncompliant {{Avoid SQL request in loop}}
+        }
+    }
+
+    void batched(List<String> names) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement("INSERT INTO person(name) VALUES (?)");
+        for (String name : names) {
+            statement.setString(1, name);
+            statement.addBatch();
+        }
+        statement.executeBatch();
+    }
+
+    void jdbcOperations(List<String> names, int id) {
+        String delete = "DELETE FROM person WHERE name = ?";
+        for (String name : names) {
+            jdbcTemplate.update(UPDATE_NAME, name, id); // Noncompliant {{Avoid calling update() in loop : collect the arguments of each iteration and call batchUpdate() once}}
+            jdbcTemplate.update(delete, name); // Noncompliant {{Avoid calling update() in loop : collect the arguments of each iteration and call batchUpdate() once}}
+            jdbcTemplate.update("DELETE FROM person WHERE name = '" + name + "'"); // Noncompliant {{Avoid SQL request in loop}}
+            jdbcTemplate.queryForList("SELECT id FROM person WHERE name = ?", name); // Noncompliant {{Avoid SQL request in loop}}
+        }
+    }
+}
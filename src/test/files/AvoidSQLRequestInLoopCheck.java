@@ -148,4 +148,18 @@ class AvoidSQLRequestInLoopCheck {
 		}
 	}
 
+    public void testWithNestedLoops(Connection conn, int[][] ids) throws Exception {
+        Statement st = conn.createStatement();
+        for (int[] row : ids) {
+            for (int id : row) {
+                int i = 0;
+                while (i < id) {
+                    st.executeQuery("SELECT name FROM users where id = " + i); // Noncompliant {{Avoid SQL request in loop}}
+                    i++;
+                }
+            }
+        }
+        st.close();
+    }
+
 }
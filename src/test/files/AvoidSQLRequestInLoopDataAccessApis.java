@@ -0,0 +1,110 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.SqlSession;
+import org.jdbi.v3.core.Handle;
+import org.jooq.DSLContext;
+import org.jooq.ResultQuery;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+class AvoidSQLRequestInLoopDataAccessApis {
+
+    private DSLContext dsl;
+    private SqlSession sqlSession;
+    private Handle handle;
+    private DatabaseClient databaseClient;
+    private PersonMapper personMapper;
+    private PersonQueries personQueries;
+    private LegacyPersonFacade legacyPersonFacade;
+    private AuditFacade auditFacade;
+
+    void jooq(List<Integer> ids) {
+        for (Integer id : ids) {
+            dsl.fetchOne("SELECT name FROM person WHERE id = ?", id); // Noncompliant {{Avoid SQL request in loop}}
+            dsl.execute("DELETE FROM person WHERE id = ?", id); // Noncompliant {{Avoid SQL request in loop}}
+            dsl.batch("DELETE FROM person WHERE id = ?");
+            ResultQuery query = dsl.resultQuery("SELECT name FROM person WHERE id = ?", id).fetchSize(100);
+            query.fetch(); // Noncompliant {{Avoid SQL request in loop}}
+        }
+        dsl.fetch("SELECT name FROM person");
+    }
+
+    void myBatis(List<Integer> ids) {
+        for (Integer id : ids) {
+            sqlSession.selectOne("PersonMapper.findById", id); // Noncompliant {{Avoid SQL request in loop}}
+            sqlSession.insert("AuditMapper.insert", id); // Noncompliant {{Avoid SQL request in loop}}
+            sqlSession.commit();
+            personMapper.findById(id); // Noncompliant {{Avoid SQL request in loop}}
+            personMapper.label(id);
+            personQueries.findName(id); // Noncompliant {{Avoid SQL request in loop}}
+            personQueries.format(id);
+        }
+    }
+
+    void jdbiAndR2dbc(List<Integer> ids) {
+        for (Integer id : ids) {
+            handle.execute("DELETE FROM person WHERE id = ?", id); // Noncompliant {{Avoid SQL request in loop}}
+            handle.createQuery("SELECT name FROM person"); // Noncompliant {{Avoid SQL request in loop}}
+            databaseClient.sql("SELECT name FROM person"); // Noncompliant {{Avoid SQL request in loop}}
+        }
+        handle.close();
+    }
+
+    void facadesOfTheProject(List<Integer> ids) {
+        for (Integer id : ids) {
+            legacyPersonFacade.load(id); // Noncompliant {{Avoid SQL request in loop}}
+            auditFacade.record(id); // Noncompliant {{Avoid SQL request in loop}}
+            auditFacade.format(id);
+        }
+    }
+}
+
+@Mapper
+interface PersonMapper {
+
+    String findById(int id);
+
+    default String label(int id) {
+        return "person " + id;
+    }
+}
+
+interface PersonQueries {
+
+    @Select("SELECT name FROM person WHERE id = #{id}")
+    String findName(int id);
+
+    String format(int id);
+}
+
+interface LegacyPersonFacade {
+
+    Object load(int id);
+}
+
+interface AuditFacade {
+
+    void record(int id);
+
+    String format(int id);
+}
@@ -0,0 +1,88 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+class AvoidSQLRequestInLoopThroughMethods {
+
+    interface NameSource {
+        String name(int id) throws SQLException;
+    }
+
+    class DatabaseNameSource implements NameSource {
+        @Override
+        public String name(int id) throws SQLException {
+            return load(id).getString("name");
+        }
+    }
+
+    private final Connection connection;
+    private final NameSource names;
+
+    AvoidSQLRequestInLoopThroughMethods(Connection connection, NameSource names) {
+        this.connection = connection;
+        this.names = names;
+    }
+
+    ResultSet load(int id) throws SQLException {
+        return query("SELECT name FROM users WHERE id = " + id);
+    }
+
+    ResultSet query(String sql) throws SQLException {
+        return connection.createStatement().executeQuery(sql);
+    }
+
+    String label(int id) {
+        return "user " + id;
+    }
+
+    int factorial(int n) {
+        return n <= 1 ? 1 : n * factorial(n - 1);
+    }
+
+    void loadAll(List<Integer> ids) throws SQLException {
+        for (int id : ids) {
+            load(id); // Noncompliant {{Avoid SQL request in loop (through AvoidSQLRequestInLoopThroughMethods.load() > AvoidSQLRequestInLoopThroughMethods.query() > Statement.executeQuery())}}
+        }
+    }
+
+    void nameAll(List<Integer> ids) throws SQLException {
+        int i = 0;
+        while (i < ids.size()) {
+            names.name(ids.get(i++)); // Noncompliant {{Avoid SQL request in loop (through NameSource.name() > DatabaseNameSource.name() > AvoidSQLRequestInLoopThroughMethods.load() > AvoidSQLRequestInLoopThroughMethods.query() > Statement.executeQuery())}}
+        }
+    }
+
+    void queryAll(List<String> requests) throws SQLException {
+        for (String request : requests) {
+            query(request); // Noncompliant [[sc=13;ec=27;secondary=-26]]
+        }
+    }
+
+    void compliant(List<Integer> ids) throws SQLException {
+        for (int id : ids) {
+            label(id);
+            factorial(id);
+        }
+        load(ids.get(0));
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
+import java.io.File;
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.util.regex.Pattern;
@@ -25,6 +26,13 @@ import java.util.stream.Stream;
 
 class AvoidSetConstantInBatchUpdateCheck {
 
+    private static final String STATUS = "ACTIVE";
+    private static final int DEFAULT_LEVEL = 3;
+    private static final BigDecimal RATE = new BigDecimal("1.5");
+    private static final long START = System.currentTimeMillis();
+    private final String source = "import";
+    private String label = "";
+
     void literalSQLrequest() { //dirty call
 
         int x = 0;
@@ -145,6 +153,70 @@ class AvoidSetConstantInBatchUpdateCheck {
         }
     }
 
+    int[] batchInsertInNestedLoops(DummyClass[][] data) throws SQLException {
+        Connection con = DriverManager.getConnection("jdbc:oracle:thin:@localhost:1521:xe", "system", "oracle");
+        PreparedStatement stmt = con.prepareStatement("insert into Emp values(?,?)");
+        for (DummyClass[] row : data) {
+            for (DummyClass o : row) {
+                stmt.setInt(1, o.getField1());
+                stmt.setString(2, "nested"); // Noncompliant {{Avoid setting constants in batch update}}
+                stmt.addBatch();
+            }
+        }
+        return stmt.executeBatch();
+    }
+
+    int[] batchInsertPropagatedConstants(DummyClass[] data, String user, StringBuilder comment) throws SQLException {
+        Connection con = DriverManager.getConnection("jdbc:oracle:thin:@localhost:1521:xe", "system", "oracle");
+        PreparedStatement stmt = con.prepareStatement("insert into Emp values(?,?,?,?,?,?,?,?,?,?,?,?,?)");
+        final String prefix = "EMP-";
+        int level = DEFAULT_LEVEL + 1;
+        String createdBy = user;
+        int row = 0;
+        for (DummyClass o : data) {
+            final String code = prefix + "0";
+            stmt.setString(1, prefix); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setString(2, STATUS); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setInt(3, level); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setBigDecimal(4, RATE); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setBigDecimal(5, BigDecimal.valueOf(DEFAULT_LEVEL)); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setLong(6, START); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setString(7, File.separator); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setString(8, this.source); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setString(9, createdBy); // Noncompliant {{Avoid setting constants in batch update}}
+            stmt.setString(10, user.trim() + code); // Compliant : calls may give another value on each row
+            stmt.setInt(11, row++);
+            stmt.setString(12, label);
+            stmt.setString(13, comment.toString());
+            stmt.addBatch();
+            label = o.getField2();
+        }
+        level = 0;
+        return stmt.executeBatch();
+    }
+
+    int[] batchInsertVariantValues(DummyClass[] data, int offset) throws SQLException {
+        Connection con = DriverManager.getConnection("jdbc:oracle:thin:@localhost:1521:xe", "system", "oracle");
+        PreparedStatement stmt = con.prepareStatement("insert into Emp values(?,?,?)");
+        String name = "";
+        for (int i = 0; i < data.length; i++) {
+            name = data[i].getField2();
+            stmt.setString(1, name);
+            stmt.setInt(2, offset + i);
+            stmt.setInt(3, data.length); // Compliant : arrays are not immutable values
+            stmt.addBatch();
+        }
+        for (DummyClass[] rows : new DummyClass[][]{data}) {
+            int size = rows.length;
+            for (DummyClass o : rows) {
+                stmt.setInt(1, size); // Compliant : another value for each outer row
+                stmt.setInt(2, offset); // Noncompliant {{Avoid setting constants in batch update}}
+                stmt.addBatch();
+            }
+        }
+        return stmt.executeBatch();
+    }
+
     class DummyClass {
 
         public int getField1() {
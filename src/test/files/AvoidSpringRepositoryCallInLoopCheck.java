@@ -37,6 +37,23 @@ public class AvoidSpringRepositoryCallInLoopCheck {
         return employees;
     }
 
+    public List<Employee> smellGetAllEmployeesByIdsInNestedLoops(List<List<Integer>> ids) {
+        List<Employee> employees = new ArrayList<>();
+        for (List<Integer> group : ids) {
+            for (Integer id : group) {
+                employeeRepository.findById(id).ifPresent(employees::add); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+            }
+        }
+        return employees;
+    }
+
+    public void smellDeleteEmployeesInNestedLoopAndStream(List<List<Integer>> ids) {
+        for (List<Integer> group : ids) {
+            group.forEach(employeeRepository::deleteById); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+            group.forEach(id -> employeeRepository.deleteById(id)); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+        }
+    }
+
     public class Employee {
         private Integer id;
         private String name;
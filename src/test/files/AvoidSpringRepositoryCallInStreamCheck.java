@@ -21,6 +21,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -121,6 +123,76 @@ public class AvoidSpringRepositoryCallInStreamCheck {
                 .collect(Collectors.toList());
     }
 
+    public List<Integer> smellFilter(List<Integer> ids) {
+        return ids.stream()
+                .filter(id -> employeeRepository.existsById(id)) // Noncompliant {{Avoid Spring repository call in loop or stream}}
+                .collect(Collectors.toList());
+    }
+
+    public List<Employee> smellFlatMap(List<List<Integer>> ids) {
+        return ids.stream()
+                .flatMap(group -> employeeRepository.findAllById(group).stream()) // Noncompliant {{Avoid Spring repository call in loop or stream}}
+                .collect(Collectors.toList());
+    }
+
+    public boolean smellAnyMatch(List<Integer> ids) {
+        return ids.stream().anyMatch(id -> employeeRepository.existsById(id)); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+    }
+
+    public Map<Integer, Optional<Employee>> smellToMap(List<Integer> ids) {
+        return ids.stream()
+                .collect(Collectors.toMap(Function.identity(), id -> employeeRepository.findById(id))); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+    }
+
+    public List<Optional<Employee>> smellMethodReference(List<Integer> ids) {
+        return ids.stream()
+                .map(employeeRepository::findById) // Noncompliant [[sc=22;ec=50]] {{Avoid Spring repository call in loop or stream}}
+                .collect(Collectors.toList());
+    }
+
+    public void smellIterableForEach(List<Integer> ids) {
+        ids.forEach(employeeRepository::deleteById); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+        ids.forEach(id -> employeeRepository.deleteById(id)); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+    }
+
+    public void smellMapForEach(Map<Integer, String> names) {
+        names.forEach((id, name) -> employeeRepository.findById(id).ifPresent(employee -> employee.rename(name))); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+    }
+
+    public Optional<Employee> smellComputeIfAbsent(Map<Integer, Optional<Employee>> cache, Integer id) {
+        return cache.computeIfAbsent(id, key -> employeeRepository.findById(key)); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+    }
+
+    public CompletableFuture<Employee> smellCompletableFuture(CompletableFuture<Integer> id) {
+        return id.thenApply(employeeRepository::getOne) // Noncompliant {{Avoid Spring repository call in loop or stream}}
+                .thenCompose(employee -> CompletableFuture.supplyAsync(() -> employeeRepository.save(employee))); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+    }
+
+    public List<Employee> smellInArgumentOfAnotherCall(List<Integer> ids) {
+        List<Employee> employees = new ArrayList<>();
+        ids.stream().forEach(id -> employees.add(employeeRepository.getOne(id))); // Noncompliant {{Avoid Spring repository call in loop or stream}}
+        return employees;
+    }
+
+    public long smellNestedStreams(List<List<Integer>> ids) {
+        return ids.stream()
+                .mapToLong(group -> group.stream().filter(employeeRepository::existsById).count()) // Noncompliant {{Avoid Spring repository call in loop or stream}}
+                .sum();
+    }
+
+    public List<Employee> compliantMethodReference(List<Integer> ids) {
+        return employeeRepository.findAllById(ids).stream()
+                .map(Employee::getName)
+                .map(String::trim)
+                .filter(Objects::nonNull)
+                .map(name -> new Employee(0, name))
+                .collect(Collectors.toList());
+    }
+
+    public Optional<Employee> compliantOutsideOfStream(Map<Integer, Optional<Employee>> cache, Integer id) {
+        return cache.getOrDefault(id, employeeRepository.findById(id));
+    }
+
     public class Employee {
         private Integer id;
         private String name;
@@ -132,6 +204,7 @@ public class AvoidSpringRepositoryCallInStreamCheck {
 
         public Integer getId() { return id; }
         public String getName() { return name; }
+        public void rename(String name) { this.name = name; }
     }
 
     public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
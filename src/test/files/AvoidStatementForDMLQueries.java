@@ -31,4 +31,21 @@ class AvoidStatementForDMLQueries {
         Statement statement = connection.createStatement();
         statement.executeUpdate("INSERT INTO persons(id, name) VALUES(2, 'Toto')");  // Noncompliant {{You must not use Statement for a DML query}}
     }
+
+    private static final String PERSONS = "persons";
+    private static final String DELETE_PERSONS = "DELETE FROM " + PERSONS;
+
+    public void constants(String name) {
+        Statement statement = connection.createStatement();
+        statement.executeUpdate(DELETE_PERSONS);  // Noncompliant {{You must not use Statement for a DML query}}
+        statement.executeUpdate("UPDATE " + PERSONS + " SET name = 'Toto'");  // Noncompliant {{You must not use Statement for a DML query}}
+        String update = new StringBuilder("UPDATE ").append(PERSONS).append(" SET age = 2").toString();
+        statement.executeUpdate(update);  // Noncompliant {{You must not use Statement for a DML query}}
+        statement.executeUpdate("""
+                INSERT INTO persons(id, name)
+                VALUES(3, 'Titi')
+                """);  // Noncompliant@-3 {{You must not use Statement for a DML query}}
+        statement.executeUpdate("UPDATE persons SET name = '" + name + "'");  // Compliant : not a constant (GCI5 only reports constant queries)
+        statement.executeUpdate("CREATE TABLE " + PERSONS + " (last_update DATE)");  // Compliant : not a DML query
+    }
 }
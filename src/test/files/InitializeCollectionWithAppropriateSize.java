@@ -0,0 +1,110 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+class InitializeCollectionWithAppropriateSize {
+
+    List<String> copyList(List<String> input) {
+        List<String> result = new ArrayList<>(); // Noncompliant {{Initialize ArrayList with appropriate size : new ArrayList<>(input.size())}}
+        for (String element : input) {
+            result.add(element.trim());
+        }
+        return result;
+    }
+
+    Map<Integer, String> indexArray(String[] input) {
+        Map<Integer, String> result = new HashMap<>(); // Noncompliant {{Initialize HashMap with appropriate size : new HashMap<>((int) (input.length / 0.75f) + 1)}}
+        int index = 0;
+        for (String element : input) {
+            result.put(index++, element);
+        }
+        return result;
+    }
+
+    Set<Integer> counters(int n) {
+        Set<Integer> result = new HashSet<>(); // Noncompliant {{Initialize HashSet with appropriate size : new HashSet<>((int) ((n + 1) / 0.75f) + 1)}}
+        for (int i = 0; i <= n; i++) result.add(i);
+        return result;
+    }
+
+    ArrayDeque<Integer> stack(int n) {
+        ArrayDeque<Integer> result = new ArrayDeque<>(); // Noncompliant [[sc=38;ec=56]] {{Initialize ArrayDeque with appropriate size : new ArrayDeque<>(n)}}
+        for (int i = 0; i < n; ++i) {
+            result.push(i);
+        }
+        return result;
+    }
+
+    byte[] bytes(int[] values) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(); // Noncompliant {{Initialize ByteArrayOutputStream with appropriate size : the number of iterations (values.length) times the size written on each iteration}}
+        for (int value : values) {
+            out.write(value);
+        }
+        return out.toByteArray();
+    }
+
+    String csv(List<String> lines) {
+        StringWriter writer = new StringWriter(); // Noncompliant {{Initialize StringWriter with appropriate size : the number of iterations (lines.size()) times the size written on each iteration}}
+        for (String line : lines) {
+            writer.append(line).append('\n');
+        }
+        return writer.toString();
+    }
+
+    List<String> compliant(List<String> input, Iterator<String> iterator, int n) {
+        List<String> sized = new ArrayList<>(input.size());
+        for (String element : input) {
+            sized.add(element);
+        }
+        List<String> filtered = new ArrayList<>(); // Compliant: number of elements unknown
+        for (String element : input) {
+            if (!element.isEmpty()) {
+                filtered.add(element);
+            }
+        }
+        List<String> iterated = new ArrayList<>(); // Compliant: number of iterations unknown
+        while (iterator.hasNext()) {
+            iterated.add(iterator.next());
+        }
+        Map<String, String> nested = new LinkedHashMap<>(); // Compliant: filled in a nested loop
+        for (int i = 0; i < n; i++) {
+            for (String element : input) {
+                nested.put(element + i, element);
+            }
+        }
+        List<String> notFilled = new ArrayList<>(); // Compliant: not filled by the following loop
+        for (String element : input) {
+            sized.add(element);
+        }
+        List<String> noLoop = new ArrayList<>();
+        noLoop.add("one");
+        return noLoop;
+    }
+}
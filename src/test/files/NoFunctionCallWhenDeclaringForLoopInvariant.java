@@ -0,0 +1,110 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+class NoFunctionCallWhenDeclaringForLoopInvariant {
+    private int limit;
+    private final List<String> names = new ArrayList<>();
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public void getterInCondition() {
+        for (int i = 0; i < getLimit(); i++) { // Compliant : trivial getter, inlined
+            System.out.println(i);
+        }
+        for (int i = 0; i < this.names.size(); i++) { // Compliant : constant-time size
+            System.out.println(i);
+        }
+    }
+
+    public void streamInBody(List<Integer> values) {
+        for (int i = 0; i < 10; i++) {
+            long positives = values.stream().filter(v -> v > 0).count(); // Noncompliant {{Move this call before the loop : it traverses a stream, with the same receiver and arguments on each iteration}}
+            long greater = values.stream().filter(v -> v > positives).count(); // Compliant : depends on the loop
+            System.out.println(i + positives + greater);
+        }
+    }
+
+    public void collectionInWhile(List<String> words, String word) {
+        int i = 0;
+        while (i < 10) {
+            if (words.contains(word)) { // Noncompliant {{Move this call before the loop : it traverses a collection, with the same receiver and arguments on each iteration}}
+                System.out.println(i);
+            }
+            i++;
+        }
+    }
+
+    public void modifiedReceiver(List<String> words, String word) {
+        for (String name : names) {
+            if (words.indexOf(word) < 0) { // Compliant : words is modified by the loop
+                words.add(name);
+            }
+        }
+    }
+
+    public void elementArgument(List<String> words) {
+        for (String name : names) {
+            if (words.contains(name)) { // Compliant : the argument changes on each iteration
+                System.out.println(name);
+            }
+        }
+    }
+
+    public void ioAndRegex(List<String> lines, Path path, String separator) throws IOException {
+        for (String line : lines) {
+            if (Files.exists(path)) { // Compliant : the result of an I/O may change from one iteration to another
+                System.out.println(line.split(separator).length); // Compliant : the receiver changes on each iteration
+            }
+            Pattern pattern = Pattern.compile(separator); // Noncompliant {{Move this call before the loop : it compiles a regex, with the same receiver and arguments on each iteration}}
+            System.out.println(pattern.matcher(line).find());
+        }
+    }
+
+    public void reflection(List<Object> targets, String className) throws ReflectiveOperationException {
+        do {
+            Class<?> type = Class.forName(className); // Noncompliant {{Move this call before the loop : it uses reflection, with the same receiver and arguments on each iteration}}
+            System.out.println(type.getDeclaredFields().length); // Compliant : type is declared in the loop
+        } while (targets.remove(0) != null);
+    }
+
+    public void polling(Path lock, List<String> words, String word) throws InterruptedException {
+        while (!Files.exists(lock)) { // Compliant : waits for the file to be created elsewhere
+            Thread.sleep(100);
+        }
+        while (!words.contains(word)) { // Compliant : the condition may wait for a change made by another thread
+            Thread.sleep(100);
+        }
+        do {
+            Thread.sleep(100);
+        } while (words.indexOf(word) < 0); // Compliant
+    }
+
+    public void deferred(List<Runnable> tasks, List<Integer> values) {
+        for (int i = 0; i < 10; i++) {
+            tasks.add(() -> System.out.println(values.stream().count())); // Compliant : not run by the loop
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.apache.ibatis.session;
+
+import java.util.List;
+
+/**
+ * Subset of the MyBatis interface, mybatis not being a test dependency
+ */
+public interface SqlSession {
+
+    <T> T selectOne(String statement, Object parameter);
+
+    <E> List<E> selectList(String statement, Object parameter);
+
+    int insert(String statement, Object parameter);
+
+    void commit();
+}
@@ -0,0 +1,110 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.ToolProvider;
+
+import org.greencodeinitiative.creedengo.java.offline.OfflineAnalysis;
+import org.greencodeinitiative.creedengo.java.offline.ReportedIssue;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Run all the registered checks on many files at once (one instance of each check per thread, as a parallel scanner
+ * would do) and compare the issues with a sequential run : a check keeping state from one file to another, or
+ * sharing state between its instances, reports different issues. Issues resolved once all the files are analyzed
+ * (GCI72 calls in loops through methods of other files) must not depend on the number of threads either.
+ */
+class ConcurrentAnalysisTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 4;
+
+    @Test
+    void sameIssuesAsSequentialAnalysis(@TempDir Path binaries) throws Exception {
+        // types of the other files are resolved from their compiled classes, as in an analysis
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-encoding", "UTF-8", "-d", binaries.toString(), "src/test/files/AvoidSQLRequestInLoopDao.java");
+        assertThat(compilation).isZero();
+        List<File> classpath = FilesUtils.getClassPath("target/test-jars");
+        classpath.add(binaries.toFile());
+        List<Path> files = javaFiles(Path.of("src/test/files"));
+
+        RecordingListener sequential = new RecordingListener();
+        new OfflineAnalysis(JavaCheckRegistrar.checkClasses(), classpath, 1).analyze(files, sequential);
+        List<List<ReportedIssue>> expected = sequential.results.subList(0, files.size());
+        List<List<ReportedIssue>> expectedAtTheEnd = sequential.results.subList(files.size(), sequential.results.size());
+        assertThat(expected).anySatisfy(issues -> assertThat(issues).isNotEmpty());
+        assertThat(expectedAtTheEnd).flatExtracting(issues -> issues)
+                .anySatisfy(issue -> assertThat(issue.file()).hasFileName("AvoidSQLRequestInLoopService.java"));
+
+        // each file is analyzed several times, in a different order than the sequential run
+        List<Path> tasks = new ArrayList<>();
+        for (int round = 0; round < ROUNDS; round++) {
+            tasks.addAll(files);
+        }
+        Collections.shuffle(tasks, new Random(42));
+
+        RecordingListener parallel = new RecordingListener();
+        new OfflineAnalysis(JavaCheckRegistrar.checkClasses(), classpath, THREADS).analyze(tasks, parallel);
+
+        for (int i = 0; i < tasks.size(); i++) {
+            assertThat(parallel.results.get(i))
+                    .describedAs("Issues of %s", tasks.get(i))
+                    .containsExactlyElementsOf(expected.get(files.indexOf(tasks.get(i))));
+        }
+        assertThat(parallel.results.subList(tasks.size(), parallel.results.size()))
+                .describedAs("Issues resolved once all the files are analyzed")
+                .containsExactlyElementsOf(expectedAtTheEnd);
+    }
+
+    private static List<Path> javaFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static final class RecordingListener implements OfflineAnalysis.Listener {
+
+        private final List<List<ReportedIssue>> results = new ArrayList<>();
+
+        @Override
+        public void fileAnalyzed(Path file, List<ReportedIssue> issues) {
+            results.add(new ArrayList<>(issues));
+        }
+
+        @Override
+        public void fileFailed(Path file, RuntimeException error) {
+            throw error;
+        }
+    }
+}
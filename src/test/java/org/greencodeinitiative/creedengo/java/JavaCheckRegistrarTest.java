@@ -17,14 +17,19 @@
  */
 package org.greencodeinitiative.creedengo.java;
 
+import java.util.Optional;
 import java.util.Set;
 
+import org.greencodeinitiative.creedengo.java.instrumentation.RuleMetrics;
 import org.junit.jupiter.api.Test;
 import org.reflections.Reflections;
+import org.sonar.api.config.Configuration;
 import org.sonar.check.Rule;
 import org.sonar.plugins.java.api.CheckRegistrar;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class JavaCheckRegistrarTest {
 
@@ -40,6 +45,18 @@ class JavaCheckRegistrarTest {
         assertThat(context.testCheckClasses()).isEmpty();
     }
 
+    @Test
+    void ruleMetricsEnabledByProperty() {
+        Configuration configuration = mock(Configuration.class);
+        when(configuration.getBoolean(RuleMetrics.PROPERTY)).thenReturn(Optional.of(true));
+
+        new JavaCheckRegistrar(configuration).register(new CheckRegistrar.RegistrarContext());
+        assertThat(RuleMetrics.current()).isNotNull();
+
+        new JavaCheckRegistrar().register(new CheckRegistrar.RegistrarContext());
+        assertThat(RuleMetrics.current()).isNull();
+    }
+
     static Set<Class<?>> getDefinedRules() {
         Reflections r = new Reflections(JavaCheckRegistrar.class.getPackageName() + ".checks");
         return r.getTypesAnnotatedWith(Rule.class);
@@ -70,6 +70,14 @@ class JavaRulesDefinitionTest {
         assertions.assertAll();
     }
 
+    @Test
+    void linearRemediationOfSizeInLoop() {
+        Rule rule = repository.rule("GCI3");
+        assertThat(rule.debtRemediationFunction().type()).isEqualTo(Type.LINEAR);
+        assertThat(rule.debtRemediationFunction().gapMultiplier()).isEqualTo(JavaRulesDefinition.SIZE_IN_LOOP_EFFORT);
+        assertThat(rule.gapDescription()).isNotEmpty();
+    }
+
     @Test
     void assertRuleProperties() {
         Rule rule = repository.rule("GCI67");
@@ -0,0 +1,181 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.tools.ToolProvider;
+
+import org.greencodeinitiative.creedengo.java.checks.AvoidSQLRequestInLoop;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.TextRange;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.issue.NewIssue;
+import org.sonar.api.batch.sensor.issue.NewIssueLocation;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.scanner.fs.InputProject;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.model.VisitorsBridge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Answers.RETURNS_SELF;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Run GCI72 through the sonar-java analyzer on a service calling a DAO in a loop, then the sensor reporting the
+ * issues resolved once all the files are analyzed : the issue is the same whatever the order of the files.
+ */
+class ProjectIssuesSensorTest {
+
+    private static final Path DAO = Path.of("src/test/files/AvoidSQLRequestInLoopDao.java");
+    private static final Path SERVICE = Path.of("src/test/files/AvoidSQLRequestInLoopService.java");
+
+    @TempDir
+    Path binaries;
+
+    private List<File> classpath;
+    private InputProject project;
+    private SensorContext sensorContext;
+    private NewIssue newIssue;
+    private NewIssueLocation newLocation;
+
+    @BeforeEach
+    void setUp() {
+        // as in an analysis, types of the other files are resolved from their compiled classes
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-encoding", "UTF-8", "-d", binaries.toString(), DAO.toString());
+        assertThat(compilation).isZero();
+        classpath = FilesUtils.getClassPath("target/test-jars");
+        classpath.add(binaries.toFile());
+
+        project = mock(InputProject.class);
+        sensorContext = mock(SensorContext.class);
+        when(sensorContext.config()).thenReturn(mock(Configuration.class));
+        when(sensorContext.project()).thenReturn(project);
+        newIssue = mock(NewIssue.class, RETURNS_SELF);
+        newLocation = mock(NewIssueLocation.class, RETURNS_SELF);
+        when(sensorContext.newIssue()).thenReturn(newIssue);
+        when(newIssue.newLocation()).thenReturn(newLocation);
+    }
+
+    @Test
+    void callerAnalyzedBeforeTheDao() throws Exception {
+        Map<Path, InputFile> inputFiles = analyze(SERVICE, DAO);
+
+        new ProjectIssuesSensor().execute(sensorContext);
+
+        verifyIssue(inputFiles);
+    }
+
+    @Test
+    void callerAnalyzedAfterTheDao() throws Exception {
+        Map<Path, InputFile> inputFiles = analyze(DAO, SERVICE);
+
+        new ProjectIssuesSensor().execute(sensorContext);
+
+        verifyIssue(inputFiles);
+    }
+
+    @Test
+    void issuesAreReportedOnce() throws Exception {
+        analyze(SERVICE, DAO);
+        ProjectIssuesSensor sensor = new ProjectIssuesSensor();
+        sensor.execute(sensorContext);
+
+        SensorContext nextContext = mock(SensorContext.class);
+        when(nextContext.project()).thenReturn(project);
+        sensor.execute(nextContext);
+
+        verify(nextContext, never()).newIssue();
+    }
+
+    @Test
+    void summariesMadeWithOtherDataAccessTypesAreNotMixed() throws Exception {
+        AvoidSQLRequestInLoop otherParameters = new AvoidSQLRequestInLoop();
+        otherParameters.dataAccessTypes = "org.example.PersonFacade";
+        analyze(new AvoidSQLRequestInLoop(), DAO);
+        analyze(otherParameters, SERVICE);
+
+        new ProjectIssuesSensor().execute(sensorContext);
+
+        verify(sensorContext, never()).newIssue();
+    }
+
+    private void verifyIssue(Map<Path, InputFile> inputFiles) {
+        verify(newIssue).forRule(RuleKey.of(JavaRulesDefinition.REPOSITORY_KEY, "GCI72"));
+        verify(inputFiles.get(SERVICE)).newRange(32, 12, 32, 26);
+        verify(newLocation).message("Avoid SQL request in loop (through AvoidSQLRequestInLoopDao.delete()"
+                + " > Connection.prepareStatement())");
+        verify(inputFiles.get(DAO)).newRange(33, 43, 33, 104);
+        verify(newLocation).message("SQL request");
+        verify(newIssue).save();
+    }
+
+    /**
+     * Analyze files as sonar-java does, with a single instance of the check
+     */
+    private Map<Path, InputFile> analyze(Path... files) throws Exception {
+        return analyze(new AvoidSQLRequestInLoop(), files);
+    }
+
+    private Map<Path, InputFile> analyze(AvoidSQLRequestInLoop check, Path... files) throws Exception {
+        SonarComponents sonarComponents = mock(SonarComponents.class);
+        when(sonarComponents.context()).thenReturn(sensorContext);
+        when(sonarComponents.project()).thenReturn(project);
+        when(sonarComponents.inputFileContents(any())).thenAnswer(invocation -> invocation.<InputFile>getArgument(0).contents());
+        when(sonarComponents.symbolizableFor(any())).thenReturn(mock(NewSymbolTable.class, RETURNS_DEEP_STUBS));
+        VisitorsBridge visitorsBridge = new VisitorsBridge(List.of(check), classpath, sonarComponents);
+        Map<Path, InputFile> inputFiles = new HashMap<>();
+        for (Path file : files) {
+            InputFile inputFile = inputFile(file);
+            inputFiles.put(file, inputFile);
+            visitorsBridge.setCurrentFile(inputFile);
+            visitorsBridge.visitFile(ParsedJavaFile.parse(file, new ArrayList<>(classpath)).tree(), false);
+        }
+        return inputFiles;
+    }
+
+    private static InputFile inputFile(Path file) throws Exception {
+        InputFile inputFile = mock(InputFile.class);
+        when(inputFile.key()).thenReturn("module:" + file);
+        when(inputFile.status()).thenReturn(InputFile.Status.ADDED);
+        when(inputFile.contents()).thenReturn(Files.readString(file));
+        when(inputFile.filename()).thenReturn(file.getFileName().toString());
+        when(inputFile.newRange(any(Integer.class), any(Integer.class), any(Integer.class), any(Integer.class)))
+                .thenReturn(mock(TextRange.class));
+        return inputFile;
+    }
+}
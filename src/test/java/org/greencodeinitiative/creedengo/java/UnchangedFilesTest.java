@@ -0,0 +1,263 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.greencodeinitiative.creedengo.java.checks.AvoidSQLRequestInLoop;
+import org.greencodeinitiative.creedengo.java.instrumentation.RuleMetrics;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.symbol.NewSymbolTable;
+import org.sonar.api.config.Configuration;
+import org.sonar.java.SonarComponents;
+import org.sonar.java.checks.verifier.internal.InternalReadCache;
+import org.sonar.java.checks.verifier.internal.InternalWriteCache;
+import org.sonar.java.model.VisitorsBridge;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+/**
+ * Run all the registered checks through the sonar-java analyzer twice, as a branch analysis followed by a pull request
+ * analysis : a check which raised no issue (or only issues on lines) on an unchanged file replays them without visiting
+ * it again, other checks analyze it again.
+ */
+class UnchangedFilesTest {
+
+    private static final Path FILE = Path.of("src/test/files/AvoidMultipleIfElseStatementNoIssue.java");
+    private static final Path FILE_WITH_ISSUES = Path.of("src/test/files/AvoidMultipleIfElseStatement.java");
+
+    private CompilationUnitTree tree;
+    private String content;
+    private List<File> classpath;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        classpath = FilesUtils.getClassPath("target/test-jars");
+        use(FILE);
+        RuleMetrics.start();
+    }
+
+    private void use(Path file) throws Exception {
+        tree = ParsedJavaFile.parse(file, classpath).tree();
+        content = Files.readString(file);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RuleMetrics.stop();
+    }
+
+    @Test
+    void unchangedFileIsNotVisited() throws Exception {
+        InternalReadCache firstReadCache = new InternalReadCache();
+        InternalWriteCache firstWriteCache = new InternalWriteCache().bind(firstReadCache);
+        SonarComponents firstAnalysis = sonarComponents(firstReadCache, firstWriteCache);
+        analyze(firstAnalysis, inputFile(InputFile.Status.ADDED, content));
+
+        long issues = invocations(firstAnalysis, "reportIssue");
+        assertThat(issues).isZero();
+        assertThat(visitedNodes()).isPositive();
+        // issues of each check, and the database access summary of the file for GCI72
+        assertThat(firstWriteCache.getData()).hasSize(JavaCheckRegistrar.checkClasses().size() + 1);
+
+        RuleMetrics.start();
+        InternalReadCache secondReadCache = new InternalReadCache().putAll(firstWriteCache);
+        InternalWriteCache secondWriteCache = new InternalWriteCache().bind(secondReadCache);
+        SonarComponents secondAnalysis = sonarComponents(secondReadCache, secondWriteCache);
+        boolean skipped = analyze(secondAnalysis, inputFile(InputFile.Status.SAME, content));
+
+        assertThat(skipped).isTrue();
+        assertThat(visitedNodes()).isZero();
+        assertThat(invocations(secondAnalysis, "addIssue")).isZero();
+        assertThat(secondWriteCache.getData()).containsOnlyKeys(firstWriteCache.getData().keySet());
+    }
+
+    @Test
+    void unchangedFileIsVisitedAgainByTheChecksHavingRaisedIssues() throws Exception {
+        use(FILE_WITH_ISSUES);
+        InternalReadCache firstReadCache = new InternalReadCache();
+        InternalWriteCache firstWriteCache = new InternalWriteCache().bind(firstReadCache);
+        SonarComponents firstAnalysis = sonarComponents(firstReadCache, firstWriteCache);
+        analyze(firstAnalysis, inputFile(InputFile.Status.ADDED, content));
+        long issues = invocations(firstAnalysis, "reportIssue");
+        Set<String> rulesWithIssues = RuleMetrics.current().allCounters().stream()
+                .filter(counters -> counters.issues() > 0)
+                .map(RuleMetrics.Counters::ruleKey)
+                .collect(Collectors.toSet());
+        assertThat(rulesWithIssues).isNotEmpty();
+
+        RuleMetrics.start();
+        InternalReadCache secondReadCache = new InternalReadCache().putAll(firstWriteCache);
+        SonarComponents secondAnalysis = sonarComponents(secondReadCache, new InternalWriteCache().bind(secondReadCache));
+        boolean skipped = analyze(secondAnalysis, inputFile(InputFile.Status.SAME, content));
+
+        // issues on trees have text ranges and secondary locations, which can't be replayed from the cache
+        assertThat(skipped).isFalse();
+        assertThat(invocations(secondAnalysis, "reportIssue")).isEqualTo(issues);
+        assertThat(RuleMetrics.current().allCounters())
+                .filteredOn(counters -> counters.nodesVisited() > 0)
+                .extracting(RuleMetrics.Counters::ruleKey)
+                .containsExactlyInAnyOrderElementsOf(rulesWithIssues);
+    }
+
+    @Test
+    void unchangedFileIsNotVisitedEvenIfParsedForAnotherCheck() throws Exception {
+        InternalReadCache firstReadCache = new InternalReadCache();
+        InternalWriteCache firstWriteCache = new InternalWriteCache().bind(firstReadCache);
+        analyze(sonarComponents(firstReadCache, firstWriteCache), inputFile(InputFile.Status.ADDED, content));
+
+        RuleMetrics.start();
+        InternalReadCache secondReadCache = new InternalReadCache().putAll(firstWriteCache);
+        SonarComponents secondAnalysis = sonarComponents(secondReadCache, new InternalWriteCache().bind(secondReadCache));
+        VisitorsBridge visitorsBridge = visitorsBridge(secondAnalysis);
+        InputFile inputFile = inputFile(InputFile.Status.SAME, content);
+        visitorsBridge.scanWithoutParsing(inputFile);
+        visitorsBridge.setCurrentFile(inputFile);
+        visitorsBridge.visitFile(tree, true);
+
+        assertThat(visitedNodes()).isZero();
+        assertThat(invocations(secondAnalysis, "reportIssue")).isZero();
+    }
+
+    @Test
+    void fileWithAnotherContentIsVisited() throws Exception {
+        InternalReadCache firstReadCache = new InternalReadCache();
+        InternalWriteCache firstWriteCache = new InternalWriteCache().bind(firstReadCache);
+        analyze(sonarComponents(firstReadCache, firstWriteCache), inputFile(InputFile.Status.ADDED, content));
+
+        RuleMetrics.start();
+        InternalReadCache secondReadCache = new InternalReadCache().putAll(firstWriteCache);
+        SonarComponents secondAnalysis = sonarComponents(secondReadCache, new InternalWriteCache().bind(secondReadCache));
+        boolean skipped = analyze(secondAnalysis, inputFile(InputFile.Status.SAME, content + "\n"));
+
+        assertThat(skipped).isFalse();
+        assertThat(visitedNodes()).isPositive();
+        assertThat(invocations(secondAnalysis, "addIssue")).isZero();
+    }
+
+    @Test
+    void unchangedFileIsVisitedByTheChecksWhoseParametersChanged() throws Exception {
+        InternalReadCache firstReadCache = new InternalReadCache();
+        InternalWriteCache firstWriteCache = new InternalWriteCache().bind(firstReadCache);
+        analyze(sonarComponents(firstReadCache, firstWriteCache), inputFile(InputFile.Status.ADDED, content));
+
+        RuleMetrics.start();
+        InternalReadCache secondReadCache = new InternalReadCache().putAll(firstWriteCache);
+        SonarComponents secondAnalysis = sonarComponents(secondReadCache, new InternalWriteCache().bind(secondReadCache));
+        List<JavaCheck> checks = ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses());
+        checks.stream()
+                .filter(AvoidSQLRequestInLoop.class::isInstance)
+                .forEach(check -> ((AvoidSQLRequestInLoop) check).dataAccessTypes = "org.example.Dao");
+        boolean skipped = analyze(secondAnalysis, checks, inputFile(InputFile.Status.SAME, content));
+
+        assertThat(skipped).isFalse();
+        assertThat(RuleMetrics.current().allCounters())
+                .filteredOn(counters -> counters.nodesVisited() > 0)
+                .extracting(RuleMetrics.Counters::ruleKey)
+                .containsExactly("GCI72");
+    }
+
+    @Test
+    void unchangedFileIsSkippedWithoutCache() throws Exception {
+        SonarComponents analysis = sonarComponents(null, null);
+        boolean skipped = analyze(analysis, inputFile(InputFile.Status.SAME, content));
+
+        assertThat(skipped).isTrue();
+        assertThat(visitedNodes()).isZero();
+    }
+
+    /**
+     * Analyze a file as sonar-java does : it is parsed and visited only if it can't be scanned without parsing
+     *
+     * @return true if the file was not parsed
+     */
+    private boolean analyze(SonarComponents sonarComponents, InputFile inputFile) {
+        return analyze(sonarComponents, ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()), inputFile);
+    }
+
+    private boolean analyze(SonarComponents sonarComponents, List<JavaCheck> checks, InputFile inputFile) {
+        VisitorsBridge visitorsBridge = new VisitorsBridge(checks, classpath, sonarComponents);
+        if (visitorsBridge.scanWithoutParsing(inputFile)) {
+            return true;
+        }
+        visitorsBridge.setCurrentFile(inputFile);
+        visitorsBridge.visitFile(tree, sonarComponents.fileCanBeSkipped(inputFile));
+        return false;
+    }
+
+    private VisitorsBridge visitorsBridge(SonarComponents sonarComponents) {
+        return new VisitorsBridge(ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()), classpath, sonarComponents);
+    }
+
+    private static SonarComponents sonarComponents(InternalReadCache readCache, InternalWriteCache writeCache) throws Exception {
+        SensorContext sensorContext = mock(SensorContext.class);
+        when(sensorContext.config()).thenReturn(mock(Configuration.class));
+        when(sensorContext.isCacheEnabled()).thenReturn(readCache != null);
+        when(sensorContext.previousCache()).thenReturn(readCache);
+        when(sensorContext.nextCache()).thenReturn(writeCache);
+
+        SonarComponents sonarComponents = mock(SonarComponents.class);
+        when(sonarComponents.context()).thenReturn(sensorContext);
+        when(sonarComponents.canSkipUnchangedFiles()).thenReturn(true);
+        when(sonarComponents.fileCanBeSkipped(any()))
+                .thenAnswer(invocation -> invocation.<InputFile>getArgument(0).status() == InputFile.Status.SAME);
+        when(sonarComponents.inputFileContents(any())).thenAnswer(invocation -> invocation.<InputFile>getArgument(0).contents());
+        when(sonarComponents.symbolizableFor(any())).thenReturn(mock(NewSymbolTable.class, RETURNS_DEEP_STUBS));
+        return sonarComponents;
+    }
+
+    private static InputFile inputFile(InputFile.Status status, String content) throws Exception {
+        InputFile inputFile = mock(InputFile.class);
+        when(inputFile.key()).thenReturn("module:" + FILE);
+        when(inputFile.status()).thenReturn(status);
+        when(inputFile.contents()).thenReturn(content);
+        when(inputFile.filename()).thenReturn(FILE.getFileName().toString());
+        return inputFile;
+    }
+
+    private static long invocations(SonarComponents sonarComponents, String method) {
+        return mockingDetails(sonarComponents).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals(method))
+                .count();
+    }
+
+    private static long visitedNodes() {
+        return RuleMetrics.current().allCounters().stream().mapToLong(RuleMetrics.Counters::nodesVisited).sum();
+    }
+}
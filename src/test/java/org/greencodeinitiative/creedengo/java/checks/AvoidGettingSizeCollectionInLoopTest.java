@@ -76,4 +76,12 @@ class AvoidGettingSizeCollectionInLoopTest {
                 .withCheck(new AvoidGettingSizeCollectionInLoop())
                 .verifyNoIssues();
     }
+
+    @Test
+    void testCostOfSizeAndModifiedReceivers() {
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/AvoidGettingSizeCollectionInLoopCost.java")
+                .withCheck(new AvoidGettingSizeCollectionInLoop())
+                .verifyIssues();
+    }
 }
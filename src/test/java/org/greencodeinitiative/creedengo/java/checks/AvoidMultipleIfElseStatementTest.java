@@ -57,5 +57,12 @@ class AvoidMultipleIfElseStatementTest {
                 .verifyNoIssues();
     }
 
+    @Test
+    void testSwitchDispatch() {
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/AvoidMultipleIfElseStatementDispatch.java")
+                .withCheck(new AvoidMultipleIfElseStatement())
+                .verifyIssues();
+    }
 
 }
@@ -0,0 +1,54 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.checks;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.ToolProvider;
+
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.java.checks.verifier.CheckVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AvoidNonSargableSQLQueryTest {
+
+    @Test
+    void test(@TempDir Path binaries) {
+        // Hibernate and Spring JDBC are not test dependencies : their interfaces are compiled from stubs
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-encoding", "UTF-8", "-d", binaries.toString(),
+                "src/test/files/stubs/org/springframework/jdbc/core/JdbcOperations.java",
+                "src/test/files/stubs/org/hibernate/SharedSessionContract.java",
+                "src/test/files/stubs/org/hibernate/Session.java");
+        assertThat(compilation).isZero();
+        List<File> classPath = FilesUtils.getClassPath("target/test-jars");
+        classPath.add(binaries.toFile());
+
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/AvoidNonSargableSQLQuery.java")
+                .withCheck(new AvoidNonSargableSQLQuery())
+                .withClassPath(classPath)
+                .verifyIssues();
+    }
+
+}
@@ -17,9 +17,20 @@
  */
 package org.greencodeinitiative.creedengo.java.checks;
 
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.ToolProvider;
+
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.sonar.java.checks.verifier.CheckVerifier;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 class AvoidSQLRequestInLoopCheckTest {
 
     @Test
@@ -30,4 +41,69 @@ class AvoidSQLRequestInLoopCheckTest {
                 .verifyIssues();
     }
 
+    @Test
+    void throughMethods() {
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/AvoidSQLRequestInLoopThroughMethods.java")
+                .withCheck(new AvoidSQLRequestInLoop())
+                .verifyIssues();
+    }
+
+    @Test
+    void notReportedThroughMethodsOfOtherFilesWhenLeavingAFile(@TempDir Path binaries) {
+        // as in an analysis, types of the other files are resolved from their compiled classes
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-encoding", "UTF-8", "-d", binaries.toString(), "src/test/files/AvoidSQLRequestInLoopDao.java");
+        assertThat(compilation).isZero();
+
+        // calls through methods of other files are reported once all the files are analyzed (ProjectIssuesSensorTest)
+        CheckVerifier.newVerifier()
+                .onFiles("src/test/files/AvoidSQLRequestInLoopDao.java", "src/test/files/AvoidSQLRequestInLoopService.java")
+                .withCheck(new AvoidSQLRequestInLoop())
+                .withClassPath(Collections.singletonList(binaries.toFile()))
+                .verifyNoIssues();
+    }
+
+    @Test
+    void batching(@TempDir Path binaries) {
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-encoding", "UTF-8", "-d", binaries.toString(),
+                "src/test/files/stubs/org/springframework/jdbc/core/JdbcOperations.java");
+        assertThat(compilation).isZero();
+        List<File> classPath = FilesUtils.getClassPath("target/test-jars");
+        classPath.add(binaries.toFile());
+
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/AvoidSQLRequestInLoopBatch.java")
+                .withCheck(new AvoidSQLRequestInLoop())
+                .withClassPath(classPath)
+                .verifyIssues();
+    }
+
+    @Test
+    void dataAccessApis(@TempDir Path binaries) {
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-encoding", "UTF-8", "-d", binaries.toString(),
+                "src/test/files/stubs/org/jooq/DSLContext.java",
+                "src/test/files/stubs/org/jooq/ResultQuery.java",
+                "src/test/files/stubs/org/apache/ibatis/session/SqlSession.java",
+                "src/test/files/stubs/org/apache/ibatis/annotations/Mapper.java",
+                "src/test/files/stubs/org/apache/ibatis/annotations/Select.java",
+                "src/test/files/stubs/org/jdbi/v3/core/Handle.java",
+                "src/test/files/stubs/org/springframework/r2dbc/core/DatabaseClient.java");
+        assertThat(compilation).isZero();
+        List<File> classPath = FilesUtils.getClassPath("target/test-jars");
+        classPath.add(binaries.toFile());
+        AvoidSQLRequestInLoop check = new AvoidSQLRequestInLoop();
+        check.dataAccessTypes = " org.greencodeinitiative.creedengo.java.checks.LegacyPersonFacade,"
+                + "org.greencodeinitiative.creedengo.java.checks.AuditFacade # record, "
+                + "org.greencodeinitiative.creedengo.java.checks.AuditFacade#, #format";
+
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/AvoidSQLRequestInLoopDataAccessApis.java")
+                .withCheck(check)
+                .withClassPath(classPath)
+                .verifyIssues();
+    }
+
 }
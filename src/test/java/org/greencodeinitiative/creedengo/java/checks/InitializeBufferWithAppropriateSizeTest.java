@@ -30,4 +30,12 @@ class InitializeBufferWithAppropriateSizeTest {
                 .verifyIssues();
     }
 
+    @Test
+    void testCollectionsFilledInLoop() {
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/InitializeCollectionWithAppropriateSize.java")
+                .withCheck(new InitializeBufferWithAppropriateSize())
+                .verifyIssues();
+    }
+
 }
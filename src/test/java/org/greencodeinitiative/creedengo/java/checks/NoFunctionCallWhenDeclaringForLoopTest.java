@@ -28,4 +28,12 @@ class NoFunctionCallWhenDeclaringForLoopTest {
                 .withCheck(new NoFunctionCallWhenDeclaringForLoop())
                 .verifyIssues();
     }
+
+    @Test
+    void invariantCall() {
+        CheckVerifier.newVerifier()
+                .onFile("src/test/files/NoFunctionCallWhenDeclaringForLoopInvariant.java")
+                .withCheck(new NoFunctionCallWhenDeclaringForLoop())
+                .verifyIssues();
+    }
 }
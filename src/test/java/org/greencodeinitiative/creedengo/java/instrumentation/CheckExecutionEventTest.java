@@ -0,0 +1,95 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.instrumentation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckExecutionEventTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChecksRunner runner;
+    private ParsedJavaFile file;
+
+    @BeforeEach
+    void init() {
+        runner = new ChecksRunner(ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()));
+        file = ParsedJavaFile.parse(Path.of("src/test/files/AvoidSpringRepositoryCallInStreamCheck.java"),
+                FilesUtils.getClassPath("target/test-jars"));
+    }
+
+    @Test
+    void eventsOfEachRule() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(CheckExecutionEvent.NAME);
+            recording.start();
+            runner.scan(file);
+            recording.stop();
+            events = dump(recording);
+        }
+
+        assertThat(events).extracting(event -> event.getString("ruleKey")).contains("GCI1", "GCI2", "GCI72");
+        assertThat(events).extracting(event -> event.getString("phase"))
+                .contains(CheckExecutionEvent.VISIT_NODE, CheckExecutionEvent.LEAVE_NODE, CheckExecutionEvent.WALK);
+        assertThat(events)
+                .filteredOn(event -> "GCI1".equals(event.getString("ruleKey")))
+                .filteredOn(event -> CheckExecutionEvent.WALK.equals(event.getString("phase")))
+                .extracting(event -> event.getString("visitor"))
+                .contains("RepositoryCallVisitor");
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getString("nodeKind")).isNotEmpty();
+            assertThat(event.getDuration().isNegative()).isFalse();
+        });
+    }
+
+    @Test
+    void disabledByDefault() throws IOException {
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.start();
+            runner.scan(file);
+            recording.stop();
+            events = dump(recording);
+        }
+
+        assertThat(events).noneMatch(event -> CheckExecutionEvent.NAME.equals(event.getEventType().getName()));
+    }
+
+    private List<RecordedEvent> dump(Recording recording) throws IOException {
+        Path dump = tempDir.resolve("recording.jfr");
+        recording.dump(dump);
+        return RecordingFile.readAllEvents(dump);
+    }
+}
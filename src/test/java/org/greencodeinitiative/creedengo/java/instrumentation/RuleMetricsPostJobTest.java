@@ -0,0 +1,71 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.instrumentation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.postjob.PostJobContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RuleMetricsPostJobTest {
+
+    @TempDir
+    Path workDir;
+
+    private RuleMetricsPostJob postJob;
+
+    @BeforeEach
+    void init() {
+        FileSystem fileSystem = mock(FileSystem.class);
+        when(fileSystem.workDir()).thenReturn(workDir.toFile());
+        postJob = new RuleMetricsPostJob(fileSystem);
+    }
+
+    @AfterEach
+    void stop() {
+        RuleMetrics.stop();
+    }
+
+    @Test
+    void writeSummaryInWorkDir() throws IOException {
+        RuleMetrics.start().counters("GCI72").issueRaised();
+
+        postJob.execute(mock(PostJobContext.class));
+
+        Path report = workDir.resolve(RuleMetricsPostJob.REPORT_FILE);
+        assertThat(Files.readString(report)).contains("{\"rule\": \"GCI72\", \"nodesVisited\": 0, \"issues\": 1");
+        assertThat(RuleMetrics.current()).isNull();
+    }
+
+    @Test
+    void noSummaryWhenDisabled() {
+        postJob.execute(mock(PostJobContext.class));
+
+        assertThat(workDir.resolve(RuleMetricsPostJob.REPORT_FILE)).doesNotExist();
+    }
+}
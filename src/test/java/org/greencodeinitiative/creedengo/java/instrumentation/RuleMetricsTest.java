@@ -0,0 +1,104 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.instrumentation;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.offline.ReportedIssue;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleMetricsTest {
+
+    private ChecksRunner runner;
+    private ParsedJavaFile file;
+
+    @BeforeEach
+    void init() {
+        runner = new ChecksRunner(ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()));
+        file = ParsedJavaFile.parse(Path.of("src/test/files/AvoidSQLRequestInLoopCheck.java"),
+                FilesUtils.getClassPath("target/test-jars"));
+    }
+
+    @AfterEach
+    void stop() {
+        RuleMetrics.stop();
+    }
+
+    @Test
+    void metricsOfEachRule() {
+        RuleMetrics metrics = RuleMetrics.start();
+        assertThat(RuleMetrics.current()).isSameAs(metrics);
+
+        List<ReportedIssue> issues = runner.scan(file);
+        Map<String, Long> issuesByRule = issues.stream()
+                .collect(Collectors.groupingBy(ReportedIssue::ruleKey, Collectors.counting()));
+        Map<String, RuleMetrics.Counters> countersByRule = metrics.allCounters().stream()
+                .collect(Collectors.toMap(RuleMetrics.Counters::ruleKey, Function.identity()));
+
+        assertThat(countersByRule).containsKeys("GCI72", "GCI69", "GCI74");
+        assertThat(issuesByRule.get("GCI72")).isPositive();
+        issuesByRule.forEach((rule, count) -> assertThat(countersByRule.get(rule).issues()).isEqualTo(count));
+        assertThat(countersByRule.values()).allSatisfy(counters -> {
+            assertThat(counters.nodesVisited()).isPositive();
+            assertThat(counters.nanos()).isPositive();
+        });
+        assertThat(metrics.allCounters()).isSortedAccordingTo(
+                (c1, c2) -> Long.compare(c2.nanos(), c1.nanos()));
+
+        assertThat(RuleMetrics.stop()).isSameAs(metrics);
+        assertThat(RuleMetrics.current()).isNull();
+    }
+
+    @Test
+    void nothingCollectedWhenDisabled() {
+        RuleMetrics metrics = RuleMetrics.start();
+        RuleMetrics.stop();
+
+        runner.scan(file);
+
+        assertThat(metrics.allCounters()).isEmpty();
+    }
+
+    @Test
+    void json() {
+        RuleMetrics metrics = RuleMetrics.start();
+        assertThat(metrics.toJson()).matches("\\{\n  \"analysisNanos\": \\d+,\n  \"rules\": \\[]\n}\n");
+
+        metrics.counters("GCI1").nodeVisited();
+        metrics.counters("GCI1").spent(10, 20);
+        metrics.counters("GCI1").issueRaised();
+        metrics.counters("GCI2").spent(30, 0);
+        assertThat(metrics.toJson()).endsWith("  \"rules\": [\n"
+                + "    {\"rule\": \"GCI2\", \"nodesVisited\": 0, \"issues\": 0, \"nanos\": 30, \"allocatedBytes\": 0},\n"
+                + "    {\"rule\": \"GCI1\", \"nodesVisited\": 1, \"issues\": 1, \"nanos\": 10, \"allocatedBytes\": 20}\n"
+                + "  ]\n"
+                + "}\n");
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.ToolProvider;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CreedengoCliTest {
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void printIssuesAndSummary() {
+        int status = run("-cp", "target/test-jars/*", "-r", "GCI67", "-j", "2", "src/test/files/IncrementCheck.java");
+
+        assertThat(status).isEqualTo(CreedengoCli.EXIT_OK);
+        assertThat(output(out).lines())
+                .contains("src/test/files/IncrementCheck.java:24: [GCI67] Use ++i instead of i++")
+                .allMatch(line -> line.contains("[GCI67]") || line.startsWith("Analyzed 1 files (0 failed)"))
+                .last().asString().contains("with 2 threads");
+        assertThat(output(err)).isEmpty();
+    }
+
+    @Test
+    void sqlRequestsInLoopThroughMethods() {
+        int status = run("-r", "GCI72", "-j", "1", "src/test/files/AvoidSQLRequestInLoopThroughMethods.java");
+
+        assertThat(status).isEqualTo(CreedengoCli.EXIT_OK);
+        assertThat(output(out).lines()).contains(
+                "src/test/files/AvoidSQLRequestInLoopThroughMethods.java:64: [GCI72] Avoid SQL request in loop (through"
+                        + " AvoidSQLRequestInLoopThroughMethods.load() > AvoidSQLRequestInLoopThroughMethods.query()"
+                        + " > Statement.executeQuery())",
+                "src/test/files/AvoidSQLRequestInLoopThroughMethods.java:71: [GCI72] Avoid SQL request in loop (through"
+                        + " NameSource.name() > DatabaseNameSource.name() > AvoidSQLRequestInLoopThroughMethods.load()"
+                        + " > AvoidSQLRequestInLoopThroughMethods.query() > Statement.executeQuery())");
+    }
+
+    @Test
+    void sqlRequestsInLoopThroughMethodsOfOtherFiles() throws IOException {
+        Path classes = directory.resolve("classes");
+        int compilation = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-encoding", "UTF-8",
+                "-d", classes.toString(), "src/test/files/AvoidSQLRequestInLoopDao.java");
+        assertThat(compilation).isZero();
+        // the DAO is analyzed first, then after the service calling it in a loop
+        for (String daoFile : List.of("ADao.java", "ZDao.java")) {
+            Path sources = Files.createDirectories(directory.resolve(daoFile.replace(".java", "")));
+            Files.copy(Path.of("src/test/files/AvoidSQLRequestInLoopDao.java"), sources.resolve(daoFile));
+            Files.copy(Path.of("src/test/files/AvoidSQLRequestInLoopService.java"), sources.resolve("Service.java"));
+            for (String threads : List.of("1", "2")) {
+                out.reset();
+
+                int status = run("-cp", classes.toString(), "-r", "GCI72", "-j", threads, sources.toString());
+
+                assertThat(status).isEqualTo(CreedengoCli.EXIT_OK);
+                assertThat(output(out).lines()).containsOnlyOnce(sources.resolve("Service.java") + ":32: [GCI72] Avoid SQL"
+                        + " request in loop (through AvoidSQLRequestInLoopDao.delete() > Connection.prepareStatement())");
+            }
+        }
+    }
+
+    @Test
+    void writeReportIntoFile() throws IOException {
+        Path report = directory.resolve("report.txt");
+
+        int status = run("--rules", "GCI67", "--output", report.toString(), "--fail-on-issues", "src/test/files");
+
+        assertThat(status).isEqualTo(CreedengoCli.EXIT_ISSUES);
+        assertThat(output(out)).isEmpty();
+        assertThat(Files.readString(report)).contains("[GCI67]").contains("Analyzed ");
+    }
+
+    @Test
+    void sarifReportWithSummaryOnStandardError() {
+        int status = run("-r", "GCI67,GCI2", "-f", "sarif", "src/test/files/IncrementCheck.java");
+
+        assertThat(status).isEqualTo(CreedengoCli.EXIT_OK);
+        JsonObject run = JsonParser.parseString(output(out)).getAsJsonObject().getAsJsonArray("runs").get(0).getAsJsonObject();
+        assertThat(run.getAsJsonArray("results")).isNotEmpty();
+        assertThat(output(err)).startsWith("Analyzed 1 files (0 failed)");
+    }
+
+    @Test
+    void noIssueWithFailOnIssues() {
+        int status = run("-r", "GCI27", "--fail-on-issues", "src/test/files/IncrementCheck.java");
+
+        assertThat(status).isEqualTo(CreedengoCli.EXIT_OK);
+        assertThat(output(out)).startsWith("Analyzed 1 files");
+    }
+
+    @Test
+    void usageErrors() {
+        assertThat(run()).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(run("--unknown", "src")).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(run("-j", "0", "src")).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(run("src", "-cp")).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(run("-r", "GCI67,XYZ", "src")).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(run("does/not/exist")).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(run("-f", "xml", "src")).isEqualTo(CreedengoCli.EXIT_ERROR);
+        assertThat(output(err))
+                .contains("No source directory or file")
+                .contains("Unknown option: --unknown")
+                .contains("Invalid number of threads: 0")
+                .contains("Missing value of option -cp")
+                .contains("Unknown rules: [XYZ]")
+                .contains("No such source directory or file: does/not/exist")
+                .contains("Unknown report format: xml")
+                .contains(CreedengoCli.USAGE);
+        assertThat(output(out)).isEmpty();
+    }
+
+    @Test
+    void classpathEntries() throws IOException {
+        Files.createFile(directory.resolve("b.jar"));
+        Files.createFile(directory.resolve("a.jar"));
+        Files.createFile(directory.resolve("notes.txt"));
+
+        List<File> classpath = CreedengoCli.classpath("classes" + File.pathSeparator + directory + File.separator + "*");
+
+        assertThat(classpath).containsExactly(new File("classes"),
+                directory.resolve("a.jar").toFile(), directory.resolve("b.jar").toFile());
+    }
+
+    private int run(String... args) {
+        return CreedengoCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    private static String output(ByteArrayOutputStream stream) {
+        return stream.toString(StandardCharsets.UTF_8);
+    }
+}
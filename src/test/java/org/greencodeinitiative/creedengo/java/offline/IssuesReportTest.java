@@ -0,0 +1,134 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IssuesReportTest {
+
+    private static final Path FILE = Path.of("src", "Foo.java");
+    private static final Path OTHER_FILE = Path.of("src", "Bar.java");
+
+    private final StringWriter writer = new StringWriter();
+
+    @Test
+    void duplicatesOfAFileAreWrittenOnce() throws IOException {
+        IssuesReport report = IssuesReport.create(IssuesReport.TEXT, writer, List.of("GCI67"));
+
+        report.start();
+        report.fileAnalyzed(FILE, List.of(issue(FILE, "GCI67", 3), issue(FILE, "GCI67", 3), issue(FILE, "GCI2", 3)));
+        report.fileAnalyzed(OTHER_FILE, List.of(issue(OTHER_FILE, "GCI67", 3)));
+
+        assertThat(writer.toString().lines()).containsExactly(
+                FILE + ":3: [GCI67] message of GCI67",
+                FILE + ":3: [GCI2] message of GCI2",
+                OTHER_FILE + ":3: [GCI67] message of GCI67");
+        assertThat(report.writtenIssues()).isEqualTo(3);
+        assertThat(report.duplicates()).isEqualTo(1);
+    }
+
+    @Test
+    void ndjson() throws IOException {
+        IssuesReport report = IssuesReport.create(IssuesReport.NDJSON, writer, List.of("GCI74"));
+
+        report.start();
+        report.fileAnalyzed(FILE, List.of(new ReportedIssue("GCI74", FILE, 12, "Don't use \"SELECT *\"\n\\")));
+        report.end(new OfflineAnalysis.Summary());
+
+        List<String> lines = writer.toString().lines().collect(Collectors.toList());
+        assertThat(lines).hasSize(1);
+        JsonObject issue = JsonParser.parseString(lines.get(0)).getAsJsonObject();
+        assertThat(issue.get("rule").getAsString()).isEqualTo("GCI74");
+        assertThat(issue.get("file").getAsString()).isEqualTo("src/Foo.java");
+        assertThat(issue.get("line").getAsInt()).isEqualTo(12);
+        assertThat(issue.get("message").getAsString()).isEqualTo("Don't use \"SELECT *\"\n\\");
+    }
+
+    @Test
+    void sarif() throws IOException {
+        IssuesReport report = IssuesReport.create(IssuesReport.SARIF, writer, List.of("GCI67", "GCI2"));
+
+        report.start();
+        report.fileAnalyzed(FILE, List.of(issue(FILE, "GCI67", 3), issue(FILE, "GCI67", 3), issue(FILE, "GCI2", 0)));
+        report.fileFailed(OTHER_FILE, new IllegalStateException("parse error"));
+        report.end(new OfflineAnalysis.Summary());
+
+        JsonObject run = JsonParser.parseString(writer.toString()).getAsJsonObject()
+                .getAsJsonArray("runs").get(0).getAsJsonObject();
+        JsonObject driver = run.getAsJsonObject("tool").getAsJsonObject("driver");
+        assertThat(driver.get("name").getAsString()).isEqualTo("creedengo-java");
+        assertThat(driver.getAsJsonArray("rules")).hasSize(2);
+
+        JsonArray results = run.getAsJsonArray("results");
+        assertThat(results).hasSize(2);
+        JsonObject result = results.get(0).getAsJsonObject();
+        assertThat(result.get("ruleId").getAsString()).isEqualTo("GCI67");
+        assertThat(result.getAsJsonObject("message").get("text").getAsString()).isEqualTo("message of GCI67");
+        JsonObject location = result.getAsJsonArray("locations").get(0).getAsJsonObject().getAsJsonObject("physicalLocation");
+        assertThat(location.getAsJsonObject("artifactLocation").get("uri").getAsString()).isEqualTo("src/Foo.java");
+        assertThat(location.getAsJsonObject("region").get("startLine").getAsInt()).isEqualTo(3);
+        assertThat(results.get(1).getAsJsonObject().getAsJsonArray("locations").get(0).getAsJsonObject()
+                .getAsJsonObject("physicalLocation").has("region")).isFalse();
+
+        JsonObject invocation = run.getAsJsonArray("invocations").get(0).getAsJsonObject();
+        assertThat(invocation.get("executionSuccessful").getAsBoolean()).isFalse();
+        assertThat(invocation.getAsJsonArray("toolExecutionNotifications")).hasSize(1);
+        assertThat(invocation.getAsJsonObject("properties").get("duplicates").getAsInt()).isEqualTo(1);
+    }
+
+    @Test
+    void emptySarif() throws IOException {
+        IssuesReport report = IssuesReport.create(IssuesReport.SARIF, writer, List.of());
+
+        report.start();
+        report.end(new OfflineAnalysis.Summary());
+
+        JsonObject run = JsonParser.parseString(writer.toString()).getAsJsonObject()
+                .getAsJsonArray("runs").get(0).getAsJsonObject();
+        assertThat(run.getAsJsonArray("results")).isEmpty();
+        assertThat(run.getAsJsonArray("invocations").get(0).getAsJsonObject().get("executionSuccessful").getAsBoolean()).isTrue();
+    }
+
+    @Test
+    void unknownFormat() {
+        assertThatThrownBy(() -> IssuesReport.create("xml", writer, List.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown report format: xml");
+    }
+
+    @Test
+    void jsonEscaping() {
+        assertThat(IssuesReport.json("a\"b\\c\td\u0001")).isEqualTo("\"a\\\"b\\\\c\\td\\u0001\"");
+    }
+
+    private static ReportedIssue issue(Path file, String ruleKey, int line) {
+        return new ReportedIssue(ruleKey, file, line, "message of " + ruleKey);
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.offline;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.greencodeinitiative.creedengo.java.utils.FilesUtils;
+import org.junit.jupiter.api.Test;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.ModuleScannerContext;
+import org.sonar.plugins.java.api.internal.EndOfAnalysis;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OfflineAnalysisTest {
+
+    @Test
+    void parallelAnalysisGivesIssuesInFilesOrder() throws IOException {
+        List<File> classpath = FilesUtils.getClassPath("target/test-jars");
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Path.of("src/test/files"))) {
+            files = walk.filter(file -> file.toString().endsWith(".java")).sorted().collect(Collectors.toList());
+        }
+        ChecksRunner sequentialRunner = new ChecksRunner(ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()));
+        List<ReportedIssue> expected = new ArrayList<>();
+        for (Path file : files) {
+            expected.addAll(sequentialRunner.scan(ParsedJavaFile.parse(file, classpath)));
+        }
+
+        RecordingListener listener = new RecordingListener();
+        OfflineAnalysis.Summary summary = new OfflineAnalysis(JavaCheckRegistrar.checkClasses(), classpath, 4)
+                .analyze(files, listener);
+
+        assertThat(listener.analyzedFiles).containsExactlyElementsOf(files);
+        assertThat(listener.issues).containsExactlyElementsOf(expected);
+        assertThat(listener.failedFiles).isEmpty();
+        assertThat(summary.files()).isEqualTo(files.size());
+        assertThat(summary.failedFiles()).isZero();
+        assertThat(summary.issues()).isEqualTo(expected.size());
+        assertThat(summary.parseNanos()).isPositive();
+        assertThat(summary.checksNanos()).isPositive();
+        assertThat(summary.wallNanos()).isPositive();
+    }
+
+    @Test
+    void failedFileDoesNotStopAnalysis() {
+        Path missing = Path.of("src/test/files/Missing.java");
+        Path existing = Path.of("src/test/files/IncrementCheck.java");
+        RecordingListener listener = new RecordingListener();
+
+        OfflineAnalysis.Summary summary = new OfflineAnalysis(JavaCheckRegistrar.checkClasses(),
+                FilesUtils.getClassPath("target/test-jars"), 2).analyze(List.of(missing, existing), listener);
+
+        assertThat(listener.failedFiles).containsExactly(missing);
+        assertThat(listener.analyzedFiles).containsExactly(existing);
+        assertThat(summary.files()).isEqualTo(2);
+        assertThat(summary.failedFiles()).isEqualTo(1);
+        assertThat(summary.issues()).isEqualTo(listener.issues.size()).isPositive();
+    }
+
+    @Test
+    void endOfAnalysisOfTheChecksOfEachThread() {
+        List<Path> files = List.of(Path.of("src/test/files/IncrementCheck.java"),
+                Path.of("src/test/files/ArrayCopyCheck.java"));
+        RecordingListener listener = new RecordingListener();
+
+        OfflineAnalysis.Summary summary = new OfflineAnalysis(List.of(FilesCountCheck.class), List.of(), 1)
+                .analyze(files, listener);
+
+        assertThat(listener.analyzedFiles).containsExactly(files.get(0), files.get(1), ChecksRunner.PROJECT);
+        assertThat(listener.issues).containsExactly(new ReportedIssue("FilesCount", ChecksRunner.PROJECT, 0, "2 files"));
+        assertThat(summary.files()).isEqualTo(2);
+        assertThat(summary.issues()).isEqualTo(1);
+    }
+
+    @Test
+    void parallelismMustBePositive() {
+        List<File> classpath = List.of();
+        assertThatThrownBy(() -> new OfflineAnalysis(JavaCheckRegistrar.checkClasses(), classpath, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static class RecordingListener implements OfflineAnalysis.Listener {
+
+        private final List<Path> analyzedFiles = new ArrayList<>();
+        private final List<Path> failedFiles = new ArrayList<>();
+        private final List<ReportedIssue> issues = new ArrayList<>();
+
+        @Override
+        public void fileAnalyzed(Path file, List<ReportedIssue> fileIssues) {
+            analyzedFiles.add(file);
+            issues.addAll(fileIssues);
+        }
+
+        @Override
+        public void fileFailed(Path file, RuntimeException error) {
+            failedFiles.add(file);
+        }
+    }
+
+    @Rule(key = "FilesCount")
+    static class FilesCountCheck extends IssuableSubscriptionVisitor implements EndOfAnalysis {
+
+        private int files;
+
+        @Override
+        public List<Tree.Kind> nodesToVisit() {
+            return List.of(Tree.Kind.COMPILATION_UNIT);
+        }
+
+        @Override
+        public void visitNode(Tree tree) {
+            files++;
+        }
+
+        @Override
+        public void endOfAnalysis(ModuleScannerContext context) {
+            context.addIssueOnProject(this, files + " files");
+        }
+    }
+}
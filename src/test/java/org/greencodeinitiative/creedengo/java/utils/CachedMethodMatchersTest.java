@@ -0,0 +1,119 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.semantic.MethodMatchers;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedMethodMatchersTest {
+
+    private static final MethodMatchers SQL_METHOD = MethodMatchers.create()
+            .ofSubTypes("java.sql.Statement")
+            .names("executeQuery")
+            .withAnyParameters()
+            .build();
+
+    private CompilationUnitTree compilationUnit;
+    private List<MethodInvocationTree> invocations;
+
+    @BeforeEach
+    void init() {
+        invocations = new ArrayList<>();
+        compilationUnit = ParsedJavaFile.parse(Path.of("src/test/files/AvoidSQLRequestInLoopCheck.java"),
+                FilesUtils.getClassPath("target/test-jars")).tree();
+        CachedMethodMatchers.startFile(compilationUnit);
+        compilationUnit.accept(new BaseTreeVisitor() {
+            @Override
+            public void visitMethodInvocation(MethodInvocationTree tree) {
+                invocations.add(tree);
+                super.visitMethodInvocation(tree);
+            }
+        });
+    }
+
+    @AfterEach
+    void release() {
+        CachedMethodMatchers.release(compilationUnit);
+    }
+
+    @Test
+    void sameVerdictsAsDelegate() {
+        MethodMatchers cached = CachedMethodMatchers.of(SQL_METHOD);
+
+        assertThat(invocations).extracting(cached::matches)
+                .containsExactlyElementsOf(invocations.stream().map(SQL_METHOD::matches).collect(Collectors.toList()))
+                .contains(true, false);
+    }
+
+    @Test
+    void verdictsAreComputedOncePerMethod() {
+        MethodMatchers cached = CachedMethodMatchers.of(SQL_METHOD);
+
+        long initialMisses = CachedMethodMatchers.misses();
+        long initialHits = CachedMethodMatchers.hits();
+        invocations.forEach(cached::matches);
+        long misses = CachedMethodMatchers.misses() - initialMisses;
+        long cachedCalls = misses + CachedMethodMatchers.hits() - initialHits;
+        assertThat(misses).isPositive().isLessThan(cachedCalls);
+        assertThat(cachedCalls).isLessThanOrEqualTo(invocations.size());
+        assertThat(CachedMethodMatchers.size()).isEqualTo((int) misses);
+
+        // second analysis of the same calls : no verdict computed again
+        invocations.forEach(cached::matches);
+        assertThat(CachedMethodMatchers.misses() - initialMisses).isEqualTo(misses);
+        assertThat(CachedMethodMatchers.hits() - initialHits).isEqualTo(2 * cachedCalls - misses);
+    }
+
+    @Test
+    void verdictsAreKeptByMatchers() {
+        MethodMatchers cached = CachedMethodMatchers.of(SQL_METHOD);
+        MethodMatchers none = CachedMethodMatchers.of(MethodMatchers.none());
+
+        invocations.forEach(cached::matches);
+        assertThat(invocations).extracting(none::matches).containsOnly(false);
+        assertThat(CachedMethodMatchers.of(cached)).isSameAs(cached);
+    }
+
+    @Test
+    void verdictsAreForgottenWithTheirFile() {
+        MethodMatchers cached = CachedMethodMatchers.of(SQL_METHOD);
+        invocations.forEach(cached::matches);
+        long misses = CachedMethodMatchers.misses();
+        assertThat(CachedMethodMatchers.size()).isPositive();
+
+        CachedMethodMatchers.release(compilationUnit);
+        assertThat(CachedMethodMatchers.size()).isZero();
+        // outside of a file, verdicts are computed without cache
+        assertThat(invocations).extracting(cached::matches).contains(true, false);
+        assertThat(CachedMethodMatchers.misses()).isEqualTo(misses);
+        assertThat(CachedMethodMatchers.size()).isZero();
+    }
+}
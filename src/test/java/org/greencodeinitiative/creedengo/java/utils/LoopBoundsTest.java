@@ -0,0 +1,93 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.DoWhileStatementTree;
+import org.sonar.plugins.java.api.tree.ForEachStatement;
+import org.sonar.plugins.java.api.tree.ForStatementTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.WhileStatementTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoopBoundsTest {
+
+    @Test
+    void boundsReadFromLoopHeaders() {
+        List<String> bounds = new ArrayList<>();
+        for (Tree loop : loops(""
+                + "class A {\n"
+                + "  static final int MAX = 10;\n"
+                + "  void f(String[] array, java.util.List<String> list, Iterable<String> iterable, int n) {\n"
+                + "    for (String s : array) {}\n"
+                + "    for (String s : list) {}\n"
+                + "    for (String s : iterable) {}\n"
+                + "    for (int i = 0; i < n; i++) {}\n"
+                + "    for (int i = 0, size = list.size(); i < size; i++) {}\n"
+                + "    for (int i = 0; i <= list.size(); i++) {}\n"
+                + "    for (int i = 0; A.MAX > i; i++) {}\n"
+                + "    for (int i = 0; 100 >= i; i++) {}\n"
+                + "    for (int i = 1; i < n; i++) {}\n"
+                + "    for (int i = 0; i < list.get(0).length(); i++) {}\n"
+                + "    for (int i = 0; n < i; i++) {}\n"
+                + "    for (;;) {}\n"
+                + "    while (n > 0) {}\n"
+                + "    do {} while (n > 0);\n"
+                + "  }\n"
+                + "}\n")) {
+            bounds.add(LoopBounds.of(loop));
+        }
+
+        assertThat(bounds).containsExactly("array.length", "list.size()", null, "n", "size", "list.size() + 1",
+                "A.MAX", "100 + 1", null, null, null, null, null, null);
+    }
+
+    private static List<Tree> loops(String source) {
+        List<Tree> loops = new ArrayList<>();
+        ParsedJavaFile.parse(Path.of("A.java"), source, Collections.emptyList()).tree().accept(new BaseTreeVisitor() {
+            @Override
+            public void visitForEachStatement(ForEachStatement tree) {
+                loops.add(tree);
+            }
+
+            @Override
+            public void visitForStatement(ForStatementTree tree) {
+                loops.add(tree);
+            }
+
+            @Override
+            public void visitWhileStatement(WhileStatementTree tree) {
+                loops.add(tree);
+            }
+
+            @Override
+            public void visitDoWhileStatement(DoWhileStatementTree tree) {
+                loops.add(tree);
+            }
+        });
+        return loops;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoopNestingIndexTest {
+
+    private CompilationUnitTree compilationUnit;
+    private List<MethodInvocationTree> executeQueryCalls;
+
+    @BeforeEach
+    void init() {
+        compilationUnit = ParsedJavaFile.parse(Path.of("src/test/files/AvoidSQLRequestInLoopCheck.java"),
+                FilesUtils.getClassPath("target/test-jars")).tree();
+        executeQueryCalls = new ArrayList<>();
+        compilationUnit.accept(new BaseTreeVisitor() {
+            @Override
+            public void visitMethodInvocation(MethodInvocationTree tree) {
+                if ("executeQuery".equals(tree.methodSymbol().name())) {
+                    executeQueryCalls.add(tree);
+                }
+                super.visitMethodInvocation(tree);
+            }
+        });
+    }
+
+    @Test
+    void depthAndEnclosingLoops() {
+        LoopNestingIndex index = LoopNestingIndex.of(compilationUnit);
+
+        assertThat(executeQueryCalls).hasSize(5);
+        assertThat(executeQueryCalls).extracting(index::depth).containsExactly(0, 1, 1, 1, 3);
+
+        MethodInvocationTree notInLoop = executeQueryCalls.get(0);
+        assertThat(index.isInLoop(notInLoop)).isFalse();
+        assertThat(index.innermostLoop(notInLoop)).isNull();
+        assertThat(index.outermostLoop(notInLoop)).isNull();
+
+        MethodInvocationTree nested = executeQueryCalls.get(4);
+        assertThat(index.isInLoop(nested)).isTrue();
+        assertThat(index.innermostLoop(nested).kind()).isEqualTo(Tree.Kind.WHILE_STATEMENT);
+        assertThat(index.outermostLoop(nested).kind()).isEqualTo(Tree.Kind.FOR_EACH_STATEMENT);
+        assertThat(index.depth(index.outermostLoop(nested))).isZero();
+        assertThat(index.depth(index.innermostLoop(nested))).isEqualTo(2);
+    }
+
+    @Test
+    void argumentsOfCallsInLoop(@TempDir Path sources) throws IOException {
+        Path source = Files.writeString(sources.resolve("A.java"), ""
+                + "class A {\n"
+                + "  void f(java.util.List<String> names) {\n"
+                + "    for (String name : names) {\n"
+                + "      System.out.println(name.trim());\n"
+                + "      boolean empty = 0 == name.length();\n"
+                + "    }\n"
+                + "  }\n"
+                + "}\n");
+        CompilationUnitTree tree = ParsedJavaFile.parse(source, List.of()).tree();
+        List<MethodInvocationTree> calls = new ArrayList<>();
+        tree.accept(new BaseTreeVisitor() {
+            @Override
+            public void visitMethodInvocation(MethodInvocationTree invocation) {
+                calls.add(invocation);
+                super.visitMethodInvocation(invocation);
+            }
+        });
+        LoopNestingIndex index = LoopNestingIndex.of(tree);
+
+        // the call of trim() is an argument of the call of println(), the call of length() an operand
+        assertThat(calls).extracting(index::depth).containsExactly(1, 1, 1);
+        LoopNestingIndex.release(tree);
+    }
+
+    @Test
+    void indexIsSharedUntilReleased() {
+        LoopNestingIndex index = LoopNestingIndex.of(compilationUnit);
+        assertThat(LoopNestingIndex.of(compilationUnit)).isSameAs(index);
+
+        LoopNestingIndex.release(compilationUnit);
+        assertThat(LoopNestingIndex.of(compilationUnit)).isNotSameAs(index);
+        LoopNestingIndex.release(compilationUnit);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlLiteralsTest {
+
+    @Test
+    void queriesFoldedFromConstants() {
+        CompilationUnitTree tree = ParsedJavaFile.parse(Path.of("A.java"), ""
+                + "class A {\n"
+                + "  static final String TABLE = \"persons\";\n"
+                + "  static final String SELECT = \"SELECT id \" + \"FROM \" + TABLE;\n"
+                + "  void f(String name, int id) {\n"
+                + "    String where = \" WHERE id = \" + 1;\n"
+                + "    use(SELECT + where);\n"
+                + "    use(\"\\tUPDATE persons SET name = '\" + name + \"'\");\n"
+                + "    use(new StringBuilder(64).append(\"DELETE FROM \").append(TABLE).toString());\n"
+                + "    use(\"\"\"\n"
+                + "        WITH adults AS (SELECT * FROM persons)\n"
+                + "          SELECT name FROM adults\n"
+                + "        \"\"\");\n"
+                + "    use(\"Select a person\" + id);\n"
+                + "    use(\"CREATE TABLE persons (last_update DATE)\");\n"
+                + "    use(\"DROP TABLE persons\");\n"
+                + "  }\n"
+                + "  void use(String sql) {}\n"
+                + "}\n", Collections.emptyList()).tree();
+
+        List<String> queries = new ArrayList<>();
+        for (SqlLiterals.SqlQuery query : SqlLiterals.of(tree).queries()) {
+            queries.add(query.kind() + " " + query.sql() + (query.selectsAllColumns() ? " (all columns)" : ""));
+        }
+        SqlLiterals.release(tree);
+
+        assertThat(queries).containsExactly(
+                "SELECT SELECT id FROM persons",
+                "SELECT SELECT id FROM persons WHERE id = 1",
+                "UPDATE \tUPDATE persons SET name = '",
+                "DELETE DELETE FROM persons",
+                "SELECT WITH adults AS (SELECT * FROM persons)\n  SELECT name FROM adults\n (all columns)",
+                "SELECT Select a person");
+    }
+
+    @Test
+    void sameFileSameQueries() {
+        CompilationUnitTree tree = ParsedJavaFile.parse(Path.of("A.java"), "class A { String s = \"SELECT 1\"; }",
+                Collections.emptyList()).tree();
+        SqlLiterals sqlLiterals = SqlLiterals.of(tree);
+
+        assertThat(SqlLiterals.of(tree)).isSameAs(sqlLiterals);
+        assertThat(sqlLiterals.queries()).hasSize(1).isSameAs(sqlLiterals.queries());
+        SqlLiterals.release(tree);
+        assertThat(SqlLiterals.of(tree)).isNotSameAs(sqlLiterals);
+        SqlLiterals.release(tree);
+    }
+}
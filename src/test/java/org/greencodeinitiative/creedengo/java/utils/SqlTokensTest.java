@@ -0,0 +1,43 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTokensTest {
+
+    @Test
+    void tokenize() {
+        List<SqlTokens.Token> tokens = SqlTokens.tokenize("select p.id, \"Name\" -- comment\n"
+                + "FROM person p /* comment */ WHERE p.name LIKE 'O''Neil%' AND age >= 18.5 OR id IN (?, ?1, :id)");
+
+        assertThat(tokens.stream().map(SqlTokens.Token::toString).collect(Collectors.joining(" ")))
+                .isEqualTo("SELECT P.ID , Name FROM PERSON P WHERE P.NAME LIKE 'O'Neil%' AND AGE >= 18.5 OR ID IN ( ? , ?1 , :id )");
+        assertThat(tokens.stream().map(SqlTokens.Token::type).distinct())
+                .containsExactly(SqlTokens.Type.WORD, SqlTokens.Type.SYMBOL, SqlTokens.Type.STRING, SqlTokens.Type.NUMBER,
+                        SqlTokens.Type.PARAMETER);
+        assertThat(tokens.get(0).is("SELECT")).isTrue();
+        assertThat(tokens.get(10).is("O'Neil%")).isFalse();
+    }
+
+}
@@ -0,0 +1,229 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generator of a large synthetic Java project, used to measure how the checks scale with the size of a project
+ * (throughput and memory), and to compare releases on a same code base.
+ * <p>
+ * Generated classes mix the patterns targeted by the rules (Spring repositories called in loops and streams, JDBC
+ * queries in loops, regular expressions, string buffers, long if/else chains...) with compliant code. The generation
+ * is deterministic : the same seed and the same number of classes always produce the same sources.
+ * <p>
+ * Types used by the generated code come from "target/test-jars" (Spring Data) or from the JDK : each file only
+ * depends on the classpath, so that files can be parsed one by one.
+ */
+public class SyntheticProject {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    static final String BASE_PACKAGE = "org.example.synthetic";
+    static final int CLASSES_PER_PACKAGE = 100;
+
+    private final long seed;
+
+    public SyntheticProject(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Write the sources of {@code classCount} classes into {@code directory} (existing files are overwritten)
+     *
+     * @return paths of the generated files, in generation order
+     */
+    public List<Path> generate(Path directory, int classCount) {
+        Random random = new Random(seed);
+        List<Path> files = new ArrayList<>(classCount);
+        try {
+            for (int i = 0; i < classCount; i++) {
+                String packageName = BASE_PACKAGE + ".module" + (i / CLASSES_PER_PACKAGE);
+                Path packageDirectory = directory.resolve(packageName.replace('.', '/'));
+                Files.createDirectories(packageDirectory);
+                Path file = packageDirectory.resolve(className(i) + ".java");
+                Files.writeString(file, classSource(packageName, i, random), StandardCharsets.UTF_8);
+                files.add(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to generate synthetic project into " + directory, e);
+        }
+        return files;
+    }
+
+    static String className(int index) {
+        return "Component" + index;
+    }
+
+    /**
+     * Source of one class : each class has a Spring Data repository and between 3 and 8 methods, picked among all
+     * the patterns
+     */
+    static String classSource(String packageName, int index, Random random) {
+        String entity = "Entity" + index;
+        StringBuilder source = new StringBuilder(8192)
+                .append("package ").append(packageName).append(";\n\n")
+                .append("import java.io.*;\n")
+                .append("import java.sql.*;\n")
+                .append("import java.util.*;\n")
+                .append("import java.util.regex.Pattern;\n")
+                .append("import java.util.stream.Collectors;\n")
+                .append("import org.springframework.data.jpa.repository.JpaRepository;\n\n")
+                .append("public class ").append(className(index)).append(" {\n\n")
+                .append("    public static final List<String> NAMES = new ArrayList<>();\n\n")
+                .append("    public static class ").append(entity).append(" {\n")
+                .append("        private Integer id;\n")
+                .append("        public Integer getId() { return id; }\n")
+                .append("    }\n\n")
+                .append("    public interface ").append(entity).append("Repository extends JpaRepository<")
+                .append(entity).append(", Integer> {\n")
+                .append("    }\n\n")
+                .append("    private ").append(entity).append("Repository repository;\n")
+                .append("    private Connection connection;\n")
+                .append("    private int[] values = new int[64];\n\n");
+        int methodCount = 3 + random.nextInt(6);
+        for (int m = 0; m < methodCount; m++) {
+            appendMethod(source, entity, m, random);
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static void appendMethod(StringBuilder source, String entity, int m, Random random) {
+        switch (random.nextInt(10)) {
+            case 0:
+                source.append("    public List<").append(entity).append("> findAll").append(m).append("(List<Integer> ids) {\n")
+                        .append("        List<").append(entity).append("> result = new ArrayList<>();\n")
+                        .append("        for (Integer id : ids) {\n")
+                        .append("            repository.findById(id).ifPresent(result::add);\n")
+                        .append("        }\n")
+                        .append("        return result;\n")
+                        .append("    }\n\n");
+                break;
+            case 1:
+                source.append("    public List<").append(entity).append("> streamAll").append(m).append("(List<Integer> ids) {\n")
+                        .append("        return ids.stream().map(id -> repository.getById(id)).collect(Collectors.toList());\n")
+                        .append("    }\n\n");
+                break;
+            case 2:
+                source.append("    public void queryInLoop").append(m).append("(int count) throws SQLException {\n")
+                        .append("        Statement statement = connection.createStatement();\n")
+                        .append("        for (int i = 0; i < count; i++) {\n")
+                        .append("            ResultSet rs = statement.executeQuery(\"SELECT * FROM table").append(m)
+                        .append(" WHERE id = \" + i);\n")
+                        .append("            rs.close();\n")
+                        .append("        }\n")
+                        .append("        statement.executeUpdate(\"DELETE FROM table").append(m).append(" WHERE name LIKE '%old'\");\n")
+                        .append("    }\n\n");
+                break;
+            case 3:
+                source.append("    public void batch").append(m).append("(int[] data) throws SQLException {\n")
+                        .append("        PreparedStatement stmt = connection.prepareStatement(\"insert into table").append(m)
+                        .append(" values(?, ?)\");\n")
+                        .append("        for (int i = 0; i < data.length; i++) {\n")
+                        .append("            stmt.setInt(1, data[i]);\n")
+                        .append("            stmt.setString(2, \"constant\");\n")
+                        .append("            stmt.addBatch();\n")
+                        .append("        }\n")
+                        .append("        stmt.executeBatch();\n")
+                        .append("    }\n\n");
+                break;
+            case 4:
+                source.append("    public boolean matches").append(m).append("(List<String> words) {\n")
+                        .append("        Pattern pattern = Pattern.compile(\"[a-z]+").append(m).append("\");\n")
+                        .append("        StringBuilder builder = new StringBuilder();\n")
+                        .append("        for (int i = 0; i < words.size(); i++) {\n")
+                        .append("            builder.append(words.get(i));\n")
+                        .append("        }\n")
+                        .append("        String label = \"\";\n")
+                        .append("        for (String word : words) {\n")
+                        .append("            label += word;\n")
+                        .append("        }\n")
+                        .append("        return pattern.matcher(builder.toString()).matches() || label.isEmpty();\n")
+                        .append("    }\n\n");
+                break;
+            case 5:
+                appendIfElseChain(source, m, 3 + random.nextInt(30));
+                break;
+            case 6:
+                source.append("    public int[] copy").append(m).append("() {\n")
+                        .append("        int[] dest = new int[values.length];\n")
+                        .append("        for (int i = 0; i < values.length; i++) {\n")
+                        .append("            dest[i] = values[i];\n")
+                        .append("        }\n")
+                        .append("        for (int i = 0; i < count").append(m).append("(); i++) {\n")
+                        .append("            dest[i]++;\n")
+                        .append("        }\n")
+                        .append("        return dest;\n")
+                        .append("    }\n\n")
+                        .append("    private int count").append(m).append("() {\n")
+                        .append("        return values.length;\n")
+                        .append("    }\n\n");
+                break;
+            case 7:
+                source.append("    public String read").append(m).append("(String fileName) throws IOException {\n")
+                        .append("        InputStream in = null;\n")
+                        .append("        try {\n")
+                        .append("            in = new FileInputStream(fileName);\n")
+                        .append("            BufferedReader reader = new BufferedReader(new InputStreamReader(in));\n")
+                        .append("            return reader.readLine();\n")
+                        .append("        } catch (FileNotFoundException e) {\n")
+                        .append("            return null;\n")
+                        .append("        } finally {\n")
+                        .append("            if (in != null) {\n")
+                        .append("                in.close();\n")
+                        .append("            }\n")
+                        .append("        }\n")
+                        .append("    }\n\n");
+                break;
+            default:
+                // compliant code
+                source.append("    public int sum").append(m).append("(List<Integer> numbers) {\n")
+                        .append("        int total = 0;\n")
+                        .append("        int size = numbers.size();\n")
+                        .append("        for (int i = 0; i < size; ++i) {\n")
+                        .append("            total += numbers.get(i);\n")
+                        .append("        }\n")
+                        .append("        return total;\n")
+                        .append("    }\n\n");
+                break;
+        }
+    }
+
+    private static void appendIfElseChain(StringBuilder source, int m, int branches) {
+        source.append("    public int branch").append(m).append("(int value) {\n")
+                .append("        int result = 0;\n")
+                .append("        if (value == 0) {\n")
+                .append("            result = 1;\n");
+        for (int b = 1; b < branches; b++) {
+            source.append("        } else if (value == ").append(b).append(") {\n")
+                    .append("            result = ").append(b + 1).append(";\n");
+        }
+        source.append("        } else {\n")
+                .append("            result = -1;\n")
+                .append("        }\n")
+                .append("        return result;\n")
+                .append("    }\n\n");
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * creedengo - Java language - Provides rules to reduce the environmental footprint of your Java programs
+ * Copyright © 2024 Green Code Initiative (https://green-code-initiative.org/)
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.greencodeinitiative.creedengo.java.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.greencodeinitiative.creedengo.java.JavaCheckRegistrar;
+import org.greencodeinitiative.creedengo.java.offline.ChecksRunner;
+import org.greencodeinitiative.creedengo.java.offline.ParsedJavaFile;
+import org.greencodeinitiative.creedengo.java.offline.ReportedIssue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.check.Rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticProjectTest {
+
+    private static final int CLASSES = 120;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void generationIsDeterministic() throws IOException {
+        List<Path> first = new SyntheticProject(SyntheticProject.DEFAULT_SEED).generate(directory.resolve("first"), CLASSES);
+        List<Path> second = new SyntheticProject(SyntheticProject.DEFAULT_SEED).generate(directory.resolve("second"), CLASSES);
+
+        assertThat(first).hasSize(CLASSES);
+        assertThat(first.get(CLASSES - 1)).endsWith(Path.of("org/example/synthetic/module1/Component119.java"));
+        for (int i = 0; i < CLASSES; i++) {
+            assertThat(second.get(i)).hasSameTextualContentAs(first.get(i));
+        }
+    }
+
+    @Test
+    void everyRuleRaisesIssues() {
+        List<File> classpath = FilesUtils.getClassPath("target/test-jars");
+        ChecksRunner runner = new ChecksRunner(ChecksRunner.instantiate(JavaCheckRegistrar.checkClasses()));
+
+        List<ReportedIssue> issues = new ArrayList<>();
+        for (Path file : new SyntheticProject(SyntheticProject.DEFAULT_SEED).generate(directory, CLASSES)) {
+            issues.addAll(runner.scan(ParsedJavaFile.parse(file, classpath)));
+        }
+
+        Set<String> expectedRules = JavaCheckRegistrar.checkClasses().stream()
+                .map(checkClass -> checkClass.getAnnotation(Rule.class).key())
+                .collect(Collectors.toCollection(TreeSet::new));
+        Set<String> raisedRules = issues.stream().map(ReportedIssue::ruleKey).collect(Collectors.toCollection(TreeSet::new));
+        assertThat(raisedRules).isEqualTo(expectedRules);
+    }
+}
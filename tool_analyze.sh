@@ -0,0 +1,3 @@
+#!/usr/bin/env sh
+
+./mvnw -q -Pcli compile exec:exec -Dcli.args="$*"
@@ -0,0 +1,3 @@
+#!/usr/bin/env sh
+
+./mvnw -Pbenchmark test-compile exec:exec "$@"